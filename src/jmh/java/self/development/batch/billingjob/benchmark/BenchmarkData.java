@@ -0,0 +1,39 @@
+package self.development.batch.billingjob.benchmark;
+
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.mapping.RecordFieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static BillingData[] billingData(int rows) throws Exception {
+        var tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setNames("dataYear", "dataMonth", "accountId", "phoneNumber", "dataUsage", "callDuration", "smsCount");
+        var lineMapper = new DefaultLineMapper<BillingData>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(new RecordFieldSetMapper<>(BillingData.class));
+
+        String[] lines = new SyntheticBillingDataGenerator(42L).lines(rows);
+        var items = new BillingData[rows];
+        for (int i = 0; i < rows; i++) {
+            items[i] = lineMapper.mapLine(lines[i], i + 2);
+        }
+        return items;
+    }
+
+    static ReportingData[] reportingData(int rows) throws Exception {
+        BillingData[] items = billingData(rows);
+        var reports = new ReportingData[rows];
+        for (int i = 0; i < rows; i++) {
+            BillingData item = items[i];
+            double billingTotal = item.dataUsage() * 0.01f + item.callDuration() * 0.5f + item.smsCount() * 0.1f;
+            reports[i] = new ReportingData(item, billingTotal);
+        }
+        return reports;
+    }
+}
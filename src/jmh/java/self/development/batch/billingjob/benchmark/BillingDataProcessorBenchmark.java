@@ -0,0 +1,106 @@
+package self.development.batch.billingjob.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.processor.BillingDataProcessor;
+import self.development.batch.billingjob.processor.ChunkPricingEngine;
+import self.development.batch.billingjob.service.CircuitBreaker;
+import self.development.batch.billingjob.service.PricingCache;
+import self.development.batch.billingjob.service.PricingService;
+
+/**
+ * {@link BillingDataProcessor#process} with the pricing lookup against inline arithmetic with the same prices, and
+ * {@link ChunkPricingEngine} over the same records in chunks of {@value #CHUNK}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BillingDataProcessorBenchmark {
+
+    static final int BATCH = 10_000;
+    static final int CHUNK = 100;
+
+    private BillingData[] items;
+    private List<List<BillingData>> chunks;
+    private PricingCache pricingCache;
+    private BillingDataProcessor processor;
+    private ChunkPricingEngine pricingEngine;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.items = BenchmarkData.billingData(BATCH);
+        this.pricingCache = new PricingCache(new StablePricingService(), new CircuitBreaker(3, Duration.ofSeconds(30)), 1,
+                Duration.ZERO, new SimpleMeterRegistry());
+        this.processor = new BillingDataProcessor(this.pricingCache, 0.5f, 0.1f, 150f);
+        this.pricingEngine = new ChunkPricingEngine(this.pricingCache, 0.5f, 0.1f, 150f);
+        List<BillingData> all = Arrays.asList(this.items);
+        this.chunks = new ArrayList<>();
+        for (int from = 0; from < BATCH; from += CHUNK) {
+            this.chunks.add(all.subList(from, Math.min(from + CHUNK, BATCH)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pricingCache.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void processWithPricingLookup(Blackhole blackhole) {
+        for (BillingData item : this.items) {
+            blackhole.consume(this.processor.process(item));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void priceChunks(Blackhole blackhole) {
+        for (List<BillingData> chunk : this.chunks) {
+            blackhole.consume(this.pricingEngine.price(chunk));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void processWithoutPricingLookup(Blackhole blackhole) {
+        for (BillingData item : this.items) {
+            double billingTotal = item.dataUsage() * 0.01f + item.callDuration() * 0.5f + item.smsCount() * 0.1f;
+            blackhole.consume(billingTotal < 150f ? null : new ReportingData(item, billingTotal));
+        }
+    }
+
+    static class StablePricingService extends PricingService {
+
+        @Override
+        public float getDataPricing() {
+            return 0.01f;
+        }
+
+        @Override
+        public float getCallPricing() {
+            return 0.5f;
+        }
+
+        @Override
+        public float getSmsPricing() {
+            return 0.1f;
+        }
+    }
+}
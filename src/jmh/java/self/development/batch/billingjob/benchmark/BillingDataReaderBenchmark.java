@@ -0,0 +1,57 @@
+package self.development.batch.billingjob.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.mapping.RecordFieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import self.development.batch.billingjob.model.BillingData;
+
+/**
+ * Tokenization and record mapping as configured by {@code billingDataFlatFileItemReader}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BillingDataReaderBenchmark {
+
+    static final int BATCH = 10_000;
+
+    private String[] lines;
+    private DelimitedLineTokenizer tokenizer;
+    private DefaultLineMapper<BillingData> lineMapper;
+
+    @Setup
+    public void setUp() {
+        this.lines = new SyntheticBillingDataGenerator(42L).lines(BATCH);
+        this.tokenizer = new DelimitedLineTokenizer();
+        this.tokenizer.setNames("dataYear", "dataMonth", "accountId", "phoneNumber", "dataUsage", "callDuration", "smsCount");
+        this.lineMapper = new DefaultLineMapper<>();
+        this.lineMapper.setLineTokenizer(this.tokenizer);
+        this.lineMapper.setFieldSetMapper(new RecordFieldSetMapper<>(BillingData.class));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void tokenize(Blackhole blackhole) {
+        for (String line : this.lines) {
+            blackhole.consume(this.tokenizer.tokenize(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void tokenizeAndMap(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < this.lines.length; i++) {
+            blackhole.consume(this.lineMapper.mapLine(this.lines[i], i + 2));
+        }
+    }
+}
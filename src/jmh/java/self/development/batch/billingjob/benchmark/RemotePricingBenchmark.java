@@ -0,0 +1,99 @@
+package self.development.batch.billingjob.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.processor.RemotePricingProcessor;
+import self.development.batch.billingjob.service.SimulatedLatencyPricingService;
+
+/**
+ * Items per second through {@link RemotePricingProcessor} against {@link SimulatedLatencyPricingService} at 1, 10 and
+ * 100 ms pricing latency: called in the chunk thread ({@code sequential}) as the item processor did, or through
+ * {@code AsyncItemProcessor} on a platform thread pool or on virtual threads, each capped at {@value #CONCURRENCY}
+ * calls in flight. Each invocation prices {@value #BATCH} records in chunks of {@value #CHUNK}, waiting for a chunk's
+ * futures before starting the next, as the step does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RemotePricingBenchmark {
+
+    static final int BATCH = 200;
+    static final int CHUNK = 100;
+    static final int CONCURRENCY = 64;
+
+    @Param({"1", "10", "100"})
+    public long latencyMillis;
+
+    @Param({"sequential", "platform", "virtual"})
+    public String mode;
+
+    private BillingData[] items;
+    private RemotePricingProcessor processor;
+    private AsyncItemProcessor<BillingData, ReportingData> asyncProcessor;
+    private ThreadPoolTaskExecutor platformExecutor;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.items = BenchmarkData.billingData(BATCH);
+        this.processor = new RemotePricingProcessor(new SimulatedLatencyPricingService(Duration.ofMillis(this.latencyMillis)),
+                CONCURRENCY, Duration.ofMinutes(1), 1, Duration.ZERO, 0.5f, 0.1f, 150f, new SimpleMeterRegistry());
+        this.asyncProcessor = new AsyncItemProcessor<>();
+        this.asyncProcessor.setDelegate(this.processor);
+        if ("platform".equals(this.mode)) {
+            this.platformExecutor = new ThreadPoolTaskExecutor();
+            this.platformExecutor.setCorePoolSize(CONCURRENCY);
+            this.platformExecutor.setMaxPoolSize(CONCURRENCY);
+            this.platformExecutor.initialize();
+            this.asyncProcessor.setTaskExecutor(this.platformExecutor);
+        } else if ("virtual".equals(this.mode)) {
+            this.asyncProcessor.setTaskExecutor(new VirtualThreadTaskExecutor("pricing-"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.platformExecutor != null) {
+            this.platformExecutor.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void price(Blackhole blackhole) throws Exception {
+        if ("sequential".equals(this.mode)) {
+            for (BillingData item : this.items) {
+                blackhole.consume(this.processor.process(item));
+            }
+            return;
+        }
+        for (int from = 0; from < BATCH; from += CHUNK) {
+            List<Future<ReportingData>> futures = new ArrayList<>(CHUNK);
+            for (int i = from; i < Math.min(from + CHUNK, BATCH); i++) {
+                futures.add(this.asyncProcessor.process(this.items[i]));
+            }
+            for (Future<ReportingData> future : futures) {
+                blackhole.consume(future.get());
+            }
+        }
+    }
+}
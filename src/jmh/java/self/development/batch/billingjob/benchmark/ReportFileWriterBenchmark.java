@@ -0,0 +1,126 @@
+package self.development.batch.billingjob.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.core.io.FileSystemResource;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.task.ParquetReportTasklet;
+import self.development.batch.billingjob.writer.ChunkedReportFileWriter;
+import self.development.batch.billingjob.writer.ReportingDataLineAggregator;
+
+/**
+ * Writes {@value #BATCH} report records in chunks of {@value #CHUNK} to a file in each {@code report.format}, next to
+ * the reflective {@code FlatFileItemWriter} configuration ({@code flat}) the report used before. The {@code bytes}
+ * counter is the size of the resulting file per invocation; {@code parquet} includes the spill file conversion.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReportFileWriterBenchmark {
+
+    static final int BATCH = 10_000;
+    static final int CHUNK = 100;
+
+    @Param({"flat", "csv", "gzip", "zstd", "parquet"})
+    public String format;
+
+    private List<Chunk<ReportingData>> chunks;
+    private Path directory;
+    private Path file;
+    private ParquetReportTasklet parquetReportTasklet;
+    private StepContribution contribution;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WrittenBytes {
+
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        List<ReportingData> reports = Arrays.asList(BenchmarkData.reportingData(BATCH));
+        this.chunks = new ArrayList<>();
+        for (int from = 0; from < BATCH; from += CHUNK) {
+            this.chunks.add(new Chunk<>(reports.subList(from, Math.min(from + CHUNK, BATCH))));
+        }
+        this.directory = Files.createTempDirectory("report-writer-benchmark");
+        this.file = this.directory.resolve("report");
+        this.parquetReportTasklet = new ParquetReportTasklet(CompressionCodecName.ZSTD);
+        var jobParameters = new JobParametersBuilder().addString("output.file", this.file.toString()).toJobParameters();
+        this.contribution = new StepContribution(new StepExecution("parquetReport", new JobExecution(1L, jobParameters)));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(this.file);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Setup(Level.Invocation)
+    public void deleteReport() throws Exception {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void write(WrittenBytes counters) throws Exception {
+        ItemStreamWriter<ReportingData> writer = writer();
+        writer.open(new ExecutionContext());
+        for (Chunk<ReportingData> chunk : this.chunks) {
+            writer.write(chunk);
+        }
+        writer.close();
+        if ("parquet".equals(this.format)) {
+            this.parquetReportTasklet.execute(this.contribution, null);
+        }
+        counters.bytes += Files.size(this.file);
+    }
+
+    private ItemStreamWriter<ReportingData> writer() {
+        return switch (this.format) {
+            case "flat" -> new FlatFileItemWriterBuilder<ReportingData>()
+                    .resource(new FileSystemResource(this.file))
+                    .name("billingDataFileWriter")
+                    .delimited()
+                    .names("billingData.dataYear", "billingData.dataMonth", "billingData.accountId",
+                            "billingData.phoneNumber", "billingData.dataUsage", "billingData.callDuration",
+                            "billingData.smsCount", "billingTotal")
+                    .build();
+            case "csv" -> new FlatFileItemWriterBuilder<ReportingData>()
+                    .resource(new FileSystemResource(this.file))
+                    .name("billingDataFileWriter")
+                    .lineAggregator(new ReportingDataLineAggregator())
+                    .build();
+            case "gzip" -> ChunkedReportFileWriter.gzip("billingDataFileWriter", this.file);
+            case "zstd" -> ChunkedReportFileWriter.zstd("billingDataFileWriter", this.file, 3);
+            case "parquet" -> ChunkedReportFileWriter.spill("billingDataFileWriter", this.file);
+            default -> throw new IllegalArgumentException("Unknown format " + this.format);
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package self.development.batch.billingjob.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.writer.ReportingDataLineAggregator;
+
+/**
+ * Line formatting through the {@code BeanWrapperFieldExtractor} the report writer used to be configured with, and
+ * through the accessor-based {@link ReportingDataLineAggregator} that replaced it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReportingDataWriterBenchmark {
+
+    static final int BATCH = 10_000;
+
+    private ReportingData[] reports;
+    private DelimitedLineAggregator<ReportingData> lineAggregator;
+    private ReportingDataLineAggregator reportingDataLineAggregator;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.reports = BenchmarkData.reportingData(BATCH);
+        var fieldExtractor = new BeanWrapperFieldExtractor<ReportingData>();
+        fieldExtractor.setNames(new String[]{"billingData.dataYear", "billingData.dataMonth", "billingData.accountId",
+                "billingData.phoneNumber", "billingData.dataUsage", "billingData.callDuration", "billingData.smsCount",
+                "billingTotal"});
+        this.lineAggregator = new DelimitedLineAggregator<>();
+        this.lineAggregator.setFieldExtractor(fieldExtractor);
+        this.reportingDataLineAggregator = new ReportingDataLineAggregator();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void delimitedLineAggregator(Blackhole blackhole) {
+        for (ReportingData report : this.reports) {
+            blackhole.consume(this.lineAggregator.aggregate(report));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void reportingDataLineAggregator(Blackhole blackhole) {
+        for (ReportingData report : this.reports) {
+            blackhole.consume(this.reportingDataLineAggregator.aggregate(report));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package self.development.batch.billingjob.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Wall-clock time of one command-line run of {@code mainJob} over {@code telecom_data_retry.csv} (50 lines), from
+ * launching the JVM to its exit: with the default configuration ({@code default}), with the {@code fast-start}
+ * profile and the AOT-generated bean definitions ({@code fast-start}), and additionally with the class data sharing
+ * archive of {@code cdsArchive} ({@code fast-start-cds}). Every run writes its metrics file, and the time to the first
+ * item read ({@code billing.startup}, {@code phase=first.item}) of the measured runs is printed per trial.
+ * <p>
+ * Needs {@code ./gradlew bootJar cdsArchive} and the database of {@code infra/docker-compose.yaml} with the migrations
+ * applied; {@code -Dbilling.jar} overrides the boot jar location.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    static final String INPUT = "src/main/resources/telecom_data_retry.csv";
+
+    @Param({"default", "fast-start", "fast-start-cds"})
+    public String launch;
+
+    private Path bootJar;
+    private Path cdsDirectory;
+    private Path runDirectory;
+    private final List<Double> firstItemMillis = new ArrayList<>();
+    private long runs;
+    private boolean measuring;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.bootJar = Paths.get(System.getProperty("billing.jar", "build/libs/billing-job-0.0.1-SNAPSHOT.jar")).toAbsolutePath();
+        this.cdsDirectory = Paths.get("build", "cds").toAbsolutePath();
+        if (!Files.exists(this.bootJar)) {
+            throw new IllegalStateException("Boot jar " + this.bootJar + " not found, run ./gradlew bootJar");
+        }
+        if ("fast-start-cds".equals(this.launch) && !Files.exists(this.cdsDirectory.resolve("application.jsa"))) {
+            throw new IllegalStateException("No CDS archive in " + this.cdsDirectory + ", run ./gradlew cdsArchive");
+        }
+        this.runDirectory = Files.createDirectories(Paths.get("build", "bench", "startup", this.launch).toAbsolutePath());
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration(IterationParams iteration) {
+        this.measuring = iteration.getType() == IterationType.MEASUREMENT;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        List<Double> sorted = new ArrayList<>(this.firstItemMillis);
+        sorted.sort(null);
+        if (!sorted.isEmpty()) {
+            System.out.printf("%s: time to first item p50 %.0f ms, min %.0f ms, max %.0f ms over %d runs%n",
+                    this.launch, sorted.get(sorted.size() / 2), sorted.get(0), sorted.get(sorted.size() - 1),
+                    sorted.size());
+        }
+    }
+
+    @Benchmark
+    public int run() throws Exception {
+        long run = ++this.runs;
+        Path metricsFile = this.runDirectory.resolve("metrics-" + run + ".prom");
+        Path outputFile = this.runDirectory.resolve("report-" + run + ".csv");
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        Path workingDirectory = this.runDirectory;
+        switch (this.launch) {
+            case "default" -> command.addAll(List.of("-jar", this.bootJar.toString(),
+                    "--spring.batch.job.enabled=true", "--spring.cellular.startup.exit-after-run=true"));
+            case "fast-start" -> command.addAll(List.of("-Dspring.aot.enabled=true",
+                    "-Dspring.profiles.active=fast-start", "-jar", this.bootJar.toString()));
+            case "fast-start-cds" -> {
+                // The archive only matches the extracted jar started from its own directory.
+                workingDirectory = this.cdsDirectory;
+                command.addAll(List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true",
+                        "-Dspring.profiles.active=fast-start", "-jar", this.bootJar.getFileName().toString()));
+            }
+            default -> throw new IllegalArgumentException("Unknown launch " + this.launch);
+        }
+        command.addAll(List.of(
+                "--spring.cellular.staging.directory=" + this.runDirectory.resolve("staging"),
+                "input.file=" + Paths.get(INPUT).toAbsolutePath(),
+                "output.file=" + outputFile,
+                "metrics.file=" + metricsFile,
+                "data.year=2025,java.lang.Integer",
+                "data.month=3,java.lang.Integer",
+                "run.id=" + System.nanoTime() + ",java.lang.Long"));
+
+        Process process = new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(this.runDirectory.resolve("run-" + run + ".log").toFile())
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Run " + run + " exited with " + exitCode + ", see "
+                    + this.runDirectory.resolve("run-" + run + ".log"));
+        }
+        if (this.measuring) {
+            this.firstItemMillis.add(firstItemMillis(metricsFile));
+        }
+        Files.deleteIfExists(outputFile);
+        return exitCode;
+    }
+
+    private static double firstItemMillis(Path metricsFile) throws IOException {
+        for (String line : Files.readAllLines(metricsFile)) {
+            if (line.startsWith("billing_startup_seconds_sum{") && line.contains("phase=\"first.item\"")) {
+                return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)) * 1000;
+            }
+        }
+        throw new IllegalStateException("No first item timing in " + metricsFile);
+    }
+}
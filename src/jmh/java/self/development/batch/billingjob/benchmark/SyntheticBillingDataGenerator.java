@@ -0,0 +1,65 @@
+package self.development.batch.billingjob.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import self.development.batch.billingjob.generator.BillingDataGenerator;
+
+/**
+ * Writes {@code telecom_data.csv}-shaped input files of arbitrary size for the benchmarks, with the
+ * {@link BillingDataGenerator} of {@code dataGenerationJob}: 2023/11 data, uniform over 5,000,000 accounts by default.
+ * <p>
+ * Usage: {@code ./gradlew generateBillingData -Prows=1000000 -Poutput=build/bench/telecom_data_1m.csv}, optionally
+ * with {@code -Pseed}, {@code -Paccounts}, {@code -Pskew} and {@code -PfaultRatio}
+ */
+public final class SyntheticBillingDataGenerator {
+
+    public static final String HEADER = BillingDataGenerator.HEADER;
+
+    private final BillingDataGenerator generator;
+
+    public SyntheticBillingDataGenerator(long seed) {
+        this(seed, 5_000_000, 0, 0);
+    }
+
+    public SyntheticBillingDataGenerator(long seed, int accounts, double skew, double faultRatio) {
+        this.generator = new BillingDataGenerator(seed, accounts, skew, faultRatio, 2023, 11);
+    }
+
+    public static void main(String[] args) throws IOException {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        Path output = Paths.get(args.length > 1 ? args[1] : "build/bench/telecom_data.csv");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        int accounts = args.length > 3 ? Integer.parseInt(args[3]) : 5_000_000;
+        double skew = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+        double faultRatio = args.length > 5 ? Double.parseDouble(args[5]) : 0;
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        long start = System.nanoTime();
+        try (var writer = new BufferedWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8), 1 << 20)) {
+            new SyntheticBillingDataGenerator(seed, accounts, skew, faultRatio).write(writer, rows);
+        }
+        System.out.printf("Wrote %,d rows to %s in %d ms%n", rows, output, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void write(Writer writer, long rows) throws IOException {
+        this.generator.write(writer, rows);
+    }
+
+    public String[] lines(int rows) {
+        var lines = new String[rows];
+        var line = new StringBuilder(64);
+        for (int i = 0; i < rows; i++) {
+            line.setLength(0);
+            this.generator.appendLine(line, i);
+            line.setLength(line.length() - 1);
+            lines[i] = line.toString();
+        }
+        return lines;
+    }
+}
@@ -7,7 +7,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class BillingJobApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(BillingJobApplication.class, args);
+		var context = SpringApplication.run(BillingJobApplication.class, args);
+		if (context.getEnvironment().getProperty("spring.cellular.startup.exit-after-run", Boolean.class, false)) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -1,41 +1,112 @@
 package self.development.batch.billingjob.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
 import javax.sql.DataSource;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParametersValidator;
+import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.DefaultJobParametersValidator;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemWriter;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
-import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
-import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.FlatFileParseException;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.batch.item.support.CompositeItemWriter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.jdbc.core.DataClassRowMapper;
 import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.retry.RetryListener;
+import org.springframework.util.unit.DataSize;
 import self.development.batch.billingjob.exception.PricingException;
 import self.development.batch.billingjob.job.BillingJob;
+import self.development.batch.billingjob.job.JobParameterDecider;
+import self.development.batch.billingjob.metrics.BillingMetricsListener;
+import self.development.batch.billingjob.metrics.MetricsFileExporter;
+import self.development.batch.billingjob.metrics.StartupTimingListener;
+import self.development.batch.billingjob.model.AccountReportingData;
+import self.development.batch.billingjob.model.AccountUsage;
 import self.development.batch.billingjob.model.BillingData;
 import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.model.StreamingBillingItem;
+import self.development.batch.billingjob.partition.AccountRangePartitioner;
+import self.development.batch.billingjob.partition.BillingDataPartitionManager;
+import self.development.batch.billingjob.partition.FileRangePartitioner;
+import self.development.batch.billingjob.policy.AdaptiveChunkCompletionPolicy;
+import self.development.batch.billingjob.processor.AccountUsageProcessor;
+import self.development.batch.billingjob.processor.BillingDataDeduplicator;
 import self.development.batch.billingjob.processor.BillingDataProcessor;
+import self.development.batch.billingjob.processor.ChunkPricingEngine;
+import self.development.batch.billingjob.processor.RemotePricingProcessor;
+import self.development.batch.billingjob.processor.StreamingBillingProcessor;
+import self.development.batch.billingjob.reader.BillingDataKeysetQueryProvider;
+import self.development.batch.billingjob.reader.MappedBillingDataReader;
+import self.development.batch.billingjob.service.CircuitBreaker;
+import self.development.batch.billingjob.service.PricingCache;
+import self.development.batch.billingjob.service.TariffPlanCache;
+import self.development.batch.billingjob.service.TariffPlanRepository;
 import self.development.batch.billingjob.service.PricingService;
+import self.development.batch.billingjob.service.SimulatedLatencyPricingService;
 import self.development.batch.billingjob.skip.BillingDataSkipListener;
+import self.development.batch.billingjob.skip.JobSkipLimitPolicy;
+import self.development.batch.billingjob.task.DeltaCompletionTasklet;
+import self.development.batch.billingjob.task.DeltaPreparationTasklet;
 import self.development.batch.billingjob.task.FilePreparationTasklet;
+import self.development.batch.billingjob.task.GenerateBillingDataTasklet;
+import self.development.batch.billingjob.task.ParquetReportTasklet;
+import self.development.batch.billingjob.task.PartitionPreparationTasklet;
+import self.development.batch.billingjob.task.PartitionRetentionTasklet;
+import self.development.batch.billingjob.task.ReportMergeTasklet;
+import self.development.batch.billingjob.task.ReportSortMergeTasklet;
+import self.development.batch.billingjob.writer.AccountUsageItemWriter;
+import self.development.batch.billingjob.writer.BillingDataCopyItemWriter;
+import self.development.batch.billingjob.writer.ChangedAccountItemWriter;
+import self.development.batch.billingjob.writer.ChunkPricingItemWriter;
+import self.development.batch.billingjob.writer.ChunkedReportFileWriter;
+import self.development.batch.billingjob.writer.ReportFormat;
+import self.development.batch.billingjob.writer.ReportSortOrder;
+import self.development.batch.billingjob.writer.ReportingDataLineAggregator;
+import self.development.batch.billingjob.writer.SortingReportSpillWriter;
+import self.development.batch.billingjob.writer.StreamingBillingItemWriter;
 
 @Configuration
 public class BillingConfig {
@@ -49,58 +120,478 @@ public class BillingConfig {
     @Bean("mainJob")
     @Primary
     public Job mainJob(JobRepository jobRepository, Step copyStep,
+                       Step partitionPreparationStep,
                        Step fileIngestionStep,
+                       Step parallelFileIngestionStep,
+                       JobExecutionDecider ingestionModeDecider,
+                       Step streamingBillingStep,
+                       JobExecutionDecider billingModeDecider,
                        Step processorStep,
+                       Step partitionedProcessorStep,
+                       Step remoteProcessorStep,
+                       Step deltaPreparationStep,
+                       Step deltaProcessorStep,
+                       Step deltaExportStep,
+                       Step deltaCompletionStep,
+                       Step reportMergeStep,
+                       JobExecutionDecider reportModeDecider,
+                       Step reportSortMergeStep,
+                       JobExecutionDecider reportSortDecider,
+                       Step parquetReportStep,
+                       JobExecutionDecider reportFormatDecider,
+                       Step accountReportStep,
+                       JobExecutionDecider reportLevelDecider,
+                       PricingCache pricingCache,
+                       TariffPlanCache tariffPlanCache,
+                       MetricsFileExporter metricsFileExporter,
+                       StartupTimingListener startupTimingListener,
                        JobParametersValidator defaultJobParametersValidator) {
         return new JobBuilder("mainJob", jobRepository)
                 .start(copyStep)
-                .next(fileIngestionStep)
-                .next(processorStep)
+                .next(partitionPreparationStep)
+                .next(billingModeDecider)
+                    .on("streaming").to(streamingBillingStep).next(reportSortDecider)
+                .from(billingModeDecider)
+                    .on("*").to(ingestionModeDecider)
+                .from(ingestionModeDecider)
+                    .on("parallel").to(parallelFileIngestionStep).next(reportModeDecider)
+                .from(ingestionModeDecider)
+                    .on("*").to(fileIngestionStep).next(reportModeDecider)
+                .from(reportModeDecider)
+                    .on("partitioned").to(partitionedProcessorStep).next(reportMergeStep).next(reportSortDecider)
+                .from(reportModeDecider)
+                    .on("remote").to(remoteProcessorStep).next(reportMergeStep).next(reportSortDecider)
+                .from(reportModeDecider)
+                    .on("delta").to(deltaPreparationStep).next(deltaProcessorStep).next(deltaExportStep)
+                    .next(deltaCompletionStep).next(reportSortDecider)
+                .from(reportModeDecider)
+                    .on("*").to(processorStep).next(reportSortDecider)
+                .from(reportSortDecider)
+                    .on("none").to(reportFormatDecider)
+                .from(reportSortDecider)
+                    .on("*").to(reportSortMergeStep).next(reportFormatDecider)
+                .from(reportFormatDecider)
+                    .on("parquet").to(parquetReportStep).next(reportLevelDecider)
+                .from(reportFormatDecider)
+                    .on("*").to(reportLevelDecider)
+                .from(reportLevelDecider)
+                    .on("account").to(accountReportStep)
+                .from(reportLevelDecider)
+                    .on("*").end()
+                .end()
+                .listener(pricingCache)
+                .listener(tariffPlanCache)
+                .listener(startupTimingListener)
+                .listener(metricsFileExporter)
                 .validator(defaultJobParametersValidator)
                 //.validator(new DefaultJobParametersValidator(new String[] {"input.file"}, new String[] {}))
                 .build();
     }
 
+    @Bean("billingDataRetentionJob")
+    public Job billingDataRetentionJob(JobRepository jobRepository, Step partitionPreparationStep,
+                                       Step partitionRetentionStep) {
+        return new JobBuilder("billingDataRetentionJob", jobRepository)
+                .start(partitionPreparationStep)
+                .next(partitionRetentionStep)
+                .build();
+    }
+
+    @Bean("dataGenerationJob")
+    public Job dataGenerationJob(JobRepository jobRepository, Step generateBillingDataStep) {
+        return new JobBuilder("dataGenerationJob", jobRepository)
+                .start(generateBillingDataStep)
+                .build();
+    }
+
     @Bean
-    public Step copyStep(JobRepository jobRepository, JdbcTransactionManager manager) {
+    public Step copyStep(JobRepository jobRepository, JdbcTransactionManager manager,
+                         @Value("${spring.cellular.staging.directory:staging}") String stagingDirectory,
+                         @Value("${spring.cellular.staging.link:true}") boolean link) {
         return new StepBuilder("copyStep", jobRepository)
-                .tasklet(new FilePreparationTasklet(), manager)
+                .tasklet(new FilePreparationTasklet(Paths.get(stagingDirectory), link), manager)
                 .build();
     }
 
+    @Bean
+    public Step partitionPreparationStep(JobRepository jobRepository, JdbcTransactionManager manager,
+                                         BillingDataPartitionManager billingDataPartitionManager) {
+        return new StepBuilder("partitionPreparation", jobRepository)
+                .tasklet(new PartitionPreparationTasklet(billingDataPartitionManager), manager)
+                .build();
+    }
+
+    @Bean
+    public Step partitionRetentionStep(JobRepository jobRepository, JdbcTransactionManager manager,
+                                       BillingDataPartitionManager billingDataPartitionManager,
+                                       @Value("${spring.cellular.partition.retention-months:0}") int retentionMonths,
+                                       @Value("${spring.cellular.partition.retention-action:detach}") String action) {
+        return new StepBuilder("partitionRetention", jobRepository)
+                .tasklet(new PartitionRetentionTasklet(billingDataPartitionManager, retentionMonths, action,
+                        Clock.systemDefaultZone()), manager)
+                .build();
+    }
+
+    @Bean
+    public Step generateBillingDataStep(JobRepository jobRepository, JdbcTransactionManager manager,
+                                        @Value("${spring.cellular.generator.accounts:100000}") int accounts,
+                                        @Value("${spring.cellular.generator.skew:1.1}") double skew,
+                                        @Value("${spring.cellular.generator.fault-ratio:0}") double faultRatio) {
+        return new StepBuilder("generateBillingData", jobRepository)
+                .tasklet(new GenerateBillingDataTasklet(accounts, skew, faultRatio), manager)
+                .build();
+    }
+
+    @Bean
+    public BillingDataPartitionManager billingDataPartitionManager(DataSource dataSource) {
+        return new BillingDataPartitionManager(dataSource);
+    }
+
     @Bean
     public Step fileIngestionStep(JobRepository jobRepository, JdbcTransactionManager manager,
-                                  FlatFileItemReader<BillingData> billingDataFlatFileItemReader,
-                                  JdbcBatchItemWriter<BillingData> billingDataJdbcBatchItemWriter,
-                                  BillingDataSkipListener skipListener) {
+                                  ItemStreamReader<BillingData> billingDataFileReader,
+                                  ItemWriter<BillingData> billingDataWriter,
+                                  SkipPolicy ingestionSkipPolicy,
+                                  BillingDataSkipListener skipListener,
+                                  BillingMetricsListener billingMetricsListener,
+                                  AdaptiveChunkCompletionPolicy chunkCompletionPolicy,
+                                  BillingDataDeduplicator billingDataDeduplicator,
+                                  StartupTimingListener startupTimingListener) {
 
         return new StepBuilder("fileIngestion", jobRepository)
-                .<BillingData, BillingData>chunk(100, manager)
-                .reader(billingDataFlatFileItemReader)
-                .writer(billingDataJdbcBatchItemWriter)
+                .<BillingData, BillingData>chunk(chunkCompletionPolicy, manager)
+                .reader(billingDataFileReader)
+                .processor(billingDataDeduplicator)
+                .writer(billingDataWriter)
+                .listener((ChunkListener) billingDataDeduplicator)
+                .listener((ItemReadListener<Object>) startupTimingListener)
+                .listener((ChunkListener) billingMetricsListener)
+                .listener((StepExecutionListener) billingMetricsListener)
+                .listener((ChunkListener) chunkCompletionPolicy)
+                .listener((StepExecutionListener) chunkCompletionPolicy)
+                .listener((ChunkListener) skipListener)
+                .listener((StepExecutionListener) skipListener)
                 .faultTolerant()
-                .skip(FlatFileParseException.class)
-                .skipLimit(10)
-                .listener(skipListener)
+                .skipPolicy(ingestionSkipPolicy)
+                .listener((SkipListener<BillingData, Object>) skipListener)
+                .build();
+    }
+
+    @Bean
+    public Step parallelFileIngestionStep(JobRepository jobRepository, Step fileIngestionStep,
+                                          FileRangePartitioner fileRangePartitioner,
+                                          TaskExecutor ingestionTaskExecutor,
+                                          @Value("${spring.cellular.ingestion.grid-size:4}") int gridSize) {
+        return new StepBuilder("parallelFileIngestion", jobRepository)
+                .partitioner(fileIngestionStep.getName(), fileRangePartitioner)
+                .step(fileIngestionStep)
+                .gridSize(gridSize)
+                .taskExecutor(ingestionTaskExecutor)
                 .build();
     }
 
+    @Bean
+    public JobExecutionDecider ingestionModeDecider() {
+        return new JobParameterDecider("ingestion.mode", "sequential");
+    }
+
+    @Bean
+    @StepScope
+    public FileRangePartitioner fileRangePartitioner(@Value("#{jobExecutionContext['staged.file'] ?: jobParameters['input.file']}") String inputFile) {
+        return new FileRangePartitioner(Paths.get(inputFile));
+    }
+
+    @Bean
+    @StepScope
+    public BillingDataDeduplicator billingDataDeduplicator(@Value("#{jobParameters['ingestion.dedup']}") String dedup,
+                                                           @Value("${spring.cellular.ingestion.dedup-capacity:100000}") int capacity) {
+        return new BillingDataDeduplicator(Boolean.parseBoolean(dedup) ? capacity : 0);
+    }
+
+    @Bean
+    @JobScope
+    public JobSkipLimitPolicy ingestionSkipPolicy(@Value("${spring.cellular.ingestion.skip-limit:10}") int skipLimit) {
+        return new JobSkipLimitPolicy(skipLimit);
+    }
+
+    @Bean
+    public TaskExecutor ingestionTaskExecutor(@Value("${spring.cellular.execution.mode:platform}") String executionMode,
+                                              @Value("${spring.cellular.ingestion.threads:4}") int threads) {
+        return ExecutionMode.of(executionMode).boundedExecutor("ingestion-", threads);
+    }
+
     @Bean
     public Step processorStep(JobRepository jobRepository, JdbcTransactionManager transactionManager,
                       ItemReader<BillingData> billingDataTableReader,
                       ItemProcessor<BillingData, ReportingData> billingDataProcessor,
-                      ItemWriter<ReportingData> billingDataFileWriter) {
+                      ItemStreamWriter<ReportingData> billingDataFileWriter,
+                      ChunkPricingEngine chunkPricingEngine,
+                      BillingMetricsListener billingMetricsListener,
+                      AdaptiveChunkCompletionPolicy chunkCompletionPolicy,
+                      RemotePricingProcessor remotePricingProcessor,
+                      TaskExecutor pricingTaskExecutor,
+                      @Value("${spring.cellular.pricing.engine:chunk}") String pricingEngine,
+                      @Value("${spring.cellular.pricing.model:flat}") String pricingModel) {
+        if ("remote".equalsIgnoreCase(pricingEngine)) {
+            if (!"flat".equalsIgnoreCase(pricingModel)) {
+                // Remote lookups only return the flat data price, so plan pricing would silently be ignored
+                throw new IllegalStateException("pricing.engine=remote requires pricing.model=flat");
+            }
+            var asyncProcessor = new AsyncItemProcessor<BillingData, ReportingData>();
+            asyncProcessor.setDelegate(remotePricingProcessor);
+            asyncProcessor.setTaskExecutor(pricingTaskExecutor);
+            var asyncWriter = new AsyncItemWriter<ReportingData>();
+            asyncWriter.setDelegate(billingDataFileWriter);
+            return new StepBuilder("reportGeneration", jobRepository)
+                    .<BillingData, Future<ReportingData>>chunk(chunkCompletionPolicy, transactionManager)
+                    .reader(billingDataTableReader)
+                    .processor(asyncProcessor)
+                    .writer(asyncWriter)
+                    .listener((ChunkListener) billingMetricsListener)
+                    .listener((StepExecutionListener) billingMetricsListener)
+                    .listener((ChunkListener) chunkCompletionPolicy)
+                    .listener((StepExecutionListener) chunkCompletionPolicy)
+                    .build();
+        }
+        if ("item".equalsIgnoreCase(pricingEngine)) {
+            return new StepBuilder("reportGeneration", jobRepository)
+                    .<BillingData, ReportingData>chunk(chunkCompletionPolicy, transactionManager)
+                    .reader(billingDataTableReader)
+                    .processor(billingDataProcessor)
+                    .writer(billingDataFileWriter)
+                    .listener((ChunkListener) billingMetricsListener)
+                    .listener((StepExecutionListener) billingMetricsListener)
+                    .listener((ChunkListener) chunkCompletionPolicy)
+                    .listener((StepExecutionListener) chunkCompletionPolicy)
+                    .faultTolerant()
+                    .retry(PricingException.class)
+                    .retryLimit(100)
+                    .listener((RetryListener) billingMetricsListener)
+                    .listener((RetryListener) chunkCompletionPolicy)
+                    .build();
+        }
         return new StepBuilder("reportGeneration", jobRepository)
-                .<BillingData, ReportingData>chunk(100, transactionManager)
+                .<BillingData, BillingData>chunk(chunkCompletionPolicy, transactionManager)
                 .reader(billingDataTableReader)
+                .writer(new ChunkPricingItemWriter(chunkPricingEngine, billingDataFileWriter))
+                .listener((ChunkListener) billingMetricsListener)
+                .listener((StepExecutionListener) billingMetricsListener)
+                .listener((ChunkListener) chunkCompletionPolicy)
+                .listener((StepExecutionListener) chunkCompletionPolicy)
+                .faultTolerant()
+                .retry(PricingException.class)
+                .retryLimit(100)
+                .listener((RetryListener) billingMetricsListener)
+                .listener((RetryListener) chunkCompletionPolicy)
+                .build();
+    }
+
+    @Bean
+    public Step streamingBillingStep(JobRepository jobRepository, JdbcTransactionManager transactionManager,
+                                     ItemStreamReader<BillingData> billingDataFileReader,
+                                     StreamingBillingProcessor streamingBillingProcessor,
+                                     StreamingBillingItemWriter streamingBillingWriter,
+                                     SkipPolicy ingestionSkipPolicy,
+                                     BillingDataSkipListener skipListener,
+                                     BillingMetricsListener billingMetricsListener,
+                                     AdaptiveChunkCompletionPolicy chunkCompletionPolicy,
+                                     StartupTimingListener startupTimingListener) {
+        return new StepBuilder("streamingBilling", jobRepository)
+                .<BillingData, StreamingBillingItem>chunk(chunkCompletionPolicy, transactionManager)
+                .reader(billingDataFileReader)
+                .processor(streamingBillingProcessor)
+                .writer(streamingBillingWriter)
+                .listener((ItemReadListener<Object>) startupTimingListener)
+                .listener((ChunkListener) skipListener)
+                .listener((StepExecutionListener) skipListener)
+                .listener((ChunkListener) billingMetricsListener)
+                .listener((StepExecutionListener) billingMetricsListener)
+                .listener((ChunkListener) chunkCompletionPolicy)
+                .listener((StepExecutionListener) chunkCompletionPolicy)
+                .faultTolerant()
+                .skipPolicy(ingestionSkipPolicy)
+                .listener((SkipListener<BillingData, Object>) skipListener)
+                .retry(PricingException.class)
+                .retryLimit(100)
+                .listener((RetryListener) billingMetricsListener)
+                .listener((RetryListener) chunkCompletionPolicy)
+                .build();
+    }
+
+    @Bean
+    public JobExecutionDecider billingModeDecider() {
+        return new JobParameterDecider("billing.mode", "staged");
+    }
+
+    @Bean
+    @StepScope
+    public StreamingBillingProcessor streamingBillingProcessor(ItemProcessor<BillingData, ReportingData> billingDataProcessor,
+                                                               @Value("#{jobParameters['data.year']}") Integer year,
+                                                               @Value("#{jobParameters['data.month']}") Integer month,
+                                                               @Value("#{jobParameters['streaming.persist']}") String persist) {
+        return new StreamingBillingProcessor(billingDataProcessor, year, month, Boolean.parseBoolean(persist));
+    }
+
+    @Bean
+    @StepScope
+    public StreamingBillingItemWriter streamingBillingWriter(@Value("#{jobParameters['streaming.persist']}") String persist,
+                                                             ItemWriter<BillingData> billingDataWriter,
+                                                             ItemStreamWriter<ReportingData> billingDataFileWriter) {
+        return new StreamingBillingItemWriter(Boolean.parseBoolean(persist) ? billingDataWriter : null,
+                billingDataFileWriter);
+    }
+
+    @Bean
+    public Step partitionedProcessorStep(JobRepository jobRepository, Step processorStep,
+                                         AccountRangePartitioner accountRangePartitioner,
+                                         TaskExecutor reportTaskExecutor,
+                                         @Value("${spring.cellular.report.grid-size:4}") int gridSize) {
+        return new StepBuilder("partitionedReportGeneration", jobRepository)
+                .partitioner(processorStep.getName(), accountRangePartitioner)
+                .step(processorStep)
+                .gridSize(gridSize)
+                .taskExecutor(reportTaskExecutor)
+                .build();
+    }
+
+    @Bean
+    public Step reportMergeStep(JobRepository jobRepository, JdbcTransactionManager manager, JobExplorer jobExplorer) {
+        return new StepBuilder("reportMerge", jobRepository)
+                .tasklet(new ReportMergeTasklet(jobExplorer), manager)
+                .build();
+    }
+
+    @Bean
+    public Step deltaPreparationStep(JobRepository jobRepository, JdbcTransactionManager manager, DataSource dataSource) {
+        return new StepBuilder("deltaPreparation", jobRepository)
+                .tasklet(new DeltaPreparationTasklet(dataSource), manager)
+                .build();
+    }
+
+    @Bean
+    public Step deltaProcessorStep(JobRepository jobRepository, JdbcTransactionManager transactionManager,
+                                   ItemReader<BillingData> changedBillingDataReader,
+                                   ItemProcessor<BillingData, ReportingData> billingDataProcessor,
+                                   ItemWriter<ReportingData> billingReportTableWriter,
+                                   BillingMetricsListener billingMetricsListener,
+                                   AdaptiveChunkCompletionPolicy chunkCompletionPolicy) {
+        return new StepBuilder("deltaReportGeneration", jobRepository)
+                .<BillingData, ReportingData>chunk(chunkCompletionPolicy, transactionManager)
+                .reader(changedBillingDataReader)
                 .processor(billingDataProcessor)
+                .writer(billingReportTableWriter)
+                .listener((ChunkListener) billingMetricsListener)
+                .listener((StepExecutionListener) billingMetricsListener)
+                .listener((ChunkListener) chunkCompletionPolicy)
+                .listener((StepExecutionListener) chunkCompletionPolicy)
+                .faultTolerant()
+                .retry(PricingException.class)
+                .retryLimit(100)
+                .listener((RetryListener) billingMetricsListener)
+                .listener((RetryListener) chunkCompletionPolicy)
+                .build();
+    }
+
+    @Bean
+    public Step deltaExportStep(JobRepository jobRepository, JdbcTransactionManager transactionManager,
+                                ItemReader<ReportingData> billingReportTableReader,
+                                ItemWriter<ReportingData> billingDataFileWriter,
+                                BillingMetricsListener billingMetricsListener) {
+        return new StepBuilder("deltaReportExport", jobRepository)
+                .<ReportingData, ReportingData>chunk(1000, transactionManager)
+                .reader(billingReportTableReader)
                 .writer(billingDataFileWriter)
+                .listener((ChunkListener) billingMetricsListener)
+                .listener((StepExecutionListener) billingMetricsListener)
+                .build();
+    }
+
+    @Bean
+    public Step deltaCompletionStep(JobRepository jobRepository, JdbcTransactionManager manager, DataSource dataSource) {
+        return new StepBuilder("deltaCompletion", jobRepository)
+                .tasklet(new DeltaCompletionTasklet(dataSource), manager)
+                .build();
+    }
+
+    @Bean
+    public JobExecutionDecider reportModeDecider() {
+        return new JobParameterDecider("report.mode", "sequential");
+    }
+
+    @Bean
+    public Step parquetReportStep(JobRepository jobRepository, JdbcTransactionManager manager,
+                                  @Value("${spring.cellular.report.parquet.compression:zstd}") String compression) {
+        var codec = CompressionCodecName.valueOf(compression.toUpperCase(Locale.ROOT));
+        return new StepBuilder("parquetReport", jobRepository)
+                .tasklet(new ParquetReportTasklet(codec), manager)
+                .build();
+    }
+
+    @Bean
+    public Step reportSortMergeStep(JobRepository jobRepository, JdbcTransactionManager manager, JobExplorer jobExplorer,
+                                    @Value("${spring.cellular.report.zstd-level:3}") int zstdLevel,
+                                    @Value("${spring.cellular.report.sort.merge-fan-in:64}") int fanIn) {
+        return new StepBuilder("reportSortMerge", jobRepository)
+                .tasklet(new ReportSortMergeTasklet(jobExplorer, zstdLevel, fanIn), manager)
+                .build();
+    }
+
+    @Bean
+    public JobExecutionDecider reportSortDecider() {
+        return new JobParameterDecider("report.sort", "none");
+    }
+
+    @Bean
+    public JobExecutionDecider reportFormatDecider() {
+        return new JobParameterDecider("report.format", "csv");
+    }
+
+    @Bean
+    public Step accountReportStep(JobRepository jobRepository, JdbcTransactionManager transactionManager,
+                                  ItemReader<AccountUsage> accountUsageReader,
+                                  ItemProcessor<AccountUsage, AccountReportingData> accountUsageProcessor,
+                                  ItemWriter<AccountReportingData> accountReportFileWriter,
+                                  BillingMetricsListener billingMetricsListener) {
+        return new StepBuilder("accountReportGeneration", jobRepository)
+                .<AccountUsage, AccountReportingData>chunk(1000, transactionManager)
+                .reader(accountUsageReader)
+                .processor(accountUsageProcessor)
+                .writer(accountReportFileWriter)
+                .listener((ChunkListener) billingMetricsListener)
+                .listener((StepExecutionListener) billingMetricsListener)
                 .faultTolerant()
                 .retry(PricingException.class)
                 .retryLimit(100)
+                .listener((RetryListener) billingMetricsListener)
                 .build();
     }
 
+    @Bean
+    public JobExecutionDecider reportLevelDecider() {
+        return new JobParameterDecider("report.level", "line");
+    }
+
+    @Bean
+    @StepScope
+    public AccountRangePartitioner accountRangePartitioner(DataSource dataSource,
+                                                           @Value("#{jobParameters['data.year']}") Integer year,
+                                                           @Value("#{jobParameters['data.month']}") Integer month,
+                                                           @Value("#{jobParameters['output.file']}") String outputFile) {
+        return new AccountRangePartitioner(dataSource, year, month, outputFile);
+    }
+
+    @Bean
+    public TaskExecutor reportTaskExecutor(@Value("${spring.cellular.execution.mode:platform}") String executionMode,
+                                           @Value("${spring.cellular.report.threads:4}") int threads) {
+        return ExecutionMode.of(executionMode).boundedExecutor("report-", threads);
+    }
+
+    @Bean
+    public TaskExecutor pricingTaskExecutor(@Value("${spring.cellular.execution.mode:platform}") String executionMode,
+                                            @Value("${spring.cellular.pricing.max-concurrency:64}") int maxConcurrency) {
+        return ExecutionMode.of(executionMode).callExecutor("pricing-", maxConcurrency);
+    }
+
     @Bean
     public JobParametersValidator defaultJobParametersValidator() {
         return new DefaultJobParametersValidator(
@@ -111,7 +602,7 @@ public class BillingConfig {
 
     @Bean
     @StepScope
-    public FlatFileItemReader<BillingData> billingDataFlatFileItemReader(@Value("#{jobParameters['input.file']}") String inputFile) {
+    public FlatFileItemReader<BillingData> billingDataFlatFileItemReader(@Value("#{jobExecutionContext['staged.file'] ?: jobParameters['input.file']}") String inputFile) {
         return new FlatFileItemReaderBuilder<BillingData>()
                 .name("billingDataFlatFileItemReader")
                 .resource(new FileSystemResource(inputFile))
@@ -122,33 +613,253 @@ public class BillingConfig {
                 .build();
     }
 
+    @Bean
+    @StepScope
+    public ItemStreamReader<BillingData> billingDataFileReader(@Value("#{jobParameters['ingestion.reader']}") String readerType,
+                                                               @Value("#{jobExecutionContext['staged.file'] ?: jobParameters['input.file']}") String inputFile,
+                                                               @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+                                                               @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+                                                               @Value("#{stepExecutionContext['startLine']}") Integer startLine,
+                                                               FlatFileItemReader<BillingData> billingDataFlatFileItemReader) {
+        if (startOffset != null) {
+            return new MappedBillingDataReader(Paths.get(inputFile), 1, startOffset, endOffset, startLine);
+        }
+        if ("mapped".equalsIgnoreCase(readerType)) {
+            return new MappedBillingDataReader(Paths.get(inputFile), 1);
+        }
+        return billingDataFlatFileItemReader;
+    }
+
     @Bean
     public JdbcBatchItemWriter<BillingData> billingDataJdbcBatchItemWriter(DataSource dataSource) {
-        var statement = "insert into BILLING_DATA values (:dataYear, :dataMonth, :accountId, :phoneNumber, :dataUsage, :callDuration, :smsCount)";
+        var statement = "insert into BILLING_DATA values (:dataYear, :dataMonth, :accountId, :phoneNumber, :dataUsage, :callDuration, :smsCount)"
+                + BillingDataCopyItemWriter.ON_CONFLICT_UPDATE;
         return new JdbcBatchItemWriterBuilder<BillingData>()
                 .dataSource(dataSource)
                 .sql(statement)
                 .beanMapped()
+                .assertUpdates(false)
                 .build();
     }
 
+    @Bean
+    public BillingDataCopyItemWriter billingDataCopyItemWriter(DataSource dataSource) {
+        return new BillingDataCopyItemWriter(dataSource);
+    }
+
+    @Bean
+    public ChangedAccountItemWriter changedAccountItemWriter(DataSource dataSource) {
+        return new ChangedAccountItemWriter(dataSource);
+    }
+
+    @Bean
+    public AccountUsageItemWriter accountUsageItemWriter(DataSource dataSource) {
+        return new AccountUsageItemWriter(dataSource);
+    }
+
     @Bean
     @StepScope
-    public JdbcCursorItemReader<BillingData> billingDataTableReader(DataSource dataSource,
+    public ItemWriter<BillingData> billingDataWriter(@Value("#{jobParameters['ingestion.writer']}") String writerType,
+                                                     JdbcBatchItemWriter<BillingData> billingDataJdbcBatchItemWriter,
+                                                     BillingDataCopyItemWriter billingDataCopyItemWriter,
+                                                     ChangedAccountItemWriter changedAccountItemWriter,
+                                                     AccountUsageItemWriter accountUsageItemWriter) {
+        ItemWriter<BillingData> dataWriter = "copy".equalsIgnoreCase(writerType)
+                ? billingDataCopyItemWriter
+                : billingDataJdbcBatchItemWriter;
+        // Account usage reads the rows the data writer is about to replace, so it runs first
+        return new CompositeItemWriter<>(List.of(accountUsageItemWriter, dataWriter, changedAccountItemWriter));
+    }
+
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<BillingData> billingDataTableReader(DataSource dataSource,
                                                                     @Value("#{jobParameters['data.year']}") Integer year,
-                                                                    @Value("#{jobParameters['data.month']}") Integer month) {
-        String sql = String.format("select * from BILLING_DATA where DATA_YEAR = %d and DATA_MONTH = %d", year, month);
-        return new JdbcCursorItemReaderBuilder<BillingData>()
+                                                                    @Value("#{jobParameters['data.month']}") Integer month,
+                                                                    @Value("#{stepExecutionContext['minAccountId']}") Integer minAccountId,
+                                                                    @Value("#{stepExecutionContext['maxAccountId']}") Integer maxAccountId,
+                                                                    @Value("${spring.cellular.report.page-size:1000}") int pageSize,
+                                                                    @Value("${spring.cellular.report.fetch-size:1000}") int fetchSize) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("dataYear", year);
+        parameters.put("dataMonth", month);
+        parameters.put("minAccountId", minAccountId != null ? minAccountId : Integer.MIN_VALUE);
+        parameters.put("maxAccountId", maxAccountId != null ? maxAccountId : Integer.MAX_VALUE);
+        var queryProvider = new BillingDataKeysetQueryProvider();
+        queryProvider.setFromClause(BillingDataPartitionManager.tableFor(year, month));
+        return new JdbcPagingItemReaderBuilder<BillingData>()
                 .name("billingDataTableReader")
                 .dataSource(dataSource)
-                .sql(sql)
+                .queryProvider(queryProvider)
+                .parameterValues(parameters)
+                .pageSize(pageSize)
+                .fetchSize(fetchSize)
+                .rowMapper(new DataClassRowMapper<>(BillingData.class))
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<BillingData> changedBillingDataReader(DataSource dataSource,
+                                                                      @Value("#{jobParameters['data.year']}") Integer year,
+                                                                      @Value("#{jobParameters['data.month']}") Integer month,
+                                                                      @Value("#{stepExecution.jobExecution.jobInstance.instanceId}") Long instanceId,
+                                                                      @Value("${spring.cellular.report.page-size:1000}") int pageSize,
+                                                                      @Value("${spring.cellular.report.fetch-size:1000}") int fetchSize) {
+        var queryProvider = new BillingDataKeysetQueryProvider();
+        queryProvider.setWhereClause("DATA_YEAR = :dataYear AND DATA_MONTH = :dataMonth AND ACCOUNT_ID IN "
+                + "(SELECT ACCOUNT_ID FROM BILLING_CHANGED_ACCOUNT "
+                + "WHERE DATA_YEAR = :dataYear AND DATA_MONTH = :dataMonth AND CLAIMED_BY = :claimedBy)");
+        return new JdbcPagingItemReaderBuilder<BillingData>()
+                .name("changedBillingDataReader")
+                .dataSource(dataSource)
+                .queryProvider(queryProvider)
+                .parameterValues(Map.of("dataYear", year, "dataMonth", month, "claimedBy", instanceId))
+                .pageSize(pageSize)
+                .fetchSize(fetchSize)
                 .rowMapper(new DataClassRowMapper<>(BillingData.class))
                 .build();
     }
 
     @Bean
-    public BillingDataProcessor billingDataProcessor(PricingService pricingService) {
-        return new BillingDataProcessor(pricingService);
+    @StepScope
+    public JdbcPagingItemReader<ReportingData> billingReportTableReader(DataSource dataSource,
+                                                                        @Value("#{jobParameters['data.year']}") Integer year,
+                                                                        @Value("#{jobParameters['data.month']}") Integer month,
+                                                                        @Value("${spring.cellular.report.page-size:1000}") int pageSize,
+                                                                        @Value("${spring.cellular.report.fetch-size:1000}") int fetchSize) {
+        var queryProvider = new BillingDataKeysetQueryProvider();
+        queryProvider.setSelectClause("DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER, DATA_USAGE, CALL_DURATION, SMS_COUNT, BILLING_TOTAL");
+        queryProvider.setFromClause("BILLING_REPORT");
+        queryProvider.setWhereClause("DATA_YEAR = :dataYear AND DATA_MONTH = :dataMonth");
+        return new JdbcPagingItemReaderBuilder<ReportingData>()
+                .name("billingReportTableReader")
+                .dataSource(dataSource)
+                .queryProvider(queryProvider)
+                .parameterValues(Map.of("dataYear", year, "dataMonth", month))
+                .pageSize(pageSize)
+                .fetchSize(fetchSize)
+                .rowMapper((rs, rowNum) -> new ReportingData(new BillingData(
+                        rs.getInt("DATA_YEAR"),
+                        rs.getInt("DATA_MONTH"),
+                        rs.getInt("ACCOUNT_ID"),
+                        rs.getString("PHONE_NUMBER"),
+                        rs.getFloat("DATA_USAGE"),
+                        rs.getInt("CALL_DURATION"),
+                        rs.getInt("SMS_COUNT")), rs.getDouble("BILLING_TOTAL")))
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<AccountUsage> accountUsageReader(DataSource dataSource,
+                                                                 @Value("#{jobParameters['data.year']}") Integer year,
+                                                                 @Value("#{jobParameters['data.month']}") Integer month,
+                                                                 @Value("${spring.cellular.report.page-size:1000}") int pageSize,
+                                                                 @Value("${spring.cellular.report.fetch-size:1000}") int fetchSize) {
+        if (year == null || month == null) {
+            throw new IllegalArgumentException("report.level=account requires data.year and data.month");
+        }
+        return new JdbcPagingItemReaderBuilder<AccountUsage>()
+                .name("accountUsageReader")
+                .dataSource(dataSource)
+                .selectClause("DATA_YEAR, DATA_MONTH, ACCOUNT_ID, DATA_USAGE, CALL_DURATION, SMS_COUNT, RECORD_COUNT")
+                .fromClause("BILLING_ACCOUNT_USAGE")
+                .whereClause("DATA_YEAR = :dataYear AND DATA_MONTH = :dataMonth")
+                .sortKeys(Map.of("ACCOUNT_ID", Order.ASCENDING))
+                .parameterValues(Map.of("dataYear", year, "dataMonth", month))
+                .pageSize(pageSize)
+                .fetchSize(fetchSize)
+                .rowMapper(new DataClassRowMapper<>(AccountUsage.class))
+                .build();
+    }
+
+    @Bean
+    public JdbcBatchItemWriter<ReportingData> billingReportTableWriter(DataSource dataSource) {
+        return new JdbcBatchItemWriterBuilder<ReportingData>()
+                .dataSource(dataSource)
+                .sql("insert into BILLING_REPORT values (?, ?, ?, ?, ?, ?, ?, ?) "
+                        + "on conflict (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER) do update set "
+                        + "DATA_USAGE = excluded.DATA_USAGE, CALL_DURATION = excluded.CALL_DURATION, "
+                        + "SMS_COUNT = excluded.SMS_COUNT, BILLING_TOTAL = excluded.BILLING_TOTAL")
+                .itemPreparedStatementSetter((item, ps) -> {
+                    var billingData = item.billingData();
+                    ps.setInt(1, billingData.dataYear());
+                    ps.setInt(2, billingData.dataMonth());
+                    ps.setInt(3, billingData.accountId());
+                    ps.setString(4, billingData.phoneNumber());
+                    ps.setFloat(5, billingData.dataUsage());
+                    ps.setInt(6, billingData.callDuration());
+                    ps.setInt(7, billingData.smsCount());
+                    ps.setDouble(8, item.billingTotal());
+                })
+                .build();
+    }
+
+    @Bean
+    public BillingDataProcessor billingDataProcessor(PricingCache pricingCache, TariffPlanCache tariffPlanCache,
+                                                     @Value("${spring.cellular.pricing.model:flat}") String pricingModel,
+                                                     @Value("${spring.cellular.pricing.call:0.5}") float callPricing,
+                                                     @Value("${spring.cellular.pricing.sms:0.1}") float smsPricing,
+                                                     @Value("${spring.cellular.spending.threshold:150}") float spendingThreshold) {
+        if ("flat".equalsIgnoreCase(pricingModel)) {
+            return new BillingDataProcessor(pricingCache, callPricing, smsPricing, spendingThreshold);
+        }
+        return new BillingDataProcessor(tariffPlanCache, spendingThreshold);
+    }
+
+    @Bean
+    public ChunkPricingEngine chunkPricingEngine(PricingCache pricingCache, TariffPlanCache tariffPlanCache,
+                                                 @Value("${spring.cellular.pricing.model:flat}") String pricingModel,
+                                                 @Value("${spring.cellular.pricing.call:0.5}") float callPricing,
+                                                 @Value("${spring.cellular.pricing.sms:0.1}") float smsPricing,
+                                                 @Value("${spring.cellular.spending.threshold:150}") float spendingThreshold) {
+        if ("flat".equalsIgnoreCase(pricingModel)) {
+            return new ChunkPricingEngine(pricingCache, callPricing, smsPricing, spendingThreshold);
+        }
+        return new ChunkPricingEngine(tariffPlanCache, spendingThreshold);
+    }
+
+    @Bean
+    public AccountUsageProcessor accountUsageProcessor(PricingCache pricingCache, TariffPlanCache tariffPlanCache,
+                                                       @Value("${spring.cellular.pricing.model:flat}") String pricingModel,
+                                                       @Value("${spring.cellular.pricing.call:0.5}") float callPricing,
+                                                       @Value("${spring.cellular.pricing.sms:0.1}") float smsPricing,
+                                                       @Value("${spring.cellular.spending.account-threshold:${spring.cellular.spending.threshold:150}}") float spendingThreshold) {
+        if ("flat".equalsIgnoreCase(pricingModel)) {
+            return new AccountUsageProcessor(pricingCache, callPricing, smsPricing, spendingThreshold);
+        }
+        return new AccountUsageProcessor(tariffPlanCache, spendingThreshold);
+    }
+
+    @Bean
+    public RemotePricingProcessor remotePricingProcessor(PricingService pricingService,
+                                                         @Value("${spring.cellular.pricing.max-concurrency:64}") int maxConcurrency,
+                                                         @Value("${spring.cellular.pricing.acquire-timeout:30s}") Duration acquireTimeout,
+                                                         @Value("${spring.cellular.pricing.remote.max-attempts:3}") int maxAttempts,
+                                                         @Value("${spring.cellular.pricing.remote.backoff:100ms}") Duration backoff,
+                                                         @Value("${spring.cellular.pricing.call:0.5}") float callPricing,
+                                                         @Value("${spring.cellular.pricing.sms:0.1}") float smsPricing,
+                                                         @Value("${spring.cellular.spending.threshold:150}") float spendingThreshold,
+                                                         MeterRegistry meterRegistry) {
+        return new RemotePricingProcessor(pricingService, maxConcurrency, acquireTimeout, maxAttempts, backoff,
+                callPricing, smsPricing, spendingThreshold, meterRegistry);
+    }
+
+    @Bean
+    public TariffPlanCache tariffPlanCache(DataSource dataSource, MeterRegistry meterRegistry) {
+        return new TariffPlanCache(new TariffPlanRepository(dataSource), meterRegistry);
+    }
+
+    @Bean
+    public PricingCache pricingCache(PricingService pricingService,
+                                     @Value("${spring.cellular.pricing.refresh-interval:0s}") Duration refreshInterval,
+                                     @Value("${spring.cellular.pricing.max-attempts:5}") int maxAttempts,
+                                     @Value("${spring.cellular.pricing.circuit.failure-threshold:3}") int failureThreshold,
+                                     @Value("${spring.cellular.pricing.circuit.open-duration:30s}") Duration openDuration,
+                                     MeterRegistry meterRegistry) {
+        return new PricingCache(pricingService, new CircuitBreaker(failureThreshold, openDuration), maxAttempts,
+                refreshInterval, meterRegistry);
     }
 
 //    @Bean
@@ -156,20 +867,83 @@ public class BillingConfig {
 //        return new PricingService();
 //    }
 
+    @Bean
+    @Primary
+    @ConditionalOnProperty("spring.cellular.pricing.simulated-latency")
+    public PricingService simulatedLatencyPricingService(@Value("${spring.cellular.pricing.simulated-latency}") Duration latency) {
+        return new SimulatedLatencyPricingService(latency);
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamWriter<ReportingData> billingDataFileWriter(@Value("#{stepExecutionContext['output.file'] ?: jobParameters['output.file']}") String outputFile,
+                                                                 @Value("#{jobParameters['report.format']}") String reportFormat,
+                                                                 @Value("#{jobParameters['report.sort']}") String reportSort,
+                                                                 @Value("${spring.cellular.report.zstd-level:3}") int zstdLevel,
+                                                                 @Value("${spring.cellular.report.sort.memory-limit:64MB}") DataSize sortMemoryLimit) {
+        var sortOrder = ReportSortOrder.of(reportSort);
+        if (sortOrder != ReportSortOrder.NONE) {
+            return new SortingReportSpillWriter("billingDataFileWriter", Paths.get(outputFile), sortOrder,
+                    sortMemoryLimit.toBytes());
+        }
+        return switch (ReportFormat.of(reportFormat)) {
+            case GZIP -> ChunkedReportFileWriter.gzip("billingDataFileWriter", Paths.get(outputFile));
+            case ZSTD -> ChunkedReportFileWriter.zstd("billingDataFileWriter", Paths.get(outputFile), zstdLevel);
+            case PARQUET -> ChunkedReportFileWriter.spill("billingDataFileWriter", Paths.get(outputFile));
+            case CSV -> new FlatFileItemWriterBuilder<ReportingData>()
+                    .resource(new FileSystemResource(outputFile))
+                    .name("billingDataFileWriter")
+                    .lineAggregator(new ReportingDataLineAggregator())
+                    .build();
+        };
+    }
+
     @Bean
     @StepScope
-    public FlatFileItemWriter<ReportingData> billingDataFileWriter(@Value("#{jobParameters['output.file']}") String outputFile) {
-        return new FlatFileItemWriterBuilder<ReportingData>()
-                .resource(new FileSystemResource(outputFile))
-                .name("billingDataFileWriter")
+    public FlatFileItemWriter<AccountReportingData> accountReportFileWriter(@Value("#{jobParameters['account.file'] ?: 'staging/account-report.csv'}") String accountFile) {
+        return new FlatFileItemWriterBuilder<AccountReportingData>()
+                .resource(new FileSystemResource(accountFile))
+                .name("accountReportFileWriter")
                 .delimited()
-                .names("billingData.dataYear", "billingData.dataMonth", "billingData.accountId", "billingData.phoneNumber", "billingData.dataUsage", "billingData.callDuration", "billingData.smsCount", "billingTotal")
+                .names("accountUsage.dataYear", "accountUsage.dataMonth", "accountUsage.accountId", "accountUsage.dataUsage", "accountUsage.callDuration", "accountUsage.smsCount", "accountUsage.recordCount", "billingTotal")
                 .build();
     }
 
+    @Bean
+    @JobScope
+    public BillingDataSkipListener skipListener(@Value("#{jobParameters['skip.file']}") String skippedFile,
+                                                @Value("${spring.cellular.skip.queue-size:1024}") int queueSize,
+                                                MeterRegistry meterRegistry) {
+        return new BillingDataSkipListener(skippedFile, queueSize, meterRegistry);
+    }
+
     @Bean
     @StepScope
-    public BillingDataSkipListener skipListener(@Value("#{jobParameters['skip.file']}") String skippedFile) {
-        return new BillingDataSkipListener(skippedFile);
+    public AdaptiveChunkCompletionPolicy chunkCompletionPolicy(@Value("${spring.cellular.chunk.mode:adaptive}") String mode,
+                                                               @Value("${spring.cellular.chunk.size:100}") int size,
+                                                               @Value("${spring.cellular.chunk.min-size:10}") int minSize,
+                                                               @Value("${spring.cellular.chunk.max-size:5000}") int maxSize,
+                                                               @Value("${spring.cellular.chunk.target-latency:500ms}") Duration targetLatency,
+                                                               @Value("${spring.cellular.chunk.heap-limit:0.85}") double heapLimit,
+                                                               MeterRegistry meterRegistry) {
+        if ("fixed".equalsIgnoreCase(mode)) {
+            return AdaptiveChunkCompletionPolicy.fixed(size, meterRegistry);
+        }
+        return new AdaptiveChunkCompletionPolicy(size, minSize, maxSize, targetLatency, heapLimit, meterRegistry);
+    }
+
+    @Bean
+    public BillingMetricsListener billingMetricsListener(MeterRegistry meterRegistry) {
+        return new BillingMetricsListener(meterRegistry);
+    }
+
+    @Bean
+    public StartupTimingListener startupTimingListener(MeterRegistry meterRegistry) {
+        return new StartupTimingListener(meterRegistry);
+    }
+
+    @Bean
+    public MetricsFileExporter metricsFileExporter(ObjectProvider<PrometheusMeterRegistry> prometheusMeterRegistry) {
+        return new MetricsFileExporter(prometheusMeterRegistry.getIfAvailable());
     }
 }
@@ -0,0 +1,48 @@
+package self.development.batch.billingjob.config;
+
+import java.util.Locale;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Threads behind the partition, worker and pricing executors, selected with {@code spring.cellular.execution.mode}.
+ * Virtual threads cost almost nothing while blocked on JDBC or a pricing call, so concurrency is bounded by the
+ * configured limit (and the connection pool) rather than by the number of platform threads.
+ */
+enum ExecutionMode {
+
+    PLATFORM, VIRTUAL;
+
+    static ExecutionMode of(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * An executor running at most {@code threads} tasks at once; further submissions wait for a slot.
+     */
+    TaskExecutor boundedExecutor(String threadNamePrefix, int threads) {
+        if (this == VIRTUAL) {
+            var executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(threads);
+            return executor;
+        }
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+
+    /**
+     * An executor for short blocking calls that are bounded elsewhere, e.g. by a bulkhead.
+     */
+    TaskExecutor callExecutor(String threadNamePrefix, int platformThreads) {
+        if (this == VIRTUAL) {
+            return new VirtualThreadTaskExecutor(threadNamePrefix);
+        }
+        return boundedExecutor(threadNamePrefix, platformThreads);
+    }
+}
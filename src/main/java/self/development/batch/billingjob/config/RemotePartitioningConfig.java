@@ -0,0 +1,124 @@
+package self.development.batch.billingjob.config;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.integration.config.annotation.EnableBatchIntegration;
+import org.springframework.batch.integration.partition.RemotePartitioningManagerStepBuilderFactory;
+import org.springframework.batch.integration.partition.StepExecutionRequestHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.Pollers;
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.jdbc.store.channel.PostgresChannelMessageStoreQueryProvider;
+import org.springframework.integration.store.MessageGroupQueue;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.PollableChannel;
+import self.development.batch.billingjob.partition.AccountRangePartitioner;
+import self.development.batch.billingjob.remote.StaleWorkerReaper;
+import self.development.batch.billingjob.remote.WorkerStepLocator;
+
+/**
+ * {@code report.mode=remote}: the manager step sends one request per accountId partition of the month to
+ * {@code partitionRequests} and waits by polling the job repository; workers run {@code reportGeneration} for the
+ * partitions they receive. With {@code spring.cellular.remote.transport=jdbc} the requests are queued in
+ * {@code INT_CHANNEL_MESSAGE} and any node with {@code spring.cellular.remote.worker.enabled=true} picks them up;
+ * the default {@code local} transport hands them to in-JVM worker threads.
+ */
+@Configuration
+@EnableBatchIntegration
+public class RemotePartitioningConfig {
+
+    private static final String PARTITION_REQUESTS = "billing-partition-requests";
+
+    @Bean
+    public Step remoteProcessorStep(RemotePartitioningManagerStepBuilderFactory managerStepBuilderFactory,
+                                    Step processorStep,
+                                    AccountRangePartitioner accountRangePartitioner,
+                                    MessageChannel partitionRequests,
+                                    StaleWorkerReaper staleWorkerReaper,
+                                    @Value("${spring.cellular.remote.grid-size:8}") int gridSize,
+                                    @Value("${spring.cellular.remote.poll-interval:1s}") Duration pollInterval,
+                                    @Value("${spring.cellular.remote.timeout:24h}") Duration timeout) {
+        return managerStepBuilderFactory.get("remoteReportGeneration")
+                .partitioner(processorStep.getName(), accountRangePartitioner)
+                .gridSize(gridSize)
+                .outputChannel(partitionRequests)
+                .pollInterval(pollInterval.toMillis())
+                .timeout(timeout.toMillis())
+                .listener(staleWorkerReaper)
+                .build();
+    }
+
+    @Bean
+    public StaleWorkerReaper staleWorkerReaper(JobExplorer jobExplorer, JobRepository jobRepository, Step processorStep,
+                                               @Value("${spring.cellular.remote.stale-after:10m}") Duration staleAfter) {
+        return new StaleWorkerReaper(jobExplorer, jobRepository, processorStep.getName(), staleAfter);
+    }
+
+    @Bean
+    public MessageChannel partitionRequests(@Value("${spring.cellular.remote.transport:local}") String transport,
+                                            DataSource dataSource,
+                                            TaskExecutor remoteWorkerExecutor) {
+        if ("jdbc".equalsIgnoreCase(transport)) {
+            var messageStore = new JdbcChannelMessageStore(dataSource);
+            messageStore.setChannelMessageStoreQueryProvider(new PostgresChannelMessageStoreQueryProvider());
+            messageStore.addAllowedPatterns("org.springframework.batch.integration.partition.*");
+            return new QueueChannel(new MessageGroupQueue(messageStore, PARTITION_REQUESTS));
+        }
+        return new ExecutorChannel(remoteWorkerExecutor);
+    }
+
+    /**
+     * The {@code local} transport only hands requests to threads of this JVM, so its worker is always subscribed. A
+     * {@code jdbc} worker polls the shared queue and only runs on nodes that opt in with
+     * {@code spring.cellular.remote.worker.enabled=true}.
+     */
+    @Bean
+    @ConditionalOnExpression("!'${spring.cellular.remote.transport:local}'.equalsIgnoreCase('jdbc')"
+            + " or ${spring.cellular.remote.worker.enabled:false}")
+    public IntegrationFlow remoteWorkerFlow(MessageChannel partitionRequests, JobExplorer jobExplorer,
+                                            Step processorStep, TaskExecutor remoteWorkerExecutor,
+                                            @Value("${spring.cellular.remote.poll-interval:1s}") Duration pollInterval) {
+        var requestHandler = new StepExecutionRequestHandler();
+        requestHandler.setJobExplorer(jobExplorer);
+        requestHandler.setStepLocator(new WorkerStepLocator(processorStep));
+        if (partitionRequests instanceof PollableChannel) {
+            return IntegrationFlow.from(partitionRequests)
+                    .handle(requestHandler, "handle", endpoint -> endpoint.poller(Pollers.fixedDelay(pollInterval)
+                            .maxMessagesPerPoll(1)
+                            .taskExecutor(remoteWorkerExecutor)))
+                    .nullChannel();
+        }
+        return IntegrationFlow.from(partitionRequests)
+                .handle(requestHandler, "handle")
+                .nullChannel();
+    }
+
+    /**
+     * Keeps the worker flow eager under {@code spring.main.lazy-initialization}, so requests always find a subscriber.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter remoteWorkerFlowLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(IntegrationFlow.class);
+    }
+
+    @Bean
+    public TaskExecutor remoteWorkerExecutor(@Value("${spring.cellular.execution.mode:platform}") String executionMode,
+                                             @Value("${spring.cellular.remote.worker.threads:4}") int threads) {
+        var executor = new SimpleAsyncTaskExecutor("remote-worker-");
+        executor.setVirtualThreads(ExecutionMode.of(executionMode) == ExecutionMode.VIRTUAL);
+        executor.setConcurrencyLimit(threads);
+        return executor;
+    }
+}
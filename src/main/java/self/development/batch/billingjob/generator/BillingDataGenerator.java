@@ -0,0 +1,180 @@
+package self.development.batch.billingjob.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+/**
+ * Streams {@code telecom_data.csv}-shaped lines for one month. The same seed and settings always give the same file.
+ * <p>
+ * Accounts follow a Zipf distribution over {@code accounts} ranks with exponent {@code skew}. Rank 1 is account
+ * {@code 1001}, so the lowest account ids are the largest. {@code 0} is uniform, and around {@code 1} a few accounts
+ * hold most lines while most accounts have only a handful. Every line has its own phone number, so no line is merged
+ * into another on the natural key. A {@code faultRatio} share of lines is malformed (a missing column or a non-numeric
+ * field) and ends up on the skip path.
+ */
+public class BillingDataGenerator {
+
+    public static final String HEADER = "dataYear,dataMonth,accountId,phoneNumber,dataUsage,callDuration,smsCount";
+    public static final int FIRST_ACCOUNT_ID = 1001;
+
+    private final SplittableRandom random;
+    private final ZipfSampler accounts;
+    private final double faultRatio;
+    private final int year;
+    private final int month;
+    private long faults;
+
+    public BillingDataGenerator(long seed, int accounts, double skew, double faultRatio, int year, int month) {
+        if (accounts < 1) {
+            throw new IllegalArgumentException("accounts must be positive, got " + accounts);
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew must not be negative, got " + skew);
+        }
+        if (faultRatio < 0 || faultRatio > 1) {
+            throw new IllegalArgumentException("faultRatio must be between 0 and 1, got " + faultRatio);
+        }
+        this.random = new SplittableRandom(seed);
+        this.accounts = new ZipfSampler(accounts, skew);
+        this.faultRatio = faultRatio;
+        this.year = year;
+        this.month = month;
+    }
+
+    /**
+     * Writes the header and {@code rows} lines.
+     */
+    public void write(Writer writer, long rows) throws IOException {
+        var line = new StringBuilder(64);
+        writer.write(HEADER);
+        writer.write('\n');
+        for (long i = 0; i < rows; i++) {
+            line.setLength(0);
+            appendLine(line, i);
+            writer.append(line);
+        }
+    }
+
+    /**
+     * Malformed lines generated so far.
+     */
+    public long faults() {
+        return this.faults;
+    }
+
+    /**
+     * Appends line {@code index}, including its line break. Lines must be generated in index order.
+     */
+    public void appendLine(StringBuilder line, long index) {
+        int accountId = FIRST_ACCOUNT_ID - 1 + this.accounts.sample(this.random);
+        int cents = this.random.nextInt(500_000);
+        int callDuration = this.random.nextInt(600);
+        int smsCount = this.random.nextInt(100);
+        int fault = this.faultRatio > 0 && this.random.nextDouble() < this.faultRatio ? 1 + this.random.nextInt(3) : 0;
+        if (fault > 0) {
+            this.faults++;
+        }
+
+        line.append(this.year).append(',')
+                .append(this.month).append(',');
+        if (fault == 1) {
+            line.append("ACC");
+        }
+        line.append(accountId).append(',');
+        appendPhoneNumber(line, index);
+        line.append(',');
+        if (fault == 2) {
+            line.append("n/a");
+        } else {
+            line.append(cents / 100).append('.').append(cents % 100 < 10 ? "0" : "").append(cents % 100);
+        }
+        line.append(',').append(callDuration);
+        if (fault != 3) {
+            line.append(',').append(smsCount);
+        }
+        line.append('\n');
+    }
+
+    // Distinct for the first 800 million lines: area codes 200-999, then the index within the area code
+    private static void appendPhoneNumber(StringBuilder line, long index) {
+        long area = 200 + index / 10_000_000 % 800;
+        long number = index % 10_000_000;
+        line.append(area).append('-');
+        pad(line, number / 10_000, 3).append('-');
+        pad(line, number % 10_000, 4);
+    }
+
+    private static StringBuilder pad(StringBuilder line, long value, int width) {
+        for (long limit = 10; width > 1; width--, limit *= 10) {
+            if (value < limit) {
+                line.append('0');
+            }
+        }
+        return line.append(value);
+    }
+
+    /**
+     * Zipf sampling by rejection-inversion (Hoermann and Derflinger), in constant time and memory for any number of
+     * ranks.
+     */
+    static final class ZipfSampler {
+
+        private final int ranks;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+
+        ZipfSampler(int ranks, double exponent) {
+            this.ranks = ranks;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1;
+            this.hIntegralN = hIntegral(ranks + 0.5);
+            this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        int sample(SplittableRandom random) {
+            while (true) {
+                double u = this.hIntegralN + random.nextDouble() * (this.hIntegralX1 - this.hIntegralN);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > this.ranks) {
+                    k = this.ranks;
+                }
+                if (k - x <= this.s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1 - this.exponent) * logX) * logX;
+        }
+
+        private double h(double x) {
+            return Math.exp(-this.exponent * Math.log(x));
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1 - this.exponent);
+            if (t < -1) {
+                t = -1;
+            }
+            return Math.exp(helper1(t) * x);
+        }
+
+        // log(1 + x) / x, accurate near 0
+        private static double helper1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+        }
+
+        // (exp(x) - 1) / x, accurate near 0
+        private static double helper2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package self.development.batch.billingjob.job;
+
+import java.util.Locale;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+/**
+ * Routes the job flow on the (lower-cased) value of a string job parameter.
+ */
+public class JobParameterDecider implements JobExecutionDecider {
+
+    private final String parameterName;
+    private final String defaultValue;
+
+    public JobParameterDecider(String parameterName, String defaultValue) {
+        this.parameterName = parameterName;
+        this.defaultValue = defaultValue;
+    }
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        var value = jobExecution.getJobParameters().getString(this.parameterName, this.defaultValue);
+        return new FlowExecutionStatus(value.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,114 @@
+package self.development.batch.billingjob.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+
+/**
+ * Billing metrics for chunk-oriented steps, complementing the item read, process and chunk write timers that
+ * Spring Batch records itself: a {@code billing.chunk} timer around each chunk transaction (tagged with the
+ * outcome, so rollbacks show up as {@code error}), {@code billing.step.retries} per exception type, and per step
+ * run item counts, rollbacks and items per second. Partitions report under their worker step name.
+ */
+public class BillingMetricsListener implements ChunkListener, StepExecutionListener, RetryListener {
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<Long> chunkStart = new ThreadLocal<>();
+
+    public BillingMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static String stepTag(String stepName) {
+        int partitionSeparator = stepName.indexOf(':');
+        return partitionSeparator > 0 ? stepName.substring(0, partitionSeparator) : stepName;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        this.chunkStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        recordChunk(context, "success");
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        recordChunk(context, "error");
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        var stepContext = StepSynchronizationManager.getContext();
+        Counter.builder("billing.step.retries")
+                .description("Failed attempts that were retried or exhausted the retry limit")
+                .tag("step", stepContext != null ? stepTag(stepContext.getStepName()) : "unknown")
+                .tag("exception", throwable.getClass().getSimpleName())
+                .register(this.meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        String step = stepTag(stepExecution.getStepName());
+        items(step, "read").increment(stepExecution.getReadCount());
+        items(step, "write").increment(stepExecution.getWriteCount());
+        items(step, "filter").increment(stepExecution.getFilterCount());
+        items(step, "skip").increment(stepExecution.getSkipCount());
+        Counter.builder("billing.step.rollbacks")
+                .tag("step", step)
+                .register(this.meterRegistry)
+                .increment(stepExecution.getRollbackCount());
+
+        LocalDateTime start = stepExecution.getStartTime();
+        if (start != null) {
+            double seconds = Duration.between(start, LocalDateTime.now()).toNanos() / 1e9;
+            if (seconds > 0) {
+                DistributionSummary.builder("billing.step.throughput")
+                        .description("Items read per second over a step run")
+                        .baseUnit("items/s")
+                        .tag("step", step)
+                        .register(this.meterRegistry)
+                        .record(stepExecution.getReadCount() / seconds);
+            }
+        }
+        return null;
+    }
+
+    private Counter items(String step, String kind) {
+        return Counter.builder("billing.step.items")
+                .tag("step", step)
+                .tag("kind", kind)
+                .register(this.meterRegistry);
+    }
+
+    private void recordChunk(ChunkContext context, String outcome) {
+        Long start = this.chunkStart.get();
+        if (start == null) {
+            return;
+        }
+        this.chunkStart.remove();
+        Timer.builder("billing.chunk")
+                .description("Chunk transaction latency from read to commit or rollback")
+                .tag("step", stepTag(context.getStepContext().getStepName()))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
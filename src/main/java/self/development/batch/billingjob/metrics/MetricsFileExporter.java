@@ -0,0 +1,44 @@
+package self.development.batch.billingjob.metrics;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+/**
+ * Writes the Prometheus exposition of all meters to the {@code metrics.file} job parameter when the job ends, so
+ * runs without a scraper can still be compared afterwards.
+ */
+@Slf4j
+public class MetricsFileExporter implements JobExecutionListener {
+
+    public static final String METRICS_FILE = "metrics.file";
+
+    private final PrometheusMeterRegistry registry;
+
+    public MetricsFileExporter(PrometheusMeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String metricsFile = jobExecution.getJobParameters().getString(METRICS_FILE);
+        if (metricsFile == null || this.registry == null) {
+            return;
+        }
+        Path target = Paths.get(metricsFile);
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            Files.writeString(target, this.registry.scrape());
+            log.info("Metrics of job execution {} written to {}", jobExecution.getId(), target);
+        } catch (IOException e) {
+            log.warn("Unable to write metrics to {}: {}", target, e.getMessage());
+        }
+    }
+}
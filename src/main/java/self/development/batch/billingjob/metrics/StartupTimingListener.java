@@ -0,0 +1,71 @@
+package self.development.batch.billingjob.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Time from process start to the started application context, to the first item read and to the end of the job,
+ * recorded as {@code billing.startup} tagged with {@code phase} ({@code context}, {@code first.item}, {@code job}) and
+ * logged when the job ends. For short command-line runs this shows how much of the wall-clock time is startup.
+ */
+@Slf4j
+public class StartupTimingListener implements ApplicationListener<ApplicationStartedEvent>, JobExecutionListener,
+        ItemReadListener<Object> {
+
+    private final MeterRegistry meterRegistry;
+    private final Instant processStart;
+    private final AtomicBoolean firstItemRead = new AtomicBoolean();
+    private volatile Duration context;
+    private volatile Duration firstItem;
+
+    public StartupTimingListener(MeterRegistry meterRegistry) {
+        this(meterRegistry, ProcessHandle.current().info().startInstant().orElseGet(Instant::now));
+    }
+
+    public StartupTimingListener(MeterRegistry meterRegistry, Instant processStart) {
+        this.meterRegistry = meterRegistry;
+        this.processStart = processStart;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        this.context = record("context");
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        if (!this.firstItemRead.get() && this.firstItemRead.compareAndSet(false, true)) {
+            this.firstItem = record("first.item");
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        Duration job = record("job");
+        log.info("Since process start: context started after {} ms, first item read after {} ms, job {} after {} ms",
+                millis(this.context), millis(this.firstItem), jobExecution.getStatus(), job.toMillis());
+    }
+
+    private Duration record(String phase) {
+        Duration elapsed = Duration.between(this.processStart, Instant.now());
+        Timer.builder("billing.startup")
+                .description("Time from process start to a startup milestone")
+                .tag("phase", phase)
+                .register(this.meterRegistry)
+                .record(elapsed);
+        return elapsed;
+    }
+
+    private static Object millis(Duration duration) {
+        return duration != null ? duration.toMillis() : "-";
+    }
+}
@@ -0,0 +1,6 @@
+package self.development.batch.billingjob.model;
+
+import java.time.LocalDate;
+
+public record AccountPlan(int accountId, int planId, LocalDate validFrom, LocalDate validTo) {
+}
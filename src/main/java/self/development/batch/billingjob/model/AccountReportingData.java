@@ -0,0 +1,4 @@
+package self.development.batch.billingjob.model;
+
+public record AccountReportingData(AccountUsage accountUsage, double billingTotal) {
+}
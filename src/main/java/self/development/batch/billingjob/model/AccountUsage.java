@@ -0,0 +1,9 @@
+package self.development.batch.billingjob.model;
+
+public record AccountUsage(int dataYear, int dataMonth,
+                           int accountId,
+                           double dataUsage,
+                           long callDuration,
+                           long smsCount,
+                           int recordCount) {
+}
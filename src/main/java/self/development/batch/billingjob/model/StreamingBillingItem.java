@@ -0,0 +1,8 @@
+package self.development.batch.billingjob.model;
+
+/**
+ * A record read by the streaming step together with its report line, which is {@code null} when the record is
+ * persisted but not reported.
+ */
+public record StreamingBillingItem(BillingData billingData, ReportingData report) {
+}
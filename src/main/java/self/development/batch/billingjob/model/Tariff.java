@@ -0,0 +1,4 @@
+package self.development.batch.billingjob.model;
+
+public record Tariff(float dataPricing, float callPricing, float smsPricing) {
+}
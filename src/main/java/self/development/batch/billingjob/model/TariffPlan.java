@@ -0,0 +1,11 @@
+package self.development.batch.billingjob.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record TariffPlan(int planId, String planName, boolean defaultPlan,
+                         List<DataTier> dataTiers,
+                         int includedMinutes, float callPrice,
+                         int includedSms, float smsPrice,
+                         LocalDate validFrom, LocalDate validTo) {
+}
@@ -0,0 +1,138 @@
+package self.development.batch.billingjob.partition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Splits one {@code DATA_YEAR}/{@code DATA_MONTH} slice of {@code BILLING_DATA} into contiguous
+ * accountId ranges, each with its own partial report file.
+ */
+public class AccountRangePartitioner implements Partitioner {
+
+    public static final String MIN_ACCOUNT_ID = "minAccountId";
+    public static final String MAX_ACCOUNT_ID = "maxAccountId";
+    public static final String OUTPUT_FILE = "output.file";
+    public static final String PART_SUFFIX = ".part";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int year;
+    private final int month;
+    private final String outputFile;
+
+    public AccountRangePartitioner(DataSource dataSource, int year, int month, String outputFile) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.year = year;
+        this.month = month;
+        this.outputFile = outputFile;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        long[] bounds = this.jdbcTemplate.queryForObject(
+                "select min(ACCOUNT_ID), max(ACCOUNT_ID), count(*) from BILLING_DATA where DATA_YEAR = ? and DATA_MONTH = ?",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                this.year, this.month);
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        if (bounds == null || bounds[2] == 0) {
+            partitions.put(partitionName(0), context(0, 1, 0));
+            return partitions;
+        }
+
+        long min = bounds[0];
+        long max = bounds[1];
+        long rangeSize = (max - min + gridSize) / gridSize;
+        for (int i = 0; i < gridSize; i++) {
+            long from = min + i * rangeSize;
+            if (from > max) {
+                break;
+            }
+            long to = Math.min(from + rangeSize - 1, max);
+            partitions.put(partitionName(i), context(i, (int) from, (int) to));
+        }
+        return partitions;
+    }
+
+    private ExecutionContext context(int index, int minAccountId, int maxAccountId) {
+        var context = new ExecutionContext();
+        context.putInt(MIN_ACCOUNT_ID, minAccountId);
+        context.putInt(MAX_ACCOUNT_ID, maxAccountId);
+        context.putString(OUTPUT_FILE, this.outputFile + PART_SUFFIX + index);
+        return context;
+    }
+
+    private static String partitionName(int index) {
+        return "partition" + index;
+    }
+
+    /**
+     * The part files written by this run's partitions, in partition order: the {@code output.file} of every partition
+     * step execution of the current job execution. When only a later step is restarted the partitions did not run
+     * again, and the parts of the last execution of the job instance that ran them are used. Other
+     * {@code <file>.partN} files in the directory, e.g. of an abandoned run with a larger grid, are never included.
+     */
+    public static List<Path> partFiles(StepExecution stepExecution, String outputFile, JobExplorer jobExplorer) {
+        JobExecution jobExecution = stepExecution.getJobExecution();
+        List<Path> parts = partFiles(jobExecution, outputFile);
+        if (!parts.isEmpty() || jobExplorer == null) {
+            return parts;
+        }
+        List<JobExecution> executions = new ArrayList<>(jobExplorer.getJobExecutions(jobExecution.getJobInstance()));
+        executions.sort(Comparator.comparing(JobExecution::getId).reversed());
+        for (JobExecution previous : executions) {
+            parts = partFiles(previous, outputFile);
+            if (!parts.isEmpty()) {
+                return parts;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * {@code <file>.partN} files in the output directory that are not among {@code parts}.
+     */
+    public static List<Path> strayPartFiles(Path outputFile, List<Path> parts) throws IOException {
+        var directory = outputFile.toAbsolutePath().getParent();
+        var prefix = outputFile.getFileName() + PART_SUFFIX;
+        var known = parts.stream().map(part -> part.toAbsolutePath().normalize()).toList();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .filter(file -> file.getFileName().toString().substring(prefix.length()).matches("\\d+"))
+                    .filter(file -> !known.contains(file.toAbsolutePath().normalize()))
+                    .toList();
+        }
+    }
+
+    private static List<Path> partFiles(JobExecution jobExecution, String outputFile) {
+        var prefix = outputFile + PART_SUFFIX;
+        Map<Integer, Path> parts = new TreeMap<>();
+        for (StepExecution execution : jobExecution.getStepExecutions()) {
+            var context = execution.getExecutionContext();
+            if (!context.containsKey(OUTPUT_FILE)) {
+                continue;
+            }
+            var part = context.getString(OUTPUT_FILE);
+            if (part.startsWith(prefix) && part.substring(prefix.length()).matches("\\d+")) {
+                parts.put(Integer.parseInt(part.substring(prefix.length())), Paths.get(part));
+            }
+        }
+        return new ArrayList<>(parts.values());
+    }
+}
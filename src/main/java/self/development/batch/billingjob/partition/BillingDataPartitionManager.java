@@ -0,0 +1,226 @@
+package self.development.batch.billingjob.partition;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Maintains the monthly range partitions of {@code BILLING_DATA}. A month's partition is built as a plain table, filled
+ * with the month's rows from {@code BILLING_DATA_DEFAULT} and then attached, so creating it never rewrites the parent.
+ * Retention records its cutoff in {@code BILLING_RETENTION}; months before it, and months whose detached table is
+ * archived, are expired and only attached again on an explicit restore. Expiring a month also deletes the rows derived
+ * from it. All DDL runs in the caller's transaction under one advisory lock.
+ */
+@Slf4j
+public class BillingDataPartitionManager {
+
+    public static final String PARENT_TABLE = "BILLING_DATA";
+    public static final String DEFAULT_PARTITION = "BILLING_DATA_DEFAULT";
+
+    private static final long PARTITION_LOCK = 0x42494c4c44415441L;
+    private static final Pattern PARTITION_NAME = Pattern.compile("billing_data_(\\d{4})_(\\d{2})", Pattern.CASE_INSENSITIVE);
+
+    private static final String ATTACHED_PARTITIONS = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = to_regclass('" + PARENT_TABLE + "')";
+    private static final String DEFAULT_MONTHS = "SELECT DISTINCT DATA_YEAR, DATA_MONTH FROM " + DEFAULT_PARTITION
+            + " WHERE DATA_YEAR BETWEEN 1 AND 9999 AND DATA_MONTH BETWEEN 1 AND 12 ORDER BY DATA_YEAR, DATA_MONTH";
+    private static final String IS_ATTACHED = "SELECT count(*) FROM pg_inherits "
+            + "WHERE inhparent = to_regclass('" + PARENT_TABLE + "') AND inhrelid = to_regclass(?)";
+    private static final String TABLE_EXISTS = "SELECT to_regclass(?) IS NOT NULL";
+    private static final String PURGE_DEFAULT = "DELETE FROM " + DEFAULT_PARTITION + " WHERE (DATA_YEAR, DATA_MONTH) < (?, ?)";
+    // Same predicate as the partition bound, which also covers out-of-range months such as (Y, 13) or (Y + 1, 0)
+    private static final String IN_MONTH_RANGE = " WHERE (DATA_YEAR, DATA_MONTH) >= (?, ?) AND (DATA_YEAR, DATA_MONTH) < (?, ?)";
+    private static final String PURGE_DEFAULT_MONTH = "DELETE FROM " + DEFAULT_PARTITION + IN_MONTH_RANGE;
+    private static final List<String> DERIVED_TABLES = List.of("BILLING_ACCOUNT_USAGE", "BILLING_REPORT",
+            "BILLING_REPORT_PERIOD", "BILLING_CHANGED_ACCOUNT");
+    private static final String RETENTION_CUTOFF = "SELECT CUTOFF_YEAR, CUTOFF_MONTH FROM BILLING_RETENTION WHERE TABLE_NAME = ?";
+    private static final String RECORD_RETENTION_CUTOFF = "INSERT INTO BILLING_RETENTION "
+            + "(TABLE_NAME, CUTOFF_YEAR, CUTOFF_MONTH, UPDATED_AT) VALUES (?, ?, ?, now()) "
+            + "ON CONFLICT (TABLE_NAME) DO UPDATE SET CUTOFF_YEAR = EXCLUDED.CUTOFF_YEAR, "
+            + "CUTOFF_MONTH = EXCLUDED.CUTOFF_MONTH, UPDATED_AT = EXCLUDED.UPDATED_AT "
+            + "WHERE (EXCLUDED.CUTOFF_YEAR, EXCLUDED.CUTOFF_MONTH) > (BILLING_RETENTION.CUTOFF_YEAR, BILLING_RETENTION.CUTOFF_MONTH)";
+    private static final String DELETE_MONTH_USAGE = "DELETE FROM BILLING_ACCOUNT_USAGE WHERE DATA_YEAR = ? AND DATA_MONTH = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BillingDataPartitionManager(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public static String partitionName(int year, int month) {
+        return String.format(Locale.ROOT, "%s_%04d_%02d", PARENT_TABLE, year, month);
+    }
+
+    /**
+     * Whether rows of the month can have a partition of their own; anything else stays in the default partition.
+     */
+    public static boolean isPartitioned(Integer year, Integer month) {
+        return year != null && month != null && year >= 1 && year <= 9999 && month >= 1 && month <= 12;
+    }
+
+    /**
+     * The table holding one month: its partition when the month can have one, otherwise the parent.
+     */
+    public static String tableFor(Integer year, Integer month) {
+        return isPartitioned(year, month) ? partitionName(year, month) : PARENT_TABLE;
+    }
+
+    /**
+     * Months currently stored in the default partition, in calendar order.
+     */
+    public List<YearMonth> defaultPartitionMonths() {
+        return this.jdbcTemplate.query(DEFAULT_MONTHS,
+                (rs, rowNum) -> YearMonth.of(rs.getInt("DATA_YEAR"), rs.getInt("DATA_MONTH")));
+    }
+
+    /**
+     * Attached monthly partitions older than {@code cutoff}, in calendar order.
+     */
+    public List<YearMonth> partitionsBefore(YearMonth cutoff) {
+        List<YearMonth> expired = new ArrayList<>();
+        for (String name : this.jdbcTemplate.queryForList(ATTACHED_PARTITIONS, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                var month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (month.isBefore(cutoff)) {
+                    expired.add(month);
+                }
+            }
+        }
+        expired.sort(null);
+        return expired;
+    }
+
+    /**
+     * First month kept by the last retention run, or {@code null} when retention never ran.
+     */
+    public YearMonth retentionCutoff() {
+        return this.jdbcTemplate.query(RETENTION_CUTOFF,
+                (rs, rowNum) -> YearMonth.of(rs.getInt("CUTOFF_YEAR"), rs.getInt("CUTOFF_MONTH")), PARENT_TABLE)
+                .stream().findFirst().orElse(null);
+    }
+
+    /**
+     * Records {@code cutoff} as the first kept month, unless a later cutoff is already recorded.
+     */
+    public void recordRetentionCutoff(YearMonth cutoff) {
+        this.jdbcTemplate.update(RECORD_RETENTION_CUTOFF, PARENT_TABLE, cutoff.getYear(), cutoff.getMonthValue());
+    }
+
+    /**
+     * Whether the month's partition table exists but is not attached, i.e. retention detached it.
+     */
+    public boolean isArchived(YearMonth month) {
+        String name = partitionName(month.getYear(), month.getMonthValue());
+        Integer attached = this.jdbcTemplate.queryForObject(IS_ATTACHED, Integer.class, name);
+        return (attached == null || attached == 0)
+                && Boolean.TRUE.equals(this.jdbcTemplate.queryForObject(TABLE_EXISTS, Boolean.class, name));
+    }
+
+    /**
+     * Makes sure the month has an attached partition. All default-partition rows within the partition's bound are moved
+     * into it first, including rows with an out-of-range month such as {@code (Y, 13)}, which would fail the attach. An
+     * archived table is only attached again with {@code restore}; its month's {@code BILLING_ACCOUNT_USAGE} is then
+     * rebuilt from the restored rows.
+     *
+     * @return {@code true} when the partition was created or re-attached
+     * @throws IllegalStateException when the month is archived and {@code restore} is not set
+     */
+    public boolean ensurePartition(YearMonth month, boolean restore) {
+        String name = partitionName(month.getYear(), month.getMonthValue());
+        lock();
+        Integer attached = this.jdbcTemplate.queryForObject(IS_ATTACHED, Integer.class, name);
+        if (attached != null && attached > 0) {
+            return false;
+        }
+        boolean archived = Boolean.TRUE.equals(this.jdbcTemplate.queryForObject(TABLE_EXISTS, Boolean.class, name));
+        if (archived && !restore) {
+            throw new IllegalStateException("Partition " + name + " was detached by retention and is not re-attached");
+        }
+        if (!archived) {
+            this.jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + PARENT_TABLE + " INCLUDING ALL)");
+        }
+        YearMonth next = month.plusMonths(1);
+        int moved = this.jdbcTemplate.update("WITH MOVED AS (DELETE FROM " + DEFAULT_PARTITION + IN_MONTH_RANGE
+                + " RETURNING *) "
+                + "INSERT INTO " + name + " SELECT * FROM MOVED "
+                + "ON CONFLICT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER) DO UPDATE SET "
+                + "DATA_USAGE = EXCLUDED.DATA_USAGE, CALL_DURATION = EXCLUDED.CALL_DURATION, SMS_COUNT = EXCLUDED.SMS_COUNT",
+                month.getYear(), month.getMonthValue(), next.getYear(), next.getMonthValue());
+        this.jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + name
+                + " FOR VALUES FROM (" + month.getYear() + ", " + month.getMonthValue() + ")"
+                + " TO (" + next.getYear() + ", " + next.getMonthValue() + ")");
+        if (archived) {
+            this.jdbcTemplate.update(DELETE_MONTH_USAGE, month.getYear(), month.getMonthValue());
+            this.jdbcTemplate.update("INSERT INTO BILLING_ACCOUNT_USAGE "
+                    + "(DATA_YEAR, DATA_MONTH, ACCOUNT_ID, DATA_USAGE, CALL_DURATION, SMS_COUNT, RECORD_COUNT) "
+                    + "SELECT DATA_YEAR, DATA_MONTH, ACCOUNT_ID, COALESCE(SUM(DATA_USAGE::DOUBLE PRECISION), 0), "
+                    + "COALESCE(SUM(CALL_DURATION), 0), COALESCE(SUM(SMS_COUNT), 0), COUNT(*) FROM " + name
+                    + " WHERE DATA_YEAR = ? AND DATA_MONTH = ? GROUP BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID",
+                    month.getYear(), month.getMonthValue());
+        }
+        log.info("{} partition {}, {} rows moved from {}", archived ? "Restored" : "Created", name, moved,
+                DEFAULT_PARTITION);
+        return true;
+    }
+
+    /**
+     * Detaches the month's partition. Its table is kept, outside {@code BILLING_DATA}, until it is dropped or the month
+     * is explicitly restored.
+     */
+    public void detach(YearMonth month) {
+        lock();
+        this.jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION "
+                + partitionName(month.getYear(), month.getMonthValue()));
+    }
+
+    public void drop(YearMonth month) {
+        lock();
+        this.jdbcTemplate.execute("DROP TABLE " + partitionName(month.getYear(), month.getMonthValue()));
+    }
+
+    /**
+     * Deletes default-partition rows of months before {@code cutoff}.
+     */
+    public int purgeDefaultBefore(YearMonth cutoff) {
+        return this.jdbcTemplate.update(PURGE_DEFAULT, cutoff.getYear(), cutoff.getMonthValue());
+    }
+
+    /**
+     * Deletes the usage totals, report rows, report periods and change marks of months before {@code cutoff}.
+     */
+    public int purgeDerivedBefore(YearMonth cutoff) {
+        int purged = 0;
+        for (String table : DERIVED_TABLES) {
+            purged += this.jdbcTemplate.update("DELETE FROM " + table + " WHERE (DATA_YEAR, DATA_MONTH) < (?, ?)",
+                    cutoff.getYear(), cutoff.getMonthValue());
+        }
+        return purged;
+    }
+
+    /**
+     * Deletes one expired month's default-partition rows, with the same bound as its partition, and the rows derived
+     * from it.
+     *
+     * @return the number of default-partition rows deleted
+     */
+    public int purgeMonth(YearMonth month) {
+        for (String table : DERIVED_TABLES) {
+            this.jdbcTemplate.update("DELETE FROM " + table + " WHERE DATA_YEAR = ? AND DATA_MONTH = ?",
+                    month.getYear(), month.getMonthValue());
+        }
+        YearMonth next = month.plusMonths(1);
+        return this.jdbcTemplate.update(PURGE_DEFAULT_MONTH, month.getYear(), month.getMonthValue(), next.getYear(),
+                next.getMonthValue());
+    }
+
+    private void lock() {
+        this.jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + PARTITION_LOCK + ")");
+    }
+}
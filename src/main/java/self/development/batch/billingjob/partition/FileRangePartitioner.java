@@ -0,0 +1,80 @@
+package self.development.batch.billingjob.partition;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Splits one input file into line-aligned byte ranges of roughly equal size. A single scan over the file finds
+ * the first line start at or after each split point and the number of lines before it, so readers of later
+ * ranges can still report global line numbers.
+ */
+public class FileRangePartitioner implements Partitioner {
+
+    public static final String START_OFFSET = "startOffset";
+    public static final String END_OFFSET = "endOffset";
+    public static final String START_LINE = "startLine";
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final Path file;
+
+    public FileRangePartitioner(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        try (var channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] starts = new long[gridSize + 1];
+            int[] startLines = new int[gridSize + 1];
+            int boundaries = 1;
+            int lines = 0;
+
+            for (long windowStart = 0; windowStart < size && boundaries < gridSize; windowStart += WINDOW_SIZE) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min(WINDOW_SIZE, size - windowStart));
+                int limit = window.limit();
+                for (int i = 0; i < limit && boundaries < gridSize; i++) {
+                    if (window.get(i) != '\n') {
+                        continue;
+                    }
+                    lines++;
+                    long lineStart = windowStart + i + 1;
+                    while (boundaries < gridSize && lineStart >= size * boundaries / gridSize) {
+                        starts[boundaries] = lineStart;
+                        startLines[boundaries] = lines;
+                        boundaries++;
+                    }
+                }
+            }
+            for (; boundaries <= gridSize; boundaries++) {
+                starts[boundaries] = size;
+                startLines[boundaries] = lines;
+            }
+
+            Map<String, ExecutionContext> partitions = new HashMap<>();
+            for (int i = 0; i < gridSize; i++) {
+                if (i > 0 && starts[i] == starts[i + 1]) {
+                    continue;
+                }
+                var context = new ExecutionContext();
+                context.putLong(START_OFFSET, starts[i]);
+                context.putLong(END_OFFSET, starts[i + 1]);
+                context.putInt(START_LINE, startLines[i]);
+                partitions.put("partition" + i, context);
+            }
+            return partitions;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to partition " + this.file, e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package self.development.batch.billingjob.policy;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import self.development.batch.billingjob.metrics.BillingMetricsListener;
+
+/**
+ * Chunk completion policy that resizes chunks between {@code minSize} and {@code maxSize} while the step runs.
+ * After each committed chunk the size moves towards the one that would have met the target commit latency (by at
+ * most half or one and a half times per chunk); a rolled back chunk, a chunk with retries or a live heap above the
+ * configured fraction after the last collection halves it. With {@code minSize == maxSize} it behaves like a fixed
+ * chunk size.
+ * <p>
+ * Every chunk's size is recorded in the {@code billing.chunk.size} metric and the last size is kept in the step
+ * execution context, so a restarted step resumes with it. The policy must be step scoped and registered on the step
+ * as chunk, step and retry listener.
+ */
+@Slf4j
+public class AdaptiveChunkCompletionPolicy extends CompletionPolicySupport
+        implements ChunkListener, StepExecutionListener, RetryListener {
+
+    public static final String CHUNK_SIZE = "chunk.size";
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetLatencyNanos;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+    private final BooleanSupplier heapPressure;
+
+    private int size;
+    private long chunkStart;
+    private int retries;
+    private DistributionSummary sizes;
+
+    public AdaptiveChunkCompletionPolicy(int initialSize, int minSize, int maxSize, Duration targetLatency,
+                                         double heapLimit, MeterRegistry meterRegistry) {
+        this(initialSize, minSize, maxSize, targetLatency, meterRegistry, System::nanoTime,
+                () -> liveHeapAbove(heapLimit));
+    }
+
+    AdaptiveChunkCompletionPolicy(int initialSize, int minSize, int maxSize, Duration targetLatency,
+                                  MeterRegistry meterRegistry, LongSupplier nanoTime, BooleanSupplier heapPressure) {
+        if (minSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid chunk size bounds " + minSize + ".." + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+        this.heapPressure = heapPressure;
+        this.size = clamp(initialSize);
+    }
+
+    public static AdaptiveChunkCompletionPolicy fixed(int size, MeterRegistry meterRegistry) {
+        return new AdaptiveChunkCompletionPolicy(size, size, size, Duration.ZERO, 1.0, meterRegistry);
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        return new SizedRepeatContext(parent, this.size);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        SizedRepeatContext sized = (SizedRepeatContext) context;
+        return sized.count >= sized.limit;
+    }
+
+    @Override
+    public void update(RepeatContext context) {
+        ((SizedRepeatContext) context).count++;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        if (stepExecution.getExecutionContext().containsKey(CHUNK_SIZE)) {
+            this.size = clamp(stepExecution.getExecutionContext().getInt(CHUNK_SIZE));
+        }
+        this.sizes = DistributionSummary.builder("billing.chunk.size")
+                .description("Items per chunk chosen by the completion policy")
+                .tag("step", BillingMetricsListener.stepTag(stepExecution.getStepName()))
+                .register(this.meterRegistry);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        stepExecution.getExecutionContext().putInt(CHUNK_SIZE, this.size);
+        log.info("Step {} finished with chunk size {}", stepExecution.getStepName(), this.size);
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        this.chunkStart = this.nanoTime.getAsLong();
+        this.retries = 0;
+        if (this.sizes != null) {
+            this.sizes.record(this.size);
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        adjust(this.nanoTime.getAsLong() - this.chunkStart, false);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        adjust(this.nanoTime.getAsLong() - this.chunkStart, true);
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        this.retries++;
+    }
+
+    private void adjust(long latencyNanos, boolean failed) {
+        if (this.minSize == this.maxSize) {
+            return;
+        }
+        int next;
+        if (failed || this.retries > 0 || this.heapPressure.getAsBoolean()) {
+            next = this.size / 2;
+        } else {
+            double ideal = this.size * (double) this.targetLatencyNanos / Math.max(latencyNanos, 1);
+            next = (int) Math.max(this.size * 0.5, Math.min(this.size * 1.5, ideal));
+            if (next == this.size && latencyNanos < this.targetLatencyNanos) {
+                next++;
+            }
+        }
+        this.size = clamp(next);
+    }
+
+    private static boolean liveHeapAbove(double heapLimit) {
+        long max = MEMORY.getHeapMemoryUsage().getMax();
+        if (max <= 0) {
+            return false;
+        }
+        long liveAfterGc = 0;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                liveAfterGc += usage.getUsed();
+            }
+        }
+        return liveAfterGc > max * heapLimit;
+    }
+
+    private int clamp(int value) {
+        return Math.max(this.minSize, Math.min(this.maxSize, value));
+    }
+
+    private static class SizedRepeatContext extends RepeatContextSupport {
+
+        private final int limit;
+        private int count;
+
+        SizedRepeatContext(RepeatContext parent, int limit) {
+            super(parent);
+            this.limit = limit;
+        }
+    }
+}
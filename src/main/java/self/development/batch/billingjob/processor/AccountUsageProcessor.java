@@ -0,0 +1,55 @@
+package self.development.batch.billingjob.processor;
+
+import org.springframework.batch.item.ItemProcessor;
+import self.development.batch.billingjob.model.AccountReportingData;
+import self.development.batch.billingjob.model.AccountUsage;
+import self.development.batch.billingjob.service.PricingCache;
+import self.development.batch.billingjob.service.TariffPlanCache;
+
+/**
+ * Prices an account's monthly usage totals and drops accounts below the spending threshold. With tariff plans the
+ * month's totals go through the account's plan once, so included minutes, included SMS and data tiers apply per
+ * account and month rather than per record.
+ */
+public class AccountUsageProcessor implements ItemProcessor<AccountUsage, AccountReportingData> {
+
+    private final PricingCache pricingCache;
+    private final TariffPlanCache tariffPlans;
+    private final float callPricing;
+    private final float smsPricing;
+    private final float spendingThreshold;
+
+    public AccountUsageProcessor(PricingCache pricingCache, float callPricing, float smsPricing, float spendingThreshold) {
+        this.pricingCache = pricingCache;
+        this.tariffPlans = null;
+        this.callPricing = callPricing;
+        this.smsPricing = smsPricing;
+        this.spendingThreshold = spendingThreshold;
+    }
+
+    public AccountUsageProcessor(TariffPlanCache tariffPlans, float spendingThreshold) {
+        this.pricingCache = null;
+        this.tariffPlans = tariffPlans;
+        this.callPricing = 0f;
+        this.smsPricing = 0f;
+        this.spendingThreshold = spendingThreshold;
+    }
+
+    @Override
+    public AccountReportingData process(AccountUsage item) {
+        double billingTotal = this.tariffPlans != null
+                ? this.tariffPlans.rateTable(item.dataYear(), item.dataMonth())
+                        .price(item.accountId(), (float) item.dataUsage(), saturatedInt(item.callDuration()),
+                                saturatedInt(item.smsCount()))
+                : item.dataUsage() * this.pricingCache.getDataPricing() + item.callDuration() * this.callPricing
+                        + item.smsCount() * this.smsPricing;
+        if (billingTotal < this.spendingThreshold) {
+            return null;
+        }
+        return new AccountReportingData(item, billingTotal);
+    }
+
+    private static int saturatedInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,60 @@
+package self.development.batch.billingjob.processor;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ItemProcessor;
+import self.development.batch.billingjob.model.BillingData;
+
+/**
+ * Filters records that repeat one seen recently in the same step (or partition), before they reach the upsert.
+ * Only exact repeats are dropped; a record that corrects the usage of a known key still passes and replaces the
+ * stored row. Memory is bounded by an LRU of the last {@code capacity} distinct records.
+ * <p>
+ * Records of the current chunk only become "seen" once the chunk commits, so a chunk that is rolled back and
+ * processed again is not filtered against itself. The upsert keeps the job correct for anything the LRU has
+ * already forgotten, including after a restart. A capacity of zero turns the filter off.
+ */
+public class BillingDataDeduplicator implements ItemProcessor<BillingData, BillingData>, ChunkListener {
+
+    private final int capacity;
+    private final Map<BillingData, Boolean> seen;
+    private final Set<BillingData> chunk = new HashSet<>();
+
+    public BillingDataDeduplicator(int capacity) {
+        this.capacity = capacity;
+        this.seen = new LinkedHashMap<>(Math.max(Math.min(capacity, 1 << 16), 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BillingData, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public BillingData process(BillingData item) {
+        if (this.capacity <= 0) {
+            return item;
+        }
+        if (this.seen.get(item) != null || !this.chunk.add(item)) {
+            return null;
+        }
+        return item;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        for (BillingData item : this.chunk) {
+            this.seen.put(item, Boolean.TRUE);
+        }
+        this.chunk.clear();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        this.chunk.clear();
+    }
+}
@@ -1,34 +1,41 @@
 package self.development.batch.billingjob.processor;
 
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.beans.factory.annotation.Value;
 import self.development.batch.billingjob.model.BillingData;
 import self.development.batch.billingjob.model.ReportingData;
-import self.development.batch.billingjob.service.PricingService;
+import self.development.batch.billingjob.service.PricingCache;
+import self.development.batch.billingjob.service.TariffPlanCache;
 
 public class BillingDataProcessor implements ItemProcessor<BillingData, ReportingData> {
 
-    private final PricingService pricingService;
-
-    public BillingDataProcessor(PricingService pricingService) {
-        this.pricingService = pricingService;
+    private final PricingCache pricingCache;
+    private final TariffPlanCache tariffPlans;
+    private final float callPricing;
+    private final float smsPricing;
+    private final float spendingThreshold;
+
+    public BillingDataProcessor(PricingCache pricingCache, float callPricing, float smsPricing, float spendingThreshold) {
+        this.pricingCache = pricingCache;
+        this.tariffPlans = null;
+        this.callPricing = callPricing;
+        this.smsPricing = smsPricing;
+        this.spendingThreshold = spendingThreshold;
     }
 
-    @Value("${spring.cellular.pricing.data:0.01}")
-    private float dataPricing;
-
-    @Value("${spring.cellular.pricing.call:0.5}")
-    private float callPricing;
-
-    @Value("${spring.cellular.pricing.sms:0.1}")
-    private float smsPricing;
-
-    @Value("${spring.cellular.spending.threshold:150}")
-    private float spendingThreshold;
+    public BillingDataProcessor(TariffPlanCache tariffPlans, float spendingThreshold) {
+        this.pricingCache = null;
+        this.tariffPlans = tariffPlans;
+        this.callPricing = 0f;
+        this.smsPricing = 0f;
+        this.spendingThreshold = spendingThreshold;
+    }
 
    @Override
    public ReportingData process(BillingData item) {
-      double billingTotal = item.dataUsage() * pricingService.getDataPricing() + item.callDuration()
+      double billingTotal = tariffPlans != null
+              ? tariffPlans.rateTable(item.dataYear(), item.dataMonth())
+                      .price(item.accountId(), item.dataUsage(), item.callDuration(), item.smsCount())
+              : item.dataUsage() * pricingCache.getDataPricing() + item.callDuration()
               * callPricing + item.smsCount() * smsPricing;
       if (billingTotal < spendingThreshold) {
          return null;
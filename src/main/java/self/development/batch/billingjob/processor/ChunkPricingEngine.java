@@ -0,0 +1,103 @@
+package self.development.batch.billingjob.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.service.PricingCache;
+import self.development.batch.billingjob.service.RateTable;
+import self.development.batch.billingjob.service.TariffPlanCache;
+
+/**
+ * Prices a whole chunk at once. Usage is copied into primitive columns, totals are computed and compared with the
+ * spending threshold in one loop, and {@link ReportingData} is only allocated for records that pass. The arithmetic
+ * is the same float expression, in the same order, as {@link BillingDataProcessor}, so totals are bit-for-bit equal.
+ * With tariff plans, each run of records of the same month is priced column by column by that month's
+ * {@link RateTable}, with the same totals as {@link RateTable#price(int, float, int, int)} per record.
+ */
+public class ChunkPricingEngine {
+
+    private final PricingCache pricingCache;
+    private final TariffPlanCache tariffPlans;
+    private final float callPricing;
+    private final float smsPricing;
+    private final float spendingThreshold;
+
+    public ChunkPricingEngine(PricingCache pricingCache, float callPricing, float smsPricing, float spendingThreshold) {
+        this.pricingCache = pricingCache;
+        this.tariffPlans = null;
+        this.callPricing = callPricing;
+        this.smsPricing = smsPricing;
+        this.spendingThreshold = spendingThreshold;
+    }
+
+    public ChunkPricingEngine(TariffPlanCache tariffPlans, float spendingThreshold) {
+        this.pricingCache = null;
+        this.tariffPlans = tariffPlans;
+        this.callPricing = 0f;
+        this.smsPricing = 0f;
+        this.spendingThreshold = spendingThreshold;
+    }
+
+    public List<ReportingData> price(List<? extends BillingData> items) {
+        int size = items.size();
+        float[] dataUsage = new float[size];
+        int[] callDuration = new int[size];
+        int[] smsCount = new int[size];
+        for (int i = 0; i < size; i++) {
+            BillingData item = items.get(i);
+            dataUsage[i] = item.dataUsage();
+            callDuration[i] = item.callDuration();
+            smsCount[i] = item.smsCount();
+        }
+
+        float[] totals = new float[size];
+        if (this.tariffPlans != null) {
+            priceWithPlans(items, dataUsage, callDuration, smsCount, totals);
+        } else {
+            float dataPricing = this.pricingCache.getDataPricing();
+            float callPricing = this.callPricing;
+            float smsPricing = this.smsPricing;
+            for (int i = 0; i < size; i++) {
+                totals[i] = dataUsage[i] * dataPricing + callDuration[i] * callPricing + smsCount[i] * smsPricing;
+            }
+        }
+
+        float threshold = this.spendingThreshold;
+        int[] passing = new int[size];
+        int passed = 0;
+        for (int i = 0; i < size; i++) {
+            passing[passed] = i;
+            passed += totals[i] < threshold ? 0 : 1;
+        }
+
+        List<ReportingData> reports = new ArrayList<>(passed);
+        for (int p = 0; p < passed; p++) {
+            int i = passing[p];
+            reports.add(new ReportingData(items.get(i), totals[i]));
+        }
+        return reports;
+    }
+
+    private void priceWithPlans(List<? extends BillingData> items, float[] dataUsage, int[] callDuration,
+                                int[] smsCount, float[] totals) {
+        int size = items.size();
+        int[] accountIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            accountIds[i] = items.get(i).accountId();
+        }
+        int[] plans = new int[size];
+        int from = 0;
+        while (from < size) {
+            BillingData first = items.get(from);
+            int to = from + 1;
+            while (to < size && items.get(to).dataYear() == first.dataYear()
+                    && items.get(to).dataMonth() == first.dataMonth()) {
+                to++;
+            }
+            this.tariffPlans.rateTable(first.dataYear(), first.dataMonth())
+                    .price(from, to, accountIds, dataUsage, callDuration, smsCount, plans, totals);
+            from = to;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package self.development.batch.billingjob.processor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.retry.support.RetryTemplate;
+import self.development.batch.billingjob.exception.PricingException;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.service.PricingService;
+
+/**
+ * Prices each item with its own {@link PricingService} lookup instead of the cached tariff. Meant to run under an
+ * {@code AsyncItemProcessor}, so a chunk's lookups are in flight at the same time; a fair semaphore caps the calls
+ * open against the pricing backend, and a call that cannot get a permit within the acquire timeout fails like a
+ * backend error. Failed lookups are retried per item, since the asynchronous step cannot retry single items, with an
+ * exponential, jittered backoff so a full bulkhead or a failing backend is not hit again at once. Items are priced
+ * with the flat factors only; tariff plans are not applied.
+ */
+public class RemotePricingProcessor implements ItemProcessor<BillingData, ReportingData> {
+
+    private static final int MAX_BACKOFF_FACTOR = 16;
+
+    private final PricingService pricingService;
+    private final Semaphore bulkhead;
+    private final long acquireTimeoutNanos;
+    private final RetryTemplate retryTemplate;
+    private final float callPricing;
+    private final float smsPricing;
+    private final float spendingThreshold;
+    private final Timer lookupTimer;
+    private final Counter rejections;
+
+    public RemotePricingProcessor(PricingService pricingService, int maxConcurrentCalls, Duration acquireTimeout,
+                                  int maxAttempts, Duration backoff, float callPricing, float smsPricing,
+                                  float spendingThreshold, MeterRegistry meterRegistry) {
+        this.pricingService = pricingService;
+        this.bulkhead = new Semaphore(maxConcurrentCalls, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        var retry = RetryTemplate.builder()
+                .maxAttempts(maxAttempts)
+                .retryOn(PricingException.class);
+        if (backoff.toMillis() > 0) {
+            retry.exponentialBackoff(backoff.toMillis(), 2.0, backoff.toMillis() * MAX_BACKOFF_FACTOR, true);
+        }
+        this.retryTemplate = retry.build();
+        this.callPricing = callPricing;
+        this.smsPricing = smsPricing;
+        this.spendingThreshold = spendingThreshold;
+        this.lookupTimer = Timer.builder("billing.pricing.lookup")
+                .description("Per-item pricing lookup latency including bulkhead wait and retries")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejections = Counter.builder("billing.pricing.bulkhead.rejected").register(meterRegistry);
+        Gauge.builder("billing.pricing.bulkhead.in-flight", this.bulkhead,
+                        semaphore -> maxConcurrentCalls - semaphore.availablePermits())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ReportingData process(BillingData item) {
+        var sample = Timer.start();
+        float dataPricing;
+        try {
+            dataPricing = this.retryTemplate.execute(context -> lookupDataPricing());
+        } finally {
+            sample.stop(this.lookupTimer);
+        }
+        double billingTotal = item.dataUsage() * dataPricing + item.callDuration() * this.callPricing
+                + item.smsCount() * this.smsPricing;
+        if (billingTotal < this.spendingThreshold) {
+            return null;
+        }
+        return new ReportingData(item, billingTotal);
+    }
+
+    private float lookupDataPricing() {
+        try {
+            if (!this.bulkhead.tryAcquire(this.acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                this.rejections.increment();
+                throw new PricingException("Pricing bulkhead full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PricingException("Interrupted while waiting for the pricing bulkhead");
+        }
+        try {
+            return this.pricingService.getDataPricing();
+        } finally {
+            this.bulkhead.release();
+        }
+    }
+}
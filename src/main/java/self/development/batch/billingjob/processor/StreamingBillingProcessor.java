@@ -0,0 +1,42 @@
+package self.development.batch.billingjob.processor;
+
+import org.springframework.batch.item.ItemProcessor;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.model.StreamingBillingItem;
+
+/**
+ * Prices the records of the reported month for the streaming step, like the staged report does after ingestion.
+ * When the records are also persisted, every record is passed on, priced or not, so the step's writer stores all
+ * of them in the chunk's transaction; otherwise records without a report line are filtered out here. Without
+ * {@code year} and {@code month} every record is priced.
+ */
+public class StreamingBillingProcessor implements ItemProcessor<BillingData, StreamingBillingItem> {
+
+    private final ItemProcessor<BillingData, ReportingData> delegate;
+    private final Integer year;
+    private final Integer month;
+    private final boolean persist;
+
+    public StreamingBillingProcessor(ItemProcessor<BillingData, ReportingData> delegate, Integer year, Integer month,
+                                     boolean persist) {
+        this.delegate = delegate;
+        this.year = year;
+        this.month = month;
+        this.persist = persist;
+    }
+
+    @Override
+    public StreamingBillingItem process(BillingData item) throws Exception {
+        ReportingData report = isReported(item) ? this.delegate.process(item) : null;
+        if (report == null && !this.persist) {
+            return null;
+        }
+        return new StreamingBillingItem(item, report);
+    }
+
+    private boolean isReported(BillingData item) {
+        return (this.year == null || this.year == item.dataYear())
+                && (this.month == null || this.month == item.dataMonth());
+    }
+}
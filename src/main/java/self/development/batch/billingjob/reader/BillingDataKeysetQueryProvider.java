@@ -0,0 +1,45 @@
+package self.development.batch.billingjob.reader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.support.PostgresPagingQueryProvider;
+
+/**
+ * Keyset paging over one month of {@code BILLING_DATA} in {@code (ACCOUNT_ID, PHONE_NUMBER)} order. Pages after the
+ * first use a row-value comparison against the last key read, so each page is a range scan of the
+ * {@code (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER)} index rather than the OR-expanded predicate that
+ * {@link PostgresPagingQueryProvider} generates for composite sort keys.
+ * <p>
+ * The keyset must be unique within the month, or rows sharing the last key of a page would be skipped. Both tables
+ * read through this provider, {@code BILLING_DATA} and {@code BILLING_REPORT}, have a unique index on
+ * {@code (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER)} that guarantees it.
+ */
+public class BillingDataKeysetQueryProvider extends PostgresPagingQueryProvider {
+
+    private static final String ORDER_BY = " ORDER BY ACCOUNT_ID, PHONE_NUMBER LIMIT ";
+
+    public BillingDataKeysetQueryProvider() {
+        setSelectClause("DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER, DATA_USAGE, CALL_DURATION, SMS_COUNT");
+        setFromClause("BILLING_DATA");
+        setWhereClause("DATA_YEAR = :dataYear AND DATA_MONTH = :dataMonth AND ACCOUNT_ID BETWEEN :minAccountId AND :maxAccountId");
+        Map<String, Order> sortKeys = new LinkedHashMap<>();
+        sortKeys.put("ACCOUNT_ID", Order.ASCENDING);
+        sortKeys.put("PHONE_NUMBER", Order.ASCENDING);
+        setSortKeys(sortKeys);
+    }
+
+    @Override
+    public String generateFirstPageQuery(int pageSize) {
+        return baseQuery() + ORDER_BY + pageSize;
+    }
+
+    @Override
+    public String generateRemainingPagesQuery(int pageSize) {
+        return baseQuery() + " AND (ACCOUNT_ID, PHONE_NUMBER) > (:_ACCOUNT_ID, :_PHONE_NUMBER)" + ORDER_BY + pageSize;
+    }
+
+    private String baseQuery() {
+        return "SELECT " + getSelectClause() + " FROM " + getFromClause() + " WHERE " + getWhereClause();
+    }
+}
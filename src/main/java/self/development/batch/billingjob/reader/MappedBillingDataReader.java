@@ -0,0 +1,294 @@
+package self.development.batch.billingjob.reader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.file.FlatFileParseException;
+import self.development.batch.billingjob.model.BillingData;
+
+/**
+ * Reads {@code dataYear,dataMonth,accountId,phoneNumber,dataUsage,callDuration,smsCount} lines straight from a
+ * memory-mapped input file. Numeric columns are parsed from the bytes without intermediate strings, ignoring
+ * surrounding whitespace; only the phone number is materialized. The byte offset and line number are saved for
+ * restart, and malformed lines are reported as {@link FlatFileParseException} with the same line numbering as
+ * {@code FlatFileItemReader}.
+ */
+public class MappedBillingDataReader extends ItemStreamSupport implements ItemStreamReader<BillingData> {
+
+    static final String OFFSET_KEY = "byte.offset";
+    static final String LINE_KEY = "line.count";
+
+    private static final int COLUMNS = 7;
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    private final Path file;
+    private final int linesToSkip;
+    private final long startOffset;
+    private final long endOffset;
+    private final int startLine;
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long end;
+    private long fileSize;
+    private int currentLineEnd;
+
+    private long offset;
+    private int lineCount;
+
+    private final int[] fieldStart = new int[COLUMNS];
+    private final int[] fieldEnd = new int[COLUMNS];
+
+    public MappedBillingDataReader(Path file, int linesToSkip) {
+        this(file, linesToSkip, 0, Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Reads only the lines starting in {@code [startOffset, endOffset)}; {@code startLine} is the number of lines
+     * before {@code startOffset}, so reported line numbers stay global.
+     */
+    public MappedBillingDataReader(Path file, int linesToSkip, long startOffset, long endOffset, int startLine) {
+        this.file = file;
+        this.linesToSkip = linesToSkip;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.startLine = startLine;
+        setName("mappedBillingDataReader");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        try {
+            this.channel = FileChannel.open(this.file, StandardOpenOption.READ);
+            this.fileSize = this.channel.size();
+            this.end = Math.min(this.endOffset, this.fileSize);
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to open " + this.file, e);
+        }
+        this.offset = this.startOffset;
+        this.lineCount = this.startLine;
+        if (executionContext.containsKey(getExecutionContextKey(OFFSET_KEY))) {
+            this.offset = executionContext.getLong(getExecutionContextKey(OFFSET_KEY));
+            this.lineCount = executionContext.getInt(getExecutionContextKey(LINE_KEY));
+        }
+        this.window = null;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(getExecutionContextKey(OFFSET_KEY), this.offset);
+        executionContext.putInt(getExecutionContextKey(LINE_KEY), this.lineCount);
+    }
+
+    @Override
+    public void close() {
+        this.window = null;
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Unable to close " + this.file, e);
+            } finally {
+                this.channel = null;
+            }
+        }
+    }
+
+    @Override
+    public BillingData read() throws Exception {
+        while (this.offset < this.end) {
+            int lineStart = position(this.offset);
+            int lineEnd = this.currentLineEnd;
+            int next = lineEnd < this.window.limit() ? lineEnd + 1 : lineEnd;
+            if (lineEnd > lineStart && this.window.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            this.offset = this.windowStart + next;
+            this.lineCount++;
+            if (this.lineCount <= this.linesToSkip) {
+                continue;
+            }
+            return parse(lineStart, lineEnd);
+        }
+        return null;
+    }
+
+    /**
+     * Makes sure the mapped window holds the whole line starting at {@code absolute}, remapping from that line if
+     * needed, and returns the line's index in the window. The line's end is left in {@code currentLineEnd}.
+     */
+    private int position(long absolute) throws IOException {
+        if (this.window != null && absolute >= this.windowStart && absolute < this.windowStart + this.window.limit()) {
+            int relative = (int) (absolute - this.windowStart);
+            this.currentLineEnd = lineEnd(relative);
+            if (this.currentLineEnd < this.window.limit() || this.windowStart + this.window.limit() == this.fileSize) {
+                return relative;
+            }
+        }
+        long size = Math.min(WINDOW_SIZE, this.fileSize - absolute);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, absolute, size);
+        this.windowStart = absolute;
+        this.currentLineEnd = lineEnd(0);
+        if (this.currentLineEnd == this.window.limit() && absolute + size < this.fileSize) {
+            throw new ItemStreamException("Line at byte " + absolute + " is longer than " + WINDOW_SIZE + " bytes");
+        }
+        return 0;
+    }
+
+    private int lineEnd(int from) {
+        int limit = this.window.limit();
+        int i = from;
+        while (i < limit && this.window.get(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private BillingData parse(int lineStart, int lineEnd) {
+        int column = 0;
+        int fieldFrom = lineStart;
+        boolean quoted = false;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i < lineEnd && this.window.get(i) == '"') {
+                quoted = !quoted;
+            } else if (i == lineEnd || (!quoted && this.window.get(i) == ',')) {
+                if (column == COLUMNS) {
+                    throw parseError("Incorrect number of tokens", lineStart, lineEnd);
+                }
+                this.fieldStart[column] = fieldFrom;
+                this.fieldEnd[column] = i;
+                column++;
+                fieldFrom = i + 1;
+            }
+        }
+        if (column != COLUMNS) {
+            throw parseError("Incorrect number of tokens", lineStart, lineEnd);
+        }
+        try {
+            return new BillingData(
+                    parseInt(0),
+                    parseInt(1),
+                    parseInt(2),
+                    text(3),
+                    parseFloat(4),
+                    parseInt(5),
+                    parseInt(6));
+        } catch (NumberFormatException e) {
+            throw parseError(e.getMessage(), lineStart, lineEnd);
+        }
+    }
+
+    private int parseInt(int column) {
+        int from = trimmedStart(column);
+        int to = trimmedEnd(column, from);
+        boolean negative = from < to && this.window.get(from) == '-';
+        int i = negative || (from < to && this.window.get(from) == '+') ? from + 1 : from;
+        if (i == to) {
+            throw new NumberFormatException("Invalid number in column " + column);
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = this.window.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid number in column " + column);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Number out of range in column " + column);
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number out of range in column " + column);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Plain decimals with at most 7 significant digits and 10 fraction digits are exact in float arithmetic, so
+     * one division gives the correctly rounded result of {@link Float#parseFloat}; everything else falls back to it.
+     */
+    private float parseFloat(int column) {
+        int from = trimmedStart(column);
+        int to = trimmedEnd(column, from);
+        boolean negative = from < to && this.window.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        boolean sawDigit = false;
+        for (; i < to; i++) {
+            byte b = this.window.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || digits > 7) {
+                return Float.parseFloat(text(column));
+            }
+            sawDigit = true;
+            mantissa = mantissa * 10 + digit;
+            if (mantissa != 0) {
+                digits++;
+            }
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (!sawDigit || scale > 10 || mantissa > (1 << 24)) {
+            return Float.parseFloat(text(column));
+        }
+        float value = scale > 0 ? (float) mantissa / FLOAT_POWERS_OF_TEN[scale] : (float) mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Numeric columns ignore surrounding whitespace, like the type conversion of {@code FlatFileItemReader}.
+     */
+    private int trimmedStart(int column) {
+        int from = this.fieldStart[column];
+        int to = this.fieldEnd[column];
+        while (from < to && this.window.get(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimmedEnd(int column, int from) {
+        int to = this.fieldEnd[column];
+        while (to > from && this.window.get(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private String text(int column) {
+        int from = this.fieldStart[column];
+        int to = this.fieldEnd[column];
+        if (to - from >= 2 && this.window.get(from) == '"' && this.window.get(to - 1) == '"') {
+            return string(from + 1, to - 1).replace("\"\"", "\"");
+        }
+        return string(from, to);
+    }
+
+    private String string(int from, int to) {
+        var bytes = new byte[to - from];
+        this.window.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private FlatFileParseException parseError(String message, int lineStart, int lineEnd) {
+        return new FlatFileParseException("Parsing error at line: " + this.lineCount + " in resource=[" + this.file
+                + "], input=[" + string(lineStart, lineEnd) + "]: " + message, string(lineStart, lineEnd), this.lineCount);
+    }
+}
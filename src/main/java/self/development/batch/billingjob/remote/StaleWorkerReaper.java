@@ -0,0 +1,94 @@
+package self.development.batch.billingjob.remote;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+
+/**
+ * Runs alongside a remote partitioning manager step and fails worker step executions that are {@code STARTED} but
+ * have not committed a chunk for longer than {@code staleAfter}, i.e. whose worker node died. The manager then sees
+ * the failed partition, the job fails, and a restart hands only the unfinished partitions to the remaining workers,
+ * resuming them from their last commit. Marking the execution bumps its version, so a worker that was merely slow
+ * fails on its next commit instead of continuing alongside the replacement.
+ */
+@Slf4j
+public class StaleWorkerReaper implements StepExecutionListener, AutoCloseable {
+
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final String workerStepName;
+    private final Duration staleAfter;
+    private final ScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> task;
+
+    public StaleWorkerReaper(JobExplorer jobExplorer, JobRepository jobRepository, String workerStepName,
+                             Duration staleAfter) {
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.workerStepName = workerStepName;
+        this.staleAfter = staleAfter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "stale-worker-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public synchronized void beforeStep(StepExecution stepExecution) {
+        long period = Math.max(this.staleAfter.toMillis() / 10, 1000);
+        long jobExecutionId = stepExecution.getJobExecutionId();
+        this.task = this.scheduler.scheduleWithFixedDelay(() -> reap(jobExecutionId), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+        if (this.task != null) {
+            this.task.cancel(false);
+            this.task = null;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+
+    void reap(long jobExecutionId) {
+        try {
+            JobExecution jobExecution = this.jobExplorer.getJobExecution(jobExecutionId);
+            if (jobExecution == null) {
+                return;
+            }
+            LocalDateTime deadline = LocalDateTime.now().minus(this.staleAfter);
+            for (StepExecution worker : jobExecution.getStepExecutions()) {
+                if (worker.getStepName().startsWith(this.workerStepName + ":")
+                        && worker.getStatus() == BatchStatus.STARTED
+                        && worker.getLastUpdated() != null
+                        && worker.getLastUpdated().isBefore(deadline)) {
+                    log.warn("Worker step {} has not reported since {}, marking it failed", worker.getStepName(),
+                            worker.getLastUpdated());
+                    worker.setStatus(BatchStatus.FAILED);
+                    worker.setExitStatus(ExitStatus.FAILED.addExitDescription("Worker stopped reporting progress"));
+                    worker.setEndTime(LocalDateTime.now());
+                    this.jobRepository.update(worker);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Stale worker check failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package self.development.batch.billingjob.remote;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.step.NoSuchStepException;
+import org.springframework.batch.core.step.StepLocator;
+
+/**
+ * Resolves partition requests by step name rather than bean name, so workers can run the same step beans the
+ * local partitioned mode uses.
+ */
+public class WorkerStepLocator implements StepLocator {
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+
+    public WorkerStepLocator(Step... steps) {
+        for (Step step : steps) {
+            this.steps.put(step.getName(), step);
+        }
+    }
+
+    @Override
+    public Collection<String> getStepNames() {
+        return this.steps.keySet();
+    }
+
+    @Override
+    public Step getStep(String stepName) throws NoSuchStepException {
+        Step step = this.steps.get(stepName);
+        if (step == null) {
+            throw new NoSuchStepException("No worker step named " + stepName);
+        }
+        return step;
+    }
+}
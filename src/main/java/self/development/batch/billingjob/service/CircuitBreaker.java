@@ -0,0 +1,65 @@
+package self.development.batch.billingjob.service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+import self.development.batch.billingjob.exception.PricingException;
+
+/**
+ * Minimal closed/open/half-open breaker around the pricing backend: after {@code failureThreshold}
+ * consecutive failures calls are rejected for {@code openDuration}, then a single trial call decides
+ * whether to close again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    public <T> T call(Supplier<T> supplier) {
+        acquirePermission();
+        try {
+            T result = supplier.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            onFailure();
+            throw e;
+        }
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    private synchronized void acquirePermission() {
+        if (this.state == State.OPEN) {
+            if (System.nanoTime() - this.openedAt < this.openNanos) {
+                throw new PricingException("Pricing circuit is open");
+            }
+            this.state = State.HALF_OPEN;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        this.consecutiveFailures = 0;
+        this.state = State.CLOSED;
+    }
+
+    private synchronized void onFailure() {
+        this.consecutiveFailures++;
+        if (this.state == State.HALF_OPEN || this.consecutiveFailures >= this.failureThreshold) {
+            this.state = State.OPEN;
+            this.openedAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package self.development.batch.billingjob.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.retry.support.RetryTemplate;
+import self.development.batch.billingjob.exception.PricingException;
+import self.development.batch.billingjob.model.Tariff;
+
+/**
+ * In-memory tariff snapshot in front of {@link PricingService}. The snapshot is fetched at job start and,
+ * when a refresh interval is configured, refreshed in the background; items are always priced from memory.
+ * Lookups go through a {@link CircuitBreaker} and a failed refresh keeps the last known good tariff, so only
+ * a cold cache with an unreachable backend surfaces a {@link PricingException} to the step.
+ */
+@Slf4j
+public class PricingCache implements JobExecutionListener, AutoCloseable {
+
+    private final PricingService pricingService;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryTemplate retryTemplate;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService refresher;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshes;
+    private final Counter refreshFailures;
+    private final Timer fetchTimer;
+
+    private volatile Tariff tariff;
+    private ScheduledFuture<?> refreshTask;
+
+    public PricingCache(PricingService pricingService, CircuitBreaker circuitBreaker, int maxAttempts,
+                        Duration refreshInterval, MeterRegistry meterRegistry) {
+        this.pricingService = pricingService;
+        this.circuitBreaker = circuitBreaker;
+        this.retryTemplate = RetryTemplate.builder()
+                .maxAttempts(maxAttempts)
+                .retryOn(PricingException.class)
+                .build();
+        this.refreshInterval = refreshInterval;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "pricing-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hits = Counter.builder("billing.pricing.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("billing.pricing.cache").tag("result", "miss").register(meterRegistry);
+        this.refreshes = Counter.builder("billing.pricing.refresh").tag("outcome", "success").register(meterRegistry);
+        this.refreshFailures = Counter.builder("billing.pricing.refresh").tag("outcome", "failure").register(meterRegistry);
+        this.fetchTimer = Timer.builder("billing.pricing.fetch")
+                .description("Tariff fetch latency including retries")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public float getDataPricing() {
+        return getTariff().dataPricing();
+    }
+
+    public Tariff getTariff() {
+        Tariff current = this.tariff;
+        if (current != null) {
+            this.hits.increment();
+            return current;
+        }
+        this.misses.increment();
+        return load();
+    }
+
+    public void refresh() {
+        try {
+            this.tariff = fetch();
+            this.refreshes.increment();
+        } catch (PricingException e) {
+            this.refreshFailures.increment();
+            log.warn("Pricing refresh failed, keeping last known tariff: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        refresh();
+        if (!this.refreshInterval.isZero()) {
+            long period = this.refreshInterval.toMillis();
+            this.refreshTask = this.refresher.scheduleWithFixedDelay(this::refresh, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (this.refreshTask != null) {
+            this.refreshTask.cancel(false);
+            this.refreshTask = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        this.refresher.shutdownNow();
+    }
+
+    private synchronized Tariff load() {
+        if (this.tariff == null) {
+            this.tariff = fetch();
+        }
+        return this.tariff;
+    }
+
+    private Tariff fetch() {
+        return this.fetchTimer.record(() -> this.circuitBreaker.call(() -> this.retryTemplate.execute(context -> new Tariff(
+                this.pricingService.getDataPricing(),
+                this.pricingService.getCallPricing(),
+                this.pricingService.getSmsPricing()))));
+    }
+}
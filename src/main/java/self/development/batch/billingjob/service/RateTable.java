@@ -0,0 +1,215 @@
+package self.development.batch.billingjob.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import self.development.batch.billingjob.model.AccountPlan;
+import self.development.batch.billingjob.model.DataTier;
+import self.development.batch.billingjob.model.TariffPlan;
+
+/**
+ * Tariff plans valid in one billing month, compiled into flat arrays. Plans are numbered densely, data tiers of all
+ * plans share two arrays addressed by per-plan offsets, and accounts map to a plan index either through an array
+ * indexed by {@code accountId - minAccountId} or, when the account range is sparse, through a binary search over
+ * sorted ids. Unassigned accounts are priced with the default plan. Evaluation does no map lookups and allocates
+ * nothing.
+ * <p>
+ * A plan with one data tier from zero and no included minutes or SMS gives exactly the same float total as the
+ * flat {@code data * usage + call * minutes + sms * count} pricing.
+ */
+public final class RateTable {
+
+    private static final int MAX_DENSE_ACCOUNTS = 1 << 24;
+
+    private final int year;
+    private final int month;
+
+    private final int[] tierStart;
+    private final float[] tierFrom;
+    private final float[] tierPrice;
+    private final int[] includedMinutes;
+    private final float[] callPrice;
+    private final int[] includedSms;
+    private final float[] smsPrice;
+    private final int defaultPlan;
+
+    private final int minAccountId;
+    private final int[] densePlans;
+    private final int[] sparseAccounts;
+    private final int[] sparsePlans;
+
+    private RateTable(int year, int month, int[] tierStart, float[] tierFrom, float[] tierPrice,
+                      int[] includedMinutes, float[] callPrice, int[] includedSms, float[] smsPrice, int defaultPlan,
+                      int minAccountId, int[] densePlans, int[] sparseAccounts, int[] sparsePlans) {
+        this.year = year;
+        this.month = month;
+        this.tierStart = tierStart;
+        this.tierFrom = tierFrom;
+        this.tierPrice = tierPrice;
+        this.includedMinutes = includedMinutes;
+        this.callPrice = callPrice;
+        this.includedSms = includedSms;
+        this.smsPrice = smsPrice;
+        this.defaultPlan = defaultPlan;
+        this.minAccountId = minAccountId;
+        this.densePlans = densePlans;
+        this.sparseAccounts = sparseAccounts;
+        this.sparsePlans = sparsePlans;
+    }
+
+    public static RateTable compile(int year, int month, List<TariffPlan> plans, List<AccountPlan> assignments) {
+        LocalDate period = LocalDate.of(year, month, 1);
+        List<TariffPlan> valid = new ArrayList<>();
+        for (TariffPlan plan : plans) {
+            if (isValid(plan.validFrom(), plan.validTo(), period)) {
+                valid.add(plan);
+            }
+        }
+        valid.sort(Comparator.comparingInt(TariffPlan::planId));
+
+        int planCount = valid.size();
+        int[] tierStart = new int[planCount + 1];
+        int[] includedMinutes = new int[planCount];
+        float[] callPrice = new float[planCount];
+        int[] includedSms = new int[planCount];
+        float[] smsPrice = new float[planCount];
+        Map<Integer, Integer> planIndex = new HashMap<>();
+        int defaultPlan = -1;
+        int tiers = 0;
+        for (int p = 0; p < planCount; p++) {
+            TariffPlan plan = valid.get(p);
+            if (plan.dataTiers().isEmpty()) {
+                throw new IllegalStateException("Tariff plan " + plan.planId() + " has no data tier");
+            }
+            planIndex.put(plan.planId(), p);
+            if (plan.defaultPlan() && defaultPlan < 0) {
+                defaultPlan = p;
+            }
+            tierStart[p] = tiers;
+            tiers += plan.dataTiers().size();
+            includedMinutes[p] = plan.includedMinutes();
+            callPrice[p] = plan.callPrice();
+            includedSms[p] = plan.includedSms();
+            smsPrice[p] = plan.smsPrice();
+        }
+        tierStart[planCount] = tiers;
+        if (defaultPlan < 0) {
+            throw new IllegalStateException("No default tariff plan valid for " + year + "-" + month);
+        }
+
+        float[] tierFrom = new float[tiers];
+        float[] tierPrice = new float[tiers];
+        for (int p = 0; p < planCount; p++) {
+            List<DataTier> dataTiers = new ArrayList<>(valid.get(p).dataTiers());
+            dataTiers.sort(Comparator.comparingDouble(DataTier::usageFrom));
+            if (dataTiers.get(0).usageFrom() != 0f) {
+                throw new IllegalStateException("Tariff plan " + valid.get(p).planId() + " has no data tier from 0");
+            }
+            for (int t = 0; t < dataTiers.size(); t++) {
+                tierFrom[tierStart[p] + t] = dataTiers.get(t).usageFrom();
+                tierPrice[tierStart[p] + t] = dataTiers.get(t).price();
+            }
+        }
+
+        Map<Integer, AccountPlan> current = new HashMap<>();
+        for (AccountPlan assignment : assignments) {
+            if (planIndex.containsKey(assignment.planId())
+                    && isValid(assignment.validFrom(), assignment.validTo(), period)) {
+                current.merge(assignment.accountId(), assignment,
+                        (a, b) -> a.validFrom().isAfter(b.validFrom()) ? a : b);
+            }
+        }
+        int[] accounts = current.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] accountPlans = new int[accounts.length];
+        for (int i = 0; i < accounts.length; i++) {
+            accountPlans[i] = planIndex.get(current.get(accounts[i]).planId());
+        }
+
+        int minAccountId = 0;
+        int[] densePlans = null;
+        if (accounts.length > 0) {
+            long range = (long) accounts[accounts.length - 1] - accounts[0] + 1;
+            if (range <= MAX_DENSE_ACCOUNTS && range <= 4L * accounts.length + 1024) {
+                minAccountId = accounts[0];
+                densePlans = new int[(int) range];
+                Arrays.fill(densePlans, defaultPlan);
+                for (int i = 0; i < accounts.length; i++) {
+                    densePlans[accounts[i] - minAccountId] = accountPlans[i];
+                }
+            }
+        }
+        return new RateTable(year, month, tierStart, tierFrom, tierPrice, includedMinutes, callPrice, includedSms,
+                smsPrice, defaultPlan, minAccountId, densePlans, densePlans == null ? accounts : null,
+                densePlans == null ? accountPlans : null);
+    }
+
+    public boolean covers(int year, int month) {
+        return this.year == year && this.month == month;
+    }
+
+    /**
+     * Prices one set of usage values. Included minutes and SMS and the data tiers apply to exactly these values, so
+     * pricing a single record applies the whole monthly allowance to that record; only an account's monthly totals
+     * give its bill.
+     */
+    public float price(int accountId, float dataUsage, int callDuration, int smsCount) {
+        int plan = planOf(accountId);
+        return dataCharge(plan, dataUsage)
+                + Math.max(callDuration - this.includedMinutes[plan], 0) * this.callPrice[plan]
+                + Math.max(smsCount - this.includedSms[plan], 0) * this.smsPrice[plan];
+    }
+
+    /**
+     * Prices the records {@code from} to {@code to} of a chunk held in columns into {@code totals}, bit-for-bit equal
+     * to {@link #price(int, float, int, int)} per record. Plans are resolved into {@code plans} first, then data, call
+     * and SMS charges are added column by column.
+     */
+    public void price(int from, int to, int[] accountIds, float[] dataUsage, int[] callDuration, int[] smsCount,
+                      int[] plans, float[] totals) {
+        for (int i = from; i < to; i++) {
+            plans[i] = planOf(accountIds[i]);
+        }
+        for (int i = from; i < to; i++) {
+            totals[i] = dataCharge(plans[i], dataUsage[i]);
+        }
+        for (int i = from; i < to; i++) {
+            int plan = plans[i];
+            totals[i] += Math.max(callDuration[i] - this.includedMinutes[plan], 0) * this.callPrice[plan];
+        }
+        for (int i = from; i < to; i++) {
+            int plan = plans[i];
+            totals[i] += Math.max(smsCount[i] - this.includedSms[plan], 0) * this.smsPrice[plan];
+        }
+    }
+
+    private float dataCharge(int plan, float dataUsage) {
+        int start = this.tierStart[plan];
+        int end = this.tierStart[plan + 1];
+        float charge = (Math.min(dataUsage, upperBound(start, end)) - this.tierFrom[start]) * this.tierPrice[start];
+        for (int t = start + 1; t < end && dataUsage > this.tierFrom[t]; t++) {
+            charge += (Math.min(dataUsage, upperBound(t, end)) - this.tierFrom[t]) * this.tierPrice[t];
+        }
+        return charge;
+    }
+
+    private float upperBound(int tier, int end) {
+        return tier + 1 < end ? this.tierFrom[tier + 1] : Float.POSITIVE_INFINITY;
+    }
+
+    private int planOf(int accountId) {
+        if (this.densePlans != null) {
+            long slot = (long) accountId - this.minAccountId;
+            return slot >= 0 && slot < this.densePlans.length ? this.densePlans[(int) slot] : this.defaultPlan;
+        }
+        int found = Arrays.binarySearch(this.sparseAccounts, accountId);
+        return found >= 0 ? this.sparsePlans[found] : this.defaultPlan;
+    }
+
+    private static boolean isValid(LocalDate validFrom, LocalDate validTo, LocalDate period) {
+        return !validFrom.isAfter(period) && (validTo == null || validTo.isAfter(period));
+    }
+}
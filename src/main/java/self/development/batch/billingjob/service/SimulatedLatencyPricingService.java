@@ -0,0 +1,45 @@
+package self.development.batch.billingjob.service;
+
+import java.time.Duration;
+import self.development.batch.billingjob.exception.PricingException;
+
+/**
+ * Local stand-in for a remote tariff service: every lookup blocks for a fixed latency and then returns the default
+ * prices, without the random failures of {@link PricingService}. Enabled with
+ * {@code spring.cellular.pricing.simulated-latency}.
+ */
+public class SimulatedLatencyPricingService extends PricingService {
+
+    private final Duration latency;
+
+    public SimulatedLatencyPricingService(Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public float getDataPricing() {
+        simulateLatency();
+        return 0.01f;
+    }
+
+    @Override
+    public float getCallPricing() {
+        simulateLatency();
+        return 0.5f;
+    }
+
+    @Override
+    public float getSmsPricing() {
+        simulateLatency();
+        return 0.1f;
+    }
+
+    private void simulateLatency() {
+        try {
+            Thread.sleep(this.latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PricingException("Interrupted while waiting for pricing");
+        }
+    }
+}
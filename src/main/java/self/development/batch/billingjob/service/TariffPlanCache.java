@@ -0,0 +1,64 @@
+package self.development.batch.billingjob.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParameter;
+
+/**
+ * Compiled {@link RateTable}s per billing month. Tables are built from the tariff tables once per job, eagerly for
+ * the {@code data.year}/{@code data.month} parameters and lazily for any other month found in the input, and are
+ * dropped at the next job start so tariff changes apply without a redeploy.
+ */
+@Slf4j
+public class TariffPlanCache implements JobExecutionListener {
+
+    private final TariffPlanRepository repository;
+    private final Timer compileTimer;
+    private final Map<Integer, RateTable> tables = new ConcurrentHashMap<>();
+
+    private volatile RateTable last;
+
+    public TariffPlanCache(TariffPlanRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.compileTimer = Timer.builder("billing.pricing.compile")
+                .description("Tariff plan load and rate table compilation latency")
+                .register(meterRegistry);
+    }
+
+    public RateTable rateTable(int year, int month) {
+        RateTable table = this.last;
+        if (table != null && table.covers(year, month)) {
+            return table;
+        }
+        table = this.tables.computeIfAbsent(year * 12 + month - 1, key -> compile(year, month));
+        this.last = table;
+        return table;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        this.tables.clear();
+        this.last = null;
+        JobParameter<?> year = jobExecution.getJobParameters().getParameter("data.year");
+        JobParameter<?> month = jobExecution.getJobParameters().getParameter("data.month");
+        if (year != null && month != null) {
+            rateTable(((Number) year.getValue()).intValue(), ((Number) month.getValue()).intValue());
+        }
+    }
+
+    private RateTable compile(int year, int month) {
+        return this.compileTimer.record(() -> {
+            LocalDate period = LocalDate.of(year, month, 1);
+            var plans = this.repository.findPlans(period);
+            var assignments = this.repository.findAssignments(period);
+            log.info("Compiling rate table for {}: {} plans, {} account assignments", period, plans.size(), assignments.size());
+            return RateTable.compile(year, month, plans, assignments);
+        });
+    }
+}
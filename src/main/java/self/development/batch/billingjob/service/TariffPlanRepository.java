@@ -0,0 +1,62 @@
+package self.development.batch.billingjob.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import self.development.batch.billingjob.model.AccountPlan;
+import self.development.batch.billingjob.model.DataTier;
+import self.development.batch.billingjob.model.TariffPlan;
+
+public class TariffPlanRepository {
+
+    private static final String PLANS = "SELECT PLAN_ID, PLAN_NAME, IS_DEFAULT, INCLUDED_MINUTES, CALL_PRICE, "
+            + "INCLUDED_SMS, SMS_PRICE, VALID_FROM, VALID_TO FROM TARIFF_PLAN "
+            + "WHERE VALID_FROM <= ? AND (VALID_TO IS NULL OR VALID_TO > ?)";
+    private static final String TIERS = "SELECT PLAN_ID, USAGE_FROM, PRICE FROM TARIFF_DATA_TIER";
+    private static final String ASSIGNMENTS = "SELECT ACCOUNT_ID, PLAN_ID, VALID_FROM, VALID_TO FROM ACCOUNT_TARIFF_PLAN "
+            + "WHERE VALID_FROM <= ? AND (VALID_TO IS NULL OR VALID_TO > ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TariffPlanRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public List<TariffPlan> findPlans(LocalDate period) {
+        Map<Integer, List<DataTier>> tiers = new HashMap<>();
+        this.jdbcTemplate.query(TIERS, rs -> {
+            tiers.computeIfAbsent(rs.getInt(1), planId -> new ArrayList<>())
+                    .add(new DataTier(rs.getFloat(2), rs.getFloat(3)));
+        });
+        Date date = Date.valueOf(period);
+        return this.jdbcTemplate.query(PLANS, (rs, rowNum) -> new TariffPlan(
+                rs.getInt("PLAN_ID"),
+                rs.getString("PLAN_NAME"),
+                rs.getBoolean("IS_DEFAULT"),
+                tiers.getOrDefault(rs.getInt("PLAN_ID"), List.of()),
+                rs.getInt("INCLUDED_MINUTES"),
+                rs.getFloat("CALL_PRICE"),
+                rs.getInt("INCLUDED_SMS"),
+                rs.getFloat("SMS_PRICE"),
+                rs.getDate("VALID_FROM").toLocalDate(),
+                toLocalDate(rs.getDate("VALID_TO"))), date, date);
+    }
+
+    public List<AccountPlan> findAssignments(LocalDate period) {
+        Date date = Date.valueOf(period);
+        return this.jdbcTemplate.query(ASSIGNMENTS, (rs, rowNum) -> new AccountPlan(
+                rs.getInt("ACCOUNT_ID"),
+                rs.getInt("PLAN_ID"),
+                rs.getDate("VALID_FROM").toLocalDate(),
+                toLocalDate(rs.getDate("VALID_TO"))), date, date);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+}
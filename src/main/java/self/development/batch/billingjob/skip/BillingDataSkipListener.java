@@ -1,33 +1,93 @@
 package self.development.batch.billingjob.skip;
 
-import java.io.IOException;
-import java.nio.file.Files;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.batch.item.file.FlatFileParseException;
+import self.development.batch.billingjob.metrics.BillingMetricsListener;
 import self.development.batch.billingjob.model.BillingData;
 
-public class BillingDataSkipListener implements SkipListener<BillingData, BillingData> {
+/**
+ * Records skipped input lines as {@code lineNumber|rawLine} through a shared {@link SkipRecordWriter} and counts
+ * skips per step and reason in the {@code billing.skip} metric. One instance serves every step of a job execution,
+ * including concurrent partitions: the file is opened by the first step to start and closed by the last to finish,
+ * and it is flushed at each chunk and step boundary.
+ */
+public class BillingDataSkipListener implements SkipListener<BillingData, Object>, ChunkListener, StepExecutionListener {
 
     Path skippedItemsFile;
 
-    public BillingDataSkipListener(String skippedItemsFile) {
-        this.skippedItemsFile = Paths.get(skippedItemsFile);
+    private final int queueCapacity;
+    private final MeterRegistry meterRegistry;
+
+    private SkipRecordWriter writer;
+    private int activeSteps;
+    private volatile boolean dirty;
+
+    public BillingDataSkipListener(String skippedItemsFile, int queueCapacity, MeterRegistry meterRegistry) {
+        this.skippedItemsFile = skippedItemsFile != null ? Paths.get(skippedItemsFile) : null;
+        this.queueCapacity = queueCapacity;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public synchronized void beforeStep(StepExecution stepExecution) {
+        if (this.activeSteps++ == 0 && this.skippedItemsFile != null) {
+            this.writer = new SkipRecordWriter(this.skippedItemsFile, this.queueCapacity);
+        }
+    }
+
+    @Override
+    public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+        if (--this.activeSteps == 0 && this.writer != null) {
+            this.writer.close();
+            this.writer = null;
+        } else {
+            flush();
+        }
+        return null;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (this.dirty) {
+            flush();
+        }
     }
 
     @Override
     public void onSkipInRead(Throwable throwable) {
-        if (throwable instanceof FlatFileParseException exception) {
+        skipCounter(throwable).increment();
+        if (throwable instanceof FlatFileParseException exception && this.writer != null) {
             String rawLine = exception.getInput();
             int lineNumber = exception.getLineNumber();
-            String skippedLine = lineNumber + "|" + rawLine + System.lineSeparator();
-            try {
-                Files.writeString(this.skippedItemsFile, skippedLine, StandardOpenOption.APPEND, StandardOpenOption.CREATE);
-            } catch (IOException e) {
-                throw new RuntimeException("Unable to write skipped item " + skippedLine);
-            }
+            this.writer.write(lineNumber + "|" + rawLine + System.lineSeparator());
+            this.dirty = true;
         }
     }
-}
\ No newline at end of file
+
+    private synchronized void flush() {
+        if (this.writer != null) {
+            this.dirty = false;
+            this.writer.flush();
+        }
+    }
+
+    private Counter skipCounter(Throwable throwable) {
+        var cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+        var context = StepSynchronizationManager.getContext();
+        return Counter.builder("billing.skip")
+                .description("Items skipped by reason")
+                .tag("step", context != null ? BillingMetricsListener.stepTag(context.getStepName()) : "unknown")
+                .tag("reason", cause.getClass().getSimpleName())
+                .register(this.meterRegistry);
+    }
+}
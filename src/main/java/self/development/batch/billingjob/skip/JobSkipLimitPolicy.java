@@ -0,0 +1,31 @@
+package self.development.batch.billingjob.skip;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+/**
+ * Skips {@link FlatFileParseException}s up to a limit shared by every step that uses this instance, so the limit
+ * holds for the whole input file even when it is ingested by several partitions at once.
+ */
+public class JobSkipLimitPolicy implements SkipPolicy {
+
+    private final int skipLimit;
+    private final AtomicInteger skipCount = new AtomicInteger();
+
+    public JobSkipLimitPolicy(int skipLimit) {
+        this.skipLimit = skipLimit;
+    }
+
+    @Override
+    public boolean shouldSkip(Throwable t, long skipCount) throws SkipLimitExceededException {
+        if (!(t instanceof FlatFileParseException)) {
+            return false;
+        }
+        if (this.skipCount.incrementAndGet() > this.skipLimit) {
+            throw new SkipLimitExceededException(this.skipLimit, t);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,163 @@
+package self.development.batch.billingjob.skip;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends skip records to one file from a background thread. Producers only enqueue into a bounded queue (waiting
+ * while it is full); the writer thread keeps a single buffered channel open and flushes it on request and on close.
+ * If the writer thread stops, because it failed or was closed, producers fail instead of waiting on it: queued
+ * flushes complete exceptionally and later calls throw.
+ */
+public class SkipRecordWriter implements AutoCloseable {
+
+    private static final Object CLOSE = new Object();
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final Path file;
+    private final BlockingQueue<Object> queue;
+    private final Thread thread;
+
+    private volatile Throwable failure;
+    private volatile boolean stopped;
+
+    public SkipRecordWriter(Path file, int queueCapacity) {
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.thread = new Thread(this::drain, "skip-record-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void write(String record) {
+        checkFailure();
+        put(record);
+    }
+
+    public void flush() {
+        var flushed = new CompletableFuture<Void>();
+        put(flushed);
+        await(flushed);
+        checkFailure();
+    }
+
+    @Override
+    public void close() {
+        if (this.stopped) {
+            checkFailure();
+            return;
+        }
+        flush();
+        offer(CLOSE);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16)) {
+            while (true) {
+                Object next = this.queue.take();
+                if (next == CLOSE) {
+                    return;
+                }
+                if (next instanceof CompletableFuture<?> flushed) {
+                    writer.flush();
+                    flushed.complete(null);
+                } else {
+                    writer.write((String) next);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            this.failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failure = e;
+        } finally {
+            // Set before the queue is emptied, so a producer that enqueues afterwards sees it and fails its own flush
+            this.stopped = true;
+            failPending();
+        }
+    }
+
+    private void put(Object element) {
+        offer(element);
+        if (this.stopped) {
+            failPending();
+            checkStopped();
+        }
+    }
+
+    private void offer(Object element) {
+        try {
+            while (!this.queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkStopped();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing skip record", e);
+        }
+    }
+
+    private void failPending() {
+        Object pending;
+        while ((pending = this.queue.poll()) != null) {
+            if (pending instanceof CompletableFuture<?> flushed) {
+                flushed.completeExceptionally(stoppedException());
+            }
+        }
+    }
+
+    private static void await(CompletableFuture<Void> flushed) {
+        try {
+            flushed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while flushing skip records", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void checkStopped() {
+        if (this.stopped) {
+            throw stoppedException();
+        }
+    }
+
+    private void checkFailure() {
+        if (this.failure != null) {
+            throw stoppedException();
+        }
+    }
+
+    private RuntimeException stoppedException() {
+        Throwable cause = this.failure;
+        if (cause instanceof IOException e) {
+            return new UncheckedIOException("Unable to write skipped items to " + this.file, e);
+        }
+        if (cause != null) {
+            return new IllegalStateException("Unable to write skipped items to " + this.file, cause);
+        }
+        return new IllegalStateException("Skip record writer for " + this.file + " is closed");
+    }
+}
@@ -0,0 +1,41 @@
+package self.development.batch.billingjob.task;
+
+import javax.sql.DataSource;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Last step of a delta report run: releases the accounts this job instance re-priced and records the month as
+ * reported. Only rows still claimed by this instance are deleted; accounts that ingestion marked again while the run
+ * was pricing them have lost the claim and stay for the next run.
+ */
+public class DeltaCompletionTasklet implements Tasklet {
+
+    private static final String RELEASE_CLAIMED = "DELETE FROM BILLING_CHANGED_ACCOUNT "
+            + "WHERE DATA_YEAR = ? AND DATA_MONTH = ? AND CLAIMED_BY = ?";
+    private static final String MARK_REPORTED = "INSERT INTO BILLING_REPORT_PERIOD (DATA_YEAR, DATA_MONTH, JOB_INSTANCE_ID, UPDATED_AT) "
+            + "VALUES (?, ?, ?, now()) ON CONFLICT (DATA_YEAR, DATA_MONTH) "
+            + "DO UPDATE SET JOB_INSTANCE_ID = EXCLUDED.JOB_INSTANCE_ID, UPDATED_AT = EXCLUDED.UPDATED_AT";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeltaCompletionTasklet(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        var stepExecution = contribution.getStepExecution();
+        var parameters = stepExecution.getJobParameters();
+        int year = ((Number) parameters.getParameter("data.year").getValue()).intValue();
+        int month = ((Number) parameters.getParameter("data.month").getValue()).intValue();
+        long instanceId = stepExecution.getJobExecution().getJobInstance().getInstanceId();
+
+        contribution.incrementWriteCount(this.jdbcTemplate.update(RELEASE_CLAIMED, year, month, instanceId));
+        this.jdbcTemplate.update(MARK_REPORTED, year, month, instanceId);
+        return RepeatStatus.FINISHED;
+    }
+}
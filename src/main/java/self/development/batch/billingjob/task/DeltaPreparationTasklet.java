@@ -0,0 +1,56 @@
+package self.development.batch.billingjob.task;
+
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * First step of a delta report run. Claims the month's changed accounts for this job instance and deletes their
+ * rows from {@code BILLING_REPORT}, so the following step can re-price exactly those accounts. A month that was
+ * never reported is seeded with all of its accounts first. Claims left by an earlier, unfinished run are taken
+ * over, so only one delta run per month may run at a time. Ingestion may run concurrently: it releases the claim
+ * of every account it changes (see {@code ChangedAccountItemWriter}), and the next run re-prices them.
+ */
+@Slf4j
+public class DeltaPreparationTasklet implements Tasklet {
+
+    private static final String SEED_UNREPORTED_MONTH = "INSERT INTO BILLING_CHANGED_ACCOUNT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID) "
+            + "SELECT DISTINCT DATA_YEAR, DATA_MONTH, ACCOUNT_ID FROM BILLING_DATA WHERE DATA_YEAR = ? AND DATA_MONTH = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM BILLING_REPORT_PERIOD WHERE DATA_YEAR = ? AND DATA_MONTH = ?) "
+            + "ON CONFLICT DO NOTHING";
+    private static final String CLAIM = "UPDATE BILLING_CHANGED_ACCOUNT SET CLAIMED_BY = ? "
+            + "WHERE DATA_YEAR = ? AND DATA_MONTH = ? AND CLAIMED_BY IS DISTINCT FROM ?";
+    private static final String DELETE_CLAIMED_REPORTS = "DELETE FROM BILLING_REPORT r USING BILLING_CHANGED_ACCOUNT c "
+            + "WHERE r.DATA_YEAR = ? AND r.DATA_MONTH = ? AND c.DATA_YEAR = r.DATA_YEAR AND c.DATA_MONTH = r.DATA_MONTH "
+            + "AND c.ACCOUNT_ID = r.ACCOUNT_ID AND c.CLAIMED_BY = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeltaPreparationTasklet(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        var stepExecution = contribution.getStepExecution();
+        var parameters = stepExecution.getJobParameters();
+        if (parameters.getParameter("data.year") == null || parameters.getParameter("data.month") == null) {
+            throw new IllegalArgumentException("report.mode=delta requires data.year and data.month");
+        }
+        int year = ((Number) parameters.getParameter("data.year").getValue()).intValue();
+        int month = ((Number) parameters.getParameter("data.month").getValue()).intValue();
+        long instanceId = stepExecution.getJobExecution().getJobInstance().getInstanceId();
+
+        int seeded = this.jdbcTemplate.update(SEED_UNREPORTED_MONTH, year, month, year, month);
+        int claimed = this.jdbcTemplate.update(CLAIM, instanceId, year, month, instanceId);
+        int deleted = this.jdbcTemplate.update(DELETE_CLAIMED_REPORTS, year, month, instanceId);
+        log.info("Delta run for {}-{}: {} accounts seeded, {} newly claimed, {} report rows removed",
+                year, month, seeded, claimed, deleted);
+        contribution.incrementWriteCount(claimed);
+        return RepeatStatus.FINISHED;
+    }
+}
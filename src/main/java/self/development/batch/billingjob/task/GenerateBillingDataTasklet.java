@@ -0,0 +1,94 @@
+package self.development.batch.billingjob.task;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import self.development.batch.billingjob.generator.BillingDataGenerator;
+
+/**
+ * Writes a synthetic input file of {@code generator.rows} lines (default 1,000,000) for {@code data.year}/
+ * {@code data.month} (default 2023/11) to {@code output.file}, gzip or zstd compressed when the name ends with
+ * {@code .gz} or {@code .zst}. {@code generator.seed} (default 42) selects the data. The account count, skew and
+ * fault ratio come from the configuration and can be overridden with {@code generator.accounts},
+ * {@code generator.skew} and {@code generator.fault-ratio}. The file is written next to the target and moved over it,
+ * so a failed run leaves no partial input behind.
+ */
+@Slf4j
+public class GenerateBillingDataTasklet implements Tasklet {
+
+    private final int accounts;
+    private final double skew;
+    private final double faultRatio;
+
+    public GenerateBillingDataTasklet(int accounts, double skew, double faultRatio) {
+        this.accounts = accounts;
+        this.skew = skew;
+        this.faultRatio = faultRatio;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        var parameters = contribution.getStepExecution().getJobParameters();
+        var outputFile = Paths.get(parameters.getString("output.file", "staging/telecom_data_generated.csv"));
+        long rows = number(parameters, "generator.rows", 1_000_000L).longValue();
+        long seed = number(parameters, "generator.seed", 42L).longValue();
+        int year = number(parameters, "data.year", 2023).intValue();
+        int month = number(parameters, "data.month", 11).intValue();
+        int accounts = number(parameters, "generator.accounts", this.accounts).intValue();
+        double skew = number(parameters, "generator.skew", this.skew).doubleValue();
+        double faultRatio = number(parameters, "generator.fault-ratio", this.faultRatio).doubleValue();
+
+        var generator = new BillingDataGenerator(seed, accounts, skew, faultRatio, year, month);
+        var parent = outputFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        var generated = outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
+        long start = System.nanoTime();
+        try (Writer writer = new OutputStreamWriter(encoding(outputFile,
+                new BufferedOutputStream(Files.newOutputStream(generated), 1 << 20)), StandardCharsets.UTF_8)) {
+            generator.write(writer, rows);
+        }
+        Files.move(generated, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Generated {} lines ({} malformed) over {} accounts with skew {} into {} in {} ms", rows,
+                generator.faults(), accounts, skew, outputFile, millis);
+        contribution.incrementWriteCount(rows);
+        return RepeatStatus.FINISHED;
+    }
+
+    private static OutputStream encoding(Path file, OutputStream out) throws IOException {
+        var name = file.getFileName().toString();
+        if (name.endsWith(".gz")) {
+            return new GZIPOutputStream(out, 1 << 16);
+        }
+        if (name.endsWith(".zst")) {
+            return new ZstdOutputStream(out);
+        }
+        return out;
+    }
+
+    private static Number number(JobParameters parameters, String key, Number defaultValue) {
+        var parameter = parameters.getParameter(key);
+        if (parameter == null) {
+            return defaultValue;
+        }
+        var value = parameter.getValue();
+        return value instanceof Number number ? number : Double.valueOf(value.toString());
+    }
+}
@@ -0,0 +1,99 @@
+package self.development.batch.billingjob.task;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.io.OutputFile;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.writer.ReportSpillCodec;
+import self.development.batch.billingjob.writer.ReportingDataWriteSupport;
+
+/**
+ * Converts the spill file left at {@code output.file} by the report step into a Parquet file at the same path. The
+ * Parquet file is written next to it and moved over the spill file, so a failed conversion can simply be re-run; a
+ * file that already starts with the Parquet magic has been converted and is left alone.
+ */
+@Slf4j
+public class ParquetReportTasklet implements Tasklet {
+
+    private static final byte[] PARQUET_MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    private final CompressionCodecName codec;
+
+    public ParquetReportTasklet(CompressionCodecName codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        var parameters = contribution.getStepExecution().getJobParameters();
+        var outputFile = Paths.get(parameters.getString("output.file"));
+        if (isParquet(outputFile)) {
+            log.info("Report {} is already in Parquet format", outputFile);
+            return RepeatStatus.FINISHED;
+        }
+
+        var converted = outputFile.resolveSibling(outputFile.getFileName() + ".parquet.tmp");
+        long records = 0;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(outputFile), 64 * 1024));
+             var writer = new Builder(new LocalOutputFile(converted))
+                     .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                     .withCompressionCodec(this.codec)
+                     .build()) {
+            ReportingData item;
+            while ((item = ReportSpillCodec.read(in)) != null) {
+                writer.write(item);
+                records++;
+            }
+        }
+        Files.move(converted, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        contribution.incrementWriteCount(records);
+        return RepeatStatus.FINISHED;
+    }
+
+    private static boolean isParquet(Path file) throws IOException {
+        try (var in = Files.newInputStream(file)) {
+            return Arrays.equals(in.readNBytes(PARQUET_MAGIC.length), PARQUET_MAGIC);
+        }
+    }
+
+    private static final class Builder extends ParquetWriter.Builder<ReportingData, Builder> {
+
+        private Builder(OutputFile file) {
+            super(file);
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<ReportingData> getWriteSupport(Configuration configuration) {
+            return new ReportingDataWriteSupport();
+        }
+
+        @Override
+        protected WriteSupport<ReportingData> getWriteSupport(ParquetConfiguration configuration) {
+            return new ReportingDataWriteSupport();
+        }
+    }
+}
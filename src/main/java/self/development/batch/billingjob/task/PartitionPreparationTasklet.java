@@ -0,0 +1,74 @@
+package self.development.batch.billingjob.task;
+
+import java.time.YearMonth;
+import java.util.TreeSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import self.development.batch.billingjob.partition.BillingDataPartitionManager;
+
+/**
+ * Makes sure the {@code data.year}/{@code data.month} of the run has its own {@code BILLING_DATA} partition before
+ * anything is ingested, and moves every other month that collected rows in the default partition into a partition of
+ * its own. Ingestion then routes records to their month's partition and the report reads only that partition.
+ * <p>
+ * Months expired by retention (before its recorded cutoff, or whose detached table is archived) never get a partition
+ * back from stray rows: their default-partition rows and derived rows are deleted instead. Billing an expired month
+ * fails, unless {@code partition.restore=true} asks to restore the run's month, re-attaching its archived table.
+ */
+@Slf4j
+public class PartitionPreparationTasklet implements Tasklet {
+
+    public static final String RESTORE = "partition.restore";
+
+    private final BillingDataPartitionManager partitionManager;
+
+    public PartitionPreparationTasklet(BillingDataPartitionManager partitionManager) {
+        this.partitionManager = partitionManager;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        var parameters = contribution.getStepExecution().getJobParameters();
+        var months = new TreeSet<>(this.partitionManager.defaultPartitionMonths());
+        var year = parameters.getParameter("data.year");
+        var month = parameters.getParameter("data.month");
+        YearMonth runMonth = null;
+        if (year != null && month != null) {
+            int dataYear = ((Number) year.getValue()).intValue();
+            int dataMonth = ((Number) month.getValue()).intValue();
+            if (BillingDataPartitionManager.isPartitioned(dataYear, dataMonth)) {
+                runMonth = YearMonth.of(dataYear, dataMonth);
+                months.add(runMonth);
+            }
+        }
+        boolean restore = Boolean.parseBoolean(parameters.getString(RESTORE));
+        YearMonth cutoff = this.partitionManager.retentionCutoff();
+
+        int prepared = 0;
+        int purged = 0;
+        for (YearMonth period : months) {
+            boolean expired = (cutoff != null && period.isBefore(cutoff)) || this.partitionManager.isArchived(period);
+            boolean restoring = restore && period.equals(runMonth);
+            if (expired && !restoring) {
+                if (period.equals(runMonth)) {
+                    throw new IllegalStateException("BILLING_DATA " + period + " was expired by retention; pass "
+                            + RESTORE + "=true to restore it");
+                }
+                purged += this.partitionManager.purgeMonth(period);
+                continue;
+            }
+            if (this.partitionManager.ensurePartition(period, restoring)) {
+                prepared++;
+            }
+        }
+        if (purged > 0) {
+            log.warn("{} default partition rows of months expired by retention deleted", purged);
+        }
+        log.info("{} of {} BILLING_DATA partitions created or restored", prepared, months.size());
+        contribution.incrementWriteCount(prepared);
+        return RepeatStatus.FINISHED;
+    }
+}
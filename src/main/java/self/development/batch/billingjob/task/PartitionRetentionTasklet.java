@@ -0,0 +1,70 @@
+package self.development.batch.billingjob.task;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import self.development.batch.billingjob.partition.BillingDataPartitionManager;
+
+/**
+ * Expires {@code BILLING_DATA} months older than the retention cutoff: the {@code retention.before} job parameter
+ * ({@code yyyy-MM}) or, without it, the current month minus the retention period. Expired partitions are detached
+ * (kept as standalone tables) or dropped, expired rows left in the default partition are deleted, and so are the
+ * usage totals, report rows and change marks of expired months. The cutoff is recorded, so partition preparation
+ * never gives an expired month a partition again. A retention period of zero or less keeps everything unless a
+ * cutoff is passed.
+ */
+@Slf4j
+public class PartitionRetentionTasklet implements Tasklet {
+
+    public enum Action {
+        DETACH, DROP
+    }
+
+    private final BillingDataPartitionManager partitionManager;
+    private final int retentionMonths;
+    private final Action action;
+    private final Clock clock;
+
+    public PartitionRetentionTasklet(BillingDataPartitionManager partitionManager, int retentionMonths, String action,
+                                     Clock clock) {
+        this.partitionManager = partitionManager;
+        this.retentionMonths = retentionMonths;
+        this.action = Action.valueOf(action.toUpperCase(Locale.ROOT));
+        this.clock = clock;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        String before = contribution.getStepExecution().getJobParameters().getString("retention.before");
+        YearMonth cutoff;
+        if (before != null) {
+            cutoff = YearMonth.parse(before);
+        } else if (this.retentionMonths > 0) {
+            cutoff = YearMonth.now(this.clock).minusMonths(this.retentionMonths);
+        } else {
+            log.info("No retention period configured, BILLING_DATA is kept");
+            return RepeatStatus.FINISHED;
+        }
+
+        var expired = this.partitionManager.partitionsBefore(cutoff);
+        for (YearMonth month : expired) {
+            if (this.action == Action.DROP) {
+                this.partitionManager.drop(month);
+            } else {
+                this.partitionManager.detach(month);
+            }
+        }
+        int purged = this.partitionManager.purgeDefaultBefore(cutoff);
+        int derived = this.partitionManager.purgeDerivedBefore(cutoff);
+        this.partitionManager.recordRetentionCutoff(cutoff);
+        log.info("Retention before {}: {} partitions {}, {} default partition rows and {} derived rows deleted", cutoff,
+                expired.size(), this.action == Action.DROP ? "dropped" : "detached", purged, derived);
+        contribution.incrementWriteCount(expired.size());
+        return RepeatStatus.FINISHED;
+    }
+}
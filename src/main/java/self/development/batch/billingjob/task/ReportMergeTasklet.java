@@ -0,0 +1,89 @@
+package self.development.batch.billingjob.task;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import self.development.batch.billingjob.partition.AccountRangePartitioner;
+import self.development.batch.billingjob.writer.ReportSortOrder;
+
+/**
+ * Concatenates the part files of this run's partitions, in partition order, into {@code output.file}. The report is
+ * written next to the output file and moved over it, and its size is committed to the step execution context as
+ * {@link #MERGED_SIZE} before the parts are deleted in a second iteration. A restart that finds only some of the parts
+ * therefore only deletes the rest when that marker is present, and fails otherwise, since a missing part would drop its
+ * account range from the report. Stray {@code <file>.partN} files of earlier runs are deleted, never merged. With a
+ * {@code report.sort} order the partitions leave sorted runs instead, which the sort merge step merges.
+ */
+@Slf4j
+public class ReportMergeTasklet implements Tasklet {
+
+    public static final String MERGED_SIZE = "report.merged.size";
+
+    private final JobExplorer jobExplorer;
+
+    public ReportMergeTasklet(JobExplorer jobExplorer) {
+        this.jobExplorer = jobExplorer;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        var stepExecution = contribution.getStepExecution();
+        var output = stepExecution.getJobParameters().getString("output.file");
+        var outputFile = Paths.get(output);
+        if (ReportSortOrder.of(stepExecution.getJobParameters().getString("report.sort")) != ReportSortOrder.NONE) {
+            log.info("Partitions of {} are merged by the sort merge step", outputFile);
+            return RepeatStatus.FINISHED;
+        }
+        List<Path> parts = AccountRangePartitioner.partFiles(stepExecution, output, this.jobExplorer);
+        if (parts.isEmpty()) {
+            throw new IllegalStateException("No partitions of " + outputFile + " found in this job instance");
+        }
+
+        var context = stepExecution.getExecutionContext();
+        if (!context.containsKey(MERGED_SIZE)) {
+            List<Path> missing = parts.stream().filter(part -> !Files.exists(part)).toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("Parts " + missing + " of " + outputFile + " are missing");
+            }
+            var merged = outputFile.resolveSibling(outputFile.getFileName() + ".merged.tmp");
+            try (var out = FileChannel.open(merged, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Path part : parts) {
+                    try (var in = FileChannel.open(part, StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = in.size();
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+            }
+            Files.move(merged, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // Committed with this iteration, so the parts are only deleted once the merge is recorded
+            context.putLong(MERGED_SIZE, Files.size(outputFile));
+            return RepeatStatus.CONTINUABLE;
+        }
+        if (Files.notExists(outputFile) || Files.size(outputFile) != context.getLong(MERGED_SIZE)) {
+            throw new IllegalStateException("Merged report " + outputFile
+                    + " was changed before its parts were deleted");
+        }
+        for (Path part : parts) {
+            Files.deleteIfExists(part);
+        }
+        for (Path stray : AccountRangePartitioner.strayPartFiles(outputFile, parts)) {
+            log.warn("Deleting {}, which is not a part of this run", stray);
+            Files.delete(stray);
+        }
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,332 @@
+package self.development.batch.billingjob.task;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.partition.AccountRangePartitioner;
+import self.development.batch.billingjob.writer.ReportFormat;
+import self.development.batch.billingjob.writer.ReportSortOrder;
+import self.development.batch.billingjob.writer.ReportSpillCodec;
+import self.development.batch.billingjob.writer.ReportingDataLineAggregator;
+import self.development.batch.billingjob.writer.SortingReportSpillWriter;
+
+/**
+ * Merges the sorted runs left by {@link SortingReportSpillWriter} into the report at {@code output.file}, in the
+ * {@code report.format} encoding (a spill file for {@code parquet}, converted by the next step). In partitioned modes
+ * the spill directories of this run's partitions ({@code <part file>.sort}) are merged together. A tail that never
+ * became a run is sorted in memory first; it is below the memory limit by construction.
+ * <p>
+ * At most {@code fanIn} runs are open at once. With more runs, groups of {@code fanIn} are first merged into larger
+ * runs in {@code <file>.merge}, pass after pass, so file handles and read buffers stay bounded. The report is written
+ * next to the output file and moved over it, so a failed merge can simply be re-run. Its size is committed to the step
+ * execution context as {@link #MERGED_SIZE} before the spill directories are deleted in a second iteration; missing
+ * spill directories are only accepted when that marker is present.
+ */
+@Slf4j
+public class ReportSortMergeTasklet implements Tasklet {
+
+    public static final String MERGED_SIZE = "report.sort.merged.size";
+
+    private static final String MERGE_SUFFIX = ".merge";
+
+    private final JobExplorer jobExplorer;
+    private final int zstdLevel;
+    private final int fanIn;
+
+    public ReportSortMergeTasklet(JobExplorer jobExplorer, int zstdLevel, int fanIn) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("The merge fan-in must be at least 2, got " + fanIn);
+        }
+        this.jobExplorer = jobExplorer;
+        this.zstdLevel = zstdLevel;
+        this.fanIn = fanIn;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        var stepExecution = contribution.getStepExecution();
+        var parameters = stepExecution.getJobParameters();
+        var output = parameters.getString("output.file");
+        var outputFile = Paths.get(output);
+        var order = ReportSortOrder.of(parameters.getString("report.sort"));
+        var format = ReportFormat.of(parameters.getString("report.format"));
+
+        List<Path> parts = AccountRangePartitioner.partFiles(stepExecution, output, this.jobExplorer);
+        List<Path> directories = parts.isEmpty()
+                ? List.of(SortingReportSpillWriter.spillDirectory(outputFile))
+                : parts.stream().map(SortingReportSpillWriter::spillDirectory).toList();
+        deleteStrayDirectories(outputFile, directories);
+        var context = stepExecution.getExecutionContext();
+        if (context.containsKey(MERGED_SIZE)) {
+            if (Files.notExists(outputFile) || Files.size(outputFile) != context.getLong(MERGED_SIZE)) {
+                throw new IllegalStateException("Merged report " + outputFile
+                        + " was changed before its sorted runs were deleted");
+            }
+            for (Path directory : directories) {
+                deleteDirectory(directory);
+            }
+            return RepeatStatus.FINISHED;
+        }
+        List<Path> missing = directories.stream().filter(directory -> !Files.isDirectory(directory)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Sorted runs " + missing + " of " + outputFile + " are missing");
+        }
+
+        List<Path> runs = new ArrayList<>();
+        for (Path directory : directories) {
+            runs.addAll(sealTails(directory, order));
+        }
+        var work = outputFile.resolveSibling(outputFile.getFileName() + MERGE_SUFFIX);
+        deleteDirectory(work);
+        Files.createDirectories(work);
+        int initialRuns = runs.size();
+        int passes = 0;
+        while (runs.size() > this.fanIn) {
+            runs = mergePass(runs, order.comparator(), work, passes++);
+        }
+
+        var merged = outputFile.resolveSibling(outputFile.getFileName() + ".sorted.tmp");
+        long records;
+        try (var out = ReportOutput.of(format, Files.newOutputStream(merged), this.zstdLevel)) {
+            records = merge(runs, order.comparator(), out);
+        }
+        Files.move(merged, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteDirectory(work);
+        log.info("Merged {} sorted runs into {} in {} intermediate passes ({} records)", initialRuns, outputFile, passes,
+                records);
+        contribution.incrementWriteCount(records);
+        // Committed with this iteration, so the spill directories are only deleted once the merge is recorded
+        context.putLong(MERGED_SIZE, Files.size(outputFile));
+        return RepeatStatus.CONTINUABLE;
+    }
+
+    /**
+     * Merges every group of {@code fanIn} runs into one run of the work directory. Intermediate runs of the previous
+     * pass are deleted once merged; the writer's runs stay until the report is in place.
+     */
+    private List<Path> mergePass(List<Path> runs, Comparator<ReportingData> comparator, Path work, int pass)
+            throws IOException {
+        List<Path> next = new ArrayList<>();
+        for (int from = 0; from < runs.size(); from += this.fanIn) {
+            List<Path> group = runs.subList(from, Math.min(from + this.fanIn, runs.size()));
+            if (group.size() == 1) {
+                next.add(group.get(0));
+                continue;
+            }
+            var merged = work.resolve("pass-" + pass + "-" + next.size());
+            try (var out = ReportOutput.spill(Files.newOutputStream(merged))) {
+                merge(group, comparator, out);
+            }
+            for (Path run : group) {
+                if (run.startsWith(work)) {
+                    Files.delete(run);
+                }
+            }
+            next.add(merged);
+        }
+        return next;
+    }
+
+    /**
+     * Turns the tails of a spill directory into runs and returns all its runs.
+     */
+    private static List<Path> sealTails(Path directory, ReportSortOrder order) throws IOException {
+        for (Path tail : numbered(directory, SortingReportSpillWriter.TAIL_PREFIX)) {
+            var run = directory.resolve(SortingReportSpillWriter.RUN_PREFIX + runNumber(tail, SortingReportSpillWriter.TAIL_PREFIX));
+            if (!Files.exists(run) && Files.size(tail) > 0) {
+                List<ReportingData> items = new ArrayList<>();
+                try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(tail), 64 * 1024))) {
+                    ReportingData item;
+                    while ((item = ReportSpillCodec.read(in)) != null) {
+                        items.add(item);
+                    }
+                }
+                items.sort(order.comparator());
+                SortingReportSpillWriter.writeRun(directory, runNumber(tail, SortingReportSpillWriter.TAIL_PREFIX), items);
+            }
+            Files.delete(tail);
+        }
+        return numbered(directory, SortingReportSpillWriter.RUN_PREFIX);
+    }
+
+    private static long merge(List<Path> runs, Comparator<ReportingData> comparator, ReportOutput out)
+            throws IOException {
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> comparator.compare(a.current, b.current));
+        long records = 0;
+        try {
+            for (Path run : runs) {
+                var cursor = new RunCursor(run);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                out.write(cursor.current);
+                records++;
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+        } finally {
+            for (RunCursor cursor : queue) {
+                cursor.close();
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Deletes spill directories of the output file that do not belong to this run, e.g. of an abandoned run with a
+     * larger grid.
+     */
+    private static void deleteStrayDirectories(Path outputFile, List<Path> directories) throws IOException {
+        var name = outputFile.getFileName().toString();
+        var partPrefix = name + AccountRangePartitioner.PART_SUFFIX;
+        var known = directories.stream().map(directory -> directory.toAbsolutePath().normalize()).toList();
+        List<Path> strays;
+        try (Stream<Path> files = Files.list(outputFile.toAbsolutePath().getParent())) {
+            strays = files
+                    .filter(Files::isDirectory)
+                    .filter(file -> {
+                        var fileName = file.getFileName().toString();
+                        if (!fileName.endsWith(SortingReportSpillWriter.SPILL_SUFFIX)) {
+                            return false;
+                        }
+                        var base = fileName.substring(0, fileName.length() - SortingReportSpillWriter.SPILL_SUFFIX.length());
+                        return base.equals(name)
+                                || base.startsWith(partPrefix) && base.substring(partPrefix.length()).matches("\\d+");
+                    })
+                    .filter(file -> !known.contains(file.toAbsolutePath().normalize()))
+                    .toList();
+        }
+        for (Path stray : strays) {
+            log.warn("Deleting {}, which is not a spill directory of this run", stray);
+            deleteDirectory(stray);
+        }
+    }
+
+    private static List<Path> numbered(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .filter(file -> file.getFileName().toString().substring(prefix.length()).matches("\\d+"))
+                    .sorted(Comparator.comparingInt(file -> runNumber(file, prefix)))
+                    .toList();
+        }
+    }
+
+    private static int runNumber(Path file, String prefix) {
+        return Integer.parseInt(file.getFileName().toString().substring(prefix.length()));
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static final class RunCursor implements AutoCloseable {
+
+        private final DataInputStream in;
+        private ReportingData current;
+
+        private RunCursor(Path run) throws IOException {
+            // Small buffers, as up to fanIn runs are open at once
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 16 * 1024));
+        }
+
+        private boolean advance() throws IOException {
+            this.current = ReportSpillCodec.read(this.in);
+            return this.current != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+
+    private static final class ReportOutput implements AutoCloseable {
+
+        private final DataOutputStream spill;
+        private final Writer lines;
+        private final StringBuilder line = new StringBuilder(64);
+
+        private ReportOutput(DataOutputStream spill, Writer lines) {
+            this.spill = spill;
+            this.lines = lines;
+        }
+
+        static ReportOutput spill(OutputStream out) {
+            return new ReportOutput(new DataOutputStream(new BufferedOutputStream(out, 64 * 1024)), null);
+        }
+
+        static ReportOutput of(ReportFormat format, OutputStream out, int zstdLevel) throws IOException {
+            if (format == ReportFormat.PARQUET) {
+                return spill(out);
+            }
+            var buffered = new BufferedOutputStream(out, 64 * 1024);
+            OutputStream encoded = switch (format) {
+                case GZIP -> new GZIPOutputStream(buffered, 64 * 1024);
+                case ZSTD -> new ZstdOutputStream(buffered, zstdLevel);
+                default -> buffered;
+            };
+            return new ReportOutput(null, new OutputStreamWriter(encoded, StandardCharsets.UTF_8));
+        }
+
+        private void write(ReportingData item) throws IOException {
+            if (this.spill != null) {
+                ReportSpillCodec.write(item, this.spill);
+                return;
+            }
+            this.line.setLength(0);
+            ReportingDataLineAggregator.append(this.line, item).append(System.lineSeparator());
+            this.lines.append(this.line);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.spill != null) {
+                this.spill.close();
+            } else {
+                this.lines.close();
+            }
+        }
+    }
+}
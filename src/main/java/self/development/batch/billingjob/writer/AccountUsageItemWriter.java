@@ -0,0 +1,117 @@
+package self.development.batch.billingjob.writer;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import self.development.batch.billingjob.model.BillingData;
+
+/**
+ * Keeps the {@code BILLING_ACCOUNT_USAGE} totals of every {@code (DATA_YEAR, DATA_MONTH, ACCOUNT_ID)} touched by a
+ * chunk up to date by adding the chunk's change: its records minus the {@code BILLING_DATA} rows they replace,
+ * joined by natural key, in one upsert per chunk. The cost therefore grows with the chunk, not with the month's rows
+ * of its accounts, and a re-loaded or corrected record only adds its difference. Runs on the chunk's transaction
+ * before the data writer, while the replaced rows are still there; records repeated within the chunk count with
+ * their last value, as in the data writers.
+ * <p>
+ * Concurrent chunks touching the same account would each miss the other's uncommitted rows, so each account is
+ * first locked with a transaction-scoped advisory lock, in key order to rule out deadlocks. The lock is held until
+ * the chunk's data is committed, and the delta is a later statement that sees everything committed by the chunk
+ * that held the lock before.
+ */
+public class AccountUsageItemWriter implements ItemWriter<BillingData> {
+
+    private static final Comparator<BillingData> NATURAL_KEY = Comparator.comparingInt(BillingData::dataYear)
+            .thenComparingInt(BillingData::dataMonth)
+            .thenComparingInt(BillingData::accountId)
+            .thenComparing(BillingData::phoneNumber);
+
+    private static final String LOCK_ACCOUNTS = "SELECT count(pg_advisory_xact_lock(PERIOD, ACCOUNT_ID)) "
+            + "FROM unnest(?::integer[], ?::integer[]) AS K(PERIOD, ACCOUNT_ID)";
+
+    private static final String APPLY_USAGE_DELTA = "INSERT INTO BILLING_ACCOUNT_USAGE "
+            + "(DATA_YEAR, DATA_MONTH, ACCOUNT_ID, DATA_USAGE, CALL_DURATION, SMS_COUNT, RECORD_COUNT) "
+            + "SELECT C.DATA_YEAR, C.DATA_MONTH, C.ACCOUNT_ID, "
+            + "SUM(C.DATA_USAGE::DOUBLE PRECISION - COALESCE(D.DATA_USAGE::DOUBLE PRECISION, 0)), "
+            + "SUM(C.CALL_DURATION - COALESCE(D.CALL_DURATION, 0)), SUM(C.SMS_COUNT - COALESCE(D.SMS_COUNT, 0)), "
+            + "COUNT(*) - COUNT(D.ACCOUNT_ID) "
+            + "FROM unnest(?::integer[], ?::integer[], ?::integer[], ?::varchar[], ?::real[], ?::integer[], ?::integer[]) "
+            + "AS C(DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER, DATA_USAGE, CALL_DURATION, SMS_COUNT) "
+            + "LEFT JOIN BILLING_DATA D ON D.DATA_YEAR = C.DATA_YEAR AND D.DATA_MONTH = C.DATA_MONTH "
+            + "AND D.ACCOUNT_ID = C.ACCOUNT_ID AND D.PHONE_NUMBER = C.PHONE_NUMBER "
+            + "GROUP BY C.DATA_YEAR, C.DATA_MONTH, C.ACCOUNT_ID ORDER BY C.DATA_YEAR, C.DATA_MONTH, C.ACCOUNT_ID "
+            + "ON CONFLICT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID) DO UPDATE SET "
+            + "DATA_USAGE = BILLING_ACCOUNT_USAGE.DATA_USAGE + EXCLUDED.DATA_USAGE, "
+            + "CALL_DURATION = BILLING_ACCOUNT_USAGE.CALL_DURATION + EXCLUDED.CALL_DURATION, "
+            + "SMS_COUNT = BILLING_ACCOUNT_USAGE.SMS_COUNT + EXCLUDED.SMS_COUNT, "
+            + "RECORD_COUNT = BILLING_ACCOUNT_USAGE.RECORD_COUNT + EXCLUDED.RECORD_COUNT "
+            + "WHERE (EXCLUDED.DATA_USAGE, EXCLUDED.CALL_DURATION, EXCLUDED.SMS_COUNT, EXCLUDED.RECORD_COUNT) "
+            + "<> (0, 0, 0, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountUsageItemWriter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void write(Chunk<? extends BillingData> chunk) {
+        var records = new TreeMap<BillingData, BillingData>(NATURAL_KEY);
+        for (BillingData item : chunk) {
+            records.put(item, item);
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        int size = records.size();
+        Integer[] years = new Integer[size];
+        Integer[] months = new Integer[size];
+        Integer[] accounts = new Integer[size];
+        String[] phoneNumbers = new String[size];
+        Float[] dataUsage = new Float[size];
+        Integer[] callDuration = new Integer[size];
+        Integer[] smsCount = new Integer[size];
+        List<Integer> lockPeriods = new ArrayList<>();
+        List<Integer> lockAccounts = new ArrayList<>();
+        int i = 0;
+        for (BillingData record : records.values()) {
+            years[i] = record.dataYear();
+            months[i] = record.dataMonth();
+            accounts[i] = record.accountId();
+            phoneNumbers[i] = record.phoneNumber();
+            dataUsage[i] = record.dataUsage();
+            callDuration[i] = record.callDuration();
+            smsCount[i] = record.smsCount();
+            int period = record.dataYear() * 100 + record.dataMonth();
+            int last = lockPeriods.size() - 1;
+            if (last < 0 || lockPeriods.get(last) != period || lockAccounts.get(last) != record.accountId()) {
+                lockPeriods.add(period);
+                lockAccounts.add(record.accountId());
+            }
+            i++;
+        }
+        this.jdbcTemplate.execute((Connection connection) -> {
+            try (var statement = connection.prepareStatement(LOCK_ACCOUNTS)) {
+                statement.setArray(1, connection.createArrayOf("integer", lockPeriods.toArray()));
+                statement.setArray(2, connection.createArrayOf("integer", lockAccounts.toArray()));
+                statement.executeQuery().close();
+            }
+            try (var statement = connection.prepareStatement(APPLY_USAGE_DELTA)) {
+                statement.setArray(1, connection.createArrayOf("integer", years));
+                statement.setArray(2, connection.createArrayOf("integer", months));
+                statement.setArray(3, connection.createArrayOf("integer", accounts));
+                statement.setArray(4, connection.createArrayOf("varchar", phoneNumbers));
+                statement.setArray(5, connection.createArrayOf("float4", dataUsage));
+                statement.setArray(6, connection.createArrayOf("integer", callDuration));
+                statement.setArray(7, connection.createArrayOf("integer", smsCount));
+                statement.executeUpdate();
+            }
+            return null;
+        });
+    }
+}
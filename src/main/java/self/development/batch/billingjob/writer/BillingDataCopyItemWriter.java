@@ -0,0 +1,122 @@
+package self.development.batch.billingjob.writer;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import self.development.batch.billingjob.model.BillingData;
+
+/**
+ * Streams each chunk with PostgreSQL {@code COPY ... FROM STDIN} into a session-local staging table and upserts it
+ * into {@code BILLING_DATA} on the natural key with one {@code INSERT ... SELECT}. Keys repeated within the chunk
+ * keep their last record. The copy runs on the chunk's transactional connection, so a rollback discards it exactly
+ * like a failed batch insert.
+ */
+public class BillingDataCopyItemWriter implements ItemWriter<BillingData> {
+
+    /**
+     * Conflict clause shared by the ingestion writers: a record whose natural key exists replaces the stored usage,
+     * and an identical record leaves the row (and its WAL) untouched.
+     */
+    public static final String ON_CONFLICT_UPDATE = " ON CONFLICT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER) "
+            + "DO UPDATE SET DATA_USAGE = EXCLUDED.DATA_USAGE, CALL_DURATION = EXCLUDED.CALL_DURATION, "
+            + "SMS_COUNT = EXCLUDED.SMS_COUNT "
+            + "WHERE (BILLING_DATA.DATA_USAGE, BILLING_DATA.CALL_DURATION, BILLING_DATA.SMS_COUNT) "
+            + "IS DISTINCT FROM (EXCLUDED.DATA_USAGE, EXCLUDED.CALL_DURATION, EXCLUDED.SMS_COUNT)";
+
+    private static final String COLUMNS = "DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER, DATA_USAGE, CALL_DURATION, SMS_COUNT";
+
+    // Spelled out rather than LIKE BILLING_DATA, so columns added to BILLING_DATA never reach the COPY
+    private static final String CREATE_STAGE = "CREATE TEMP TABLE IF NOT EXISTS BILLING_DATA_STAGE ("
+            + "DATA_YEAR INTEGER NOT NULL, DATA_MONTH INTEGER NOT NULL, ACCOUNT_ID INTEGER NOT NULL, "
+            + "PHONE_NUMBER VARCHAR(20) NOT NULL, DATA_USAGE REAL, CALL_DURATION INTEGER, SMS_COUNT INTEGER, "
+            + "LOAD_ORDER BIGINT GENERATED ALWAYS AS IDENTITY)";
+
+    private static final String CLEAR_STAGE = "TRUNCATE BILLING_DATA_STAGE";
+
+    private static final String COPY_STATEMENT = "COPY BILLING_DATA_STAGE (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_STAGE = "INSERT INTO BILLING_DATA (" + COLUMNS + ") "
+            + "SELECT DISTINCT ON (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER) " + COLUMNS
+            + " FROM BILLING_DATA_STAGE ORDER BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER, LOAD_ORDER DESC"
+            + ON_CONFLICT_UPDATE;
+
+    private static final int FLUSH_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+
+    public BillingDataCopyItemWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void write(Chunk<? extends BillingData> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Connection connection = DataSourceUtils.getConnection(this.dataSource);
+        try {
+            try (var statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGE);
+                statement.execute(CLEAR_STAGE);
+            }
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STATEMENT);
+            try {
+                var line = new StringBuilder(FLUSH_SIZE + 128);
+                for (BillingData item : chunk) {
+                    appendCsv(line, item);
+                    if (line.length() >= FLUSH_SIZE) {
+                        writeToCopy(copyIn, line);
+                    }
+                }
+                writeToCopy(copyIn, line);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+            try (var statement = connection.createStatement()) {
+                statement.executeUpdate(MERGE_STAGE);
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, this.dataSource);
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws Exception {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    static void appendCsv(StringBuilder line, BillingData item) {
+        line.append(item.dataYear()).append(',')
+                .append(item.dataMonth()).append(',')
+                .append(item.accountId()).append(',');
+        appendText(line, item.phoneNumber());
+        line.append(',')
+                .append(item.dataUsage()).append(',')
+                .append(item.callDuration()).append(',')
+                .append(item.smsCount()).append('\n');
+    }
+
+    private static void appendText(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
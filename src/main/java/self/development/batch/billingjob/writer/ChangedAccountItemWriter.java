@@ -0,0 +1,44 @@
+package self.development.batch.billingjob.writer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import javax.sql.DataSource;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import self.development.batch.billingjob.model.BillingData;
+
+/**
+ * Marks the {@code (DATA_YEAR, DATA_MONTH, ACCOUNT_ID)} keys of each chunk in {@code BILLING_CHANGED_ACCOUNT} so a
+ * delta report run only re-prices those accounts. Runs on the chunk's transaction next to the data writer; keys are
+ * de-duplicated and written in sorted order so parallel ingestion partitions lock them in the same order. A key
+ * already claimed by a running delta report is released again, so the change outlives that run's completion and is
+ * picked up by the next one.
+ */
+public class ChangedAccountItemWriter implements ItemWriter<BillingData> {
+
+    private static final String MARK_CHANGED = "INSERT INTO BILLING_CHANGED_ACCOUNT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID) "
+            + "VALUES (?, ?, ?) ON CONFLICT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID) DO UPDATE SET CLAIMED_BY = NULL "
+            + "WHERE BILLING_CHANGED_ACCOUNT.CLAIMED_BY IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChangedAccountItemWriter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void write(Chunk<? extends BillingData> chunk) {
+        var keys = new TreeSet<int[]>(Arrays::compare);
+        for (BillingData item : chunk) {
+            keys.add(new int[]{item.dataYear(), item.dataMonth(), item.accountId()});
+        }
+        List<Object[]> batch = new ArrayList<>(keys.size());
+        for (int[] key : keys) {
+            batch.add(new Object[]{key[0], key[1], key[2]});
+        }
+        this.jdbcTemplate.batchUpdate(MARK_CHANGED, batch);
+    }
+}
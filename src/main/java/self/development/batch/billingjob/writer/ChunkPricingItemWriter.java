@@ -0,0 +1,44 @@
+package self.development.batch.billingjob.writer;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.processor.ChunkPricingEngine;
+
+/**
+ * Prices each chunk with a {@link ChunkPricingEngine} and hands the records that pass the threshold to the report
+ * writer, replacing the per-item processor in the report step.
+ */
+public class ChunkPricingItemWriter implements ItemStreamWriter<BillingData> {
+
+    private final ChunkPricingEngine pricingEngine;
+    private final ItemStreamWriter<ReportingData> delegate;
+
+    public ChunkPricingItemWriter(ChunkPricingEngine pricingEngine, ItemStreamWriter<ReportingData> delegate) {
+        this.pricingEngine = pricingEngine;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(Chunk<? extends BillingData> chunk) throws Exception {
+        this.delegate.write(new Chunk<>(this.pricingEngine.price(chunk.getItems())));
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        this.delegate.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        this.delegate.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        this.delegate.close();
+    }
+}
@@ -0,0 +1,175 @@
+package self.development.batch.billingjob.writer;
+
+import com.github.luben.zstd.Zstd;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import self.development.batch.billingjob.model.ReportingData;
+
+/**
+ * Appends each chunk to the report file as one self-contained block: a gzip member, a zstd frame or a run of
+ * {@link ReportSpillCodec} records. Concatenated gzip members and zstd frames are valid files, so a block never has
+ * to be re-opened, and the partitioned report parts can still be merged by concatenation.
+ * <p>
+ * Like {@code FlatFileItemWriter}, the encoded block is held until the chunk transaction commits and the committed
+ * file length is saved in the step execution context. A restart truncates the file to that length, dropping a block
+ * written by a chunk whose commit did not complete.
+ */
+public class ChunkedReportFileWriter implements ItemStreamWriter<ReportingData> {
+
+    private static final String POSITION = "position";
+
+    private final String name;
+    private final Path file;
+    private final ChunkEncoder encoder;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024);
+    private FileChannel channel;
+
+    public ChunkedReportFileWriter(String name, Path file, ChunkEncoder encoder) {
+        this.name = name;
+        this.file = file;
+        this.encoder = encoder;
+    }
+
+    public static ChunkedReportFileWriter gzip(String name, Path file) {
+        return new ChunkedReportFileWriter(name, file, (items, out) -> {
+            try (var gzip = new GZIPOutputStream(out, 64 * 1024)) {
+                gzip.write(lines(items));
+            }
+        });
+    }
+
+    public static ChunkedReportFileWriter zstd(String name, Path file, int level) {
+        return new ChunkedReportFileWriter(name, file, (items, out) -> out.write(Zstd.compress(lines(items), level)));
+    }
+
+    public static ChunkedReportFileWriter spill(String name, Path file) {
+        return new ChunkedReportFileWriter(name, file, (items, out) -> {
+            var data = new DataOutputStream(out);
+            for (ReportingData item : items) {
+                ReportSpillCodec.write(item, data);
+            }
+            data.flush();
+        });
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            var parent = this.file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            String positionKey = key(POSITION);
+            if (executionContext.containsKey(positionKey)) {
+                this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                this.channel.truncate(executionContext.getLong(positionKey));
+                this.channel.position(this.channel.size());
+            } else {
+                this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                // An empty gzip member or zstd frame keeps a report without lines a valid compressed file
+                this.encoder.encode(List.of(), this.pending);
+                writePending();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not open report file " + this.file, e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends ReportingData> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        this.encoder.encode(chunk.getItems(), this.pending);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writePending();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    writePending();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not write report file " + ChunkedReportFileWriter.this.file, e);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                ChunkedReportFileWriter.this.pending.reset();
+            }
+        });
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            executionContext.putLong(key(POSITION), this.channel.position() + this.pending.size());
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not read the position of report file " + this.file, e);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            this.channel.force(false);
+            this.channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not close report file " + this.file, e);
+        } finally {
+            this.channel = null;
+            this.pending.reset();
+        }
+    }
+
+    private void writePending() throws IOException {
+        var buffer = ByteBuffer.wrap(this.pending.toByteArray());
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.pending.reset();
+    }
+
+    private String key(String suffix) {
+        return this.name + "." + suffix;
+    }
+
+    private static byte[] lines(List<? extends ReportingData> items) {
+        var text = new StringBuilder(items.size() * 64);
+        for (ReportingData item : items) {
+            ReportingDataLineAggregator.append(text, item).append(System.lineSeparator());
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    public interface ChunkEncoder {
+
+        void encode(List<? extends ReportingData> items, ByteArrayOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,22 @@
+package self.development.batch.billingjob.writer;
+
+import java.util.Locale;
+
+/**
+ * Encodings of the line-level report selected with the {@code report.format} job parameter.
+ */
+public enum ReportFormat {
+
+    CSV, GZIP, ZSTD, PARQUET;
+
+    public static ReportFormat of(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown report.format '" + value + "', expected csv, gzip, zstd or parquet");
+        }
+    }
+}
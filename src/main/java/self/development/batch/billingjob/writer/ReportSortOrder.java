@@ -0,0 +1,44 @@
+package self.development.batch.billingjob.writer;
+
+import java.util.Comparator;
+import java.util.Locale;
+import self.development.batch.billingjob.model.ReportingData;
+
+/**
+ * Orders of the line-level report selected with the {@code report.sort} job parameter. Ties are broken by the record
+ * key, so a sorted report is the same whatever order the records were written in.
+ */
+public enum ReportSortOrder {
+
+    NONE(null),
+    TOTAL(Comparator.comparingDouble(ReportingData::billingTotal).reversed().thenComparing(ReportSortOrder.byKey())),
+    ACCOUNT(ReportSortOrder.byKey());
+
+    private final Comparator<ReportingData> comparator;
+
+    ReportSortOrder(Comparator<ReportingData> comparator) {
+        this.comparator = comparator;
+    }
+
+    public Comparator<ReportingData> comparator() {
+        return this.comparator;
+    }
+
+    public static ReportSortOrder of(String value) {
+        if (value == null || value.isBlank()) {
+            return NONE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown report.sort '" + value + "', expected none, total or account");
+        }
+    }
+
+    private static Comparator<ReportingData> byKey() {
+        return Comparator.<ReportingData>comparingInt(item -> item.billingData().accountId())
+                .thenComparing(item -> item.billingData().phoneNumber(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingInt(item -> item.billingData().dataYear())
+                .thenComparingInt(item -> item.billingData().dataMonth());
+    }
+}
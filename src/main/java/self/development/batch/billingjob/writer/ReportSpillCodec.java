@@ -0,0 +1,46 @@
+package self.development.batch.billingjob.writer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+
+/**
+ * Fixed-order binary encoding of {@link ReportingData}. It is the format of the Parquet spill file, and of the sorted
+ * runs and unsorted tails that {@link SortingReportSpillWriter} leaves for the sort merge step. Records carry no
+ * framing, so spill files of several partitions can be concatenated byte for byte like the CSV parts.
+ */
+public final class ReportSpillCodec {
+
+    private ReportSpillCodec() {
+    }
+
+    public static void write(ReportingData item, DataOutputStream out) throws IOException {
+        BillingData billingData = item.billingData();
+        out.writeInt(billingData.dataYear());
+        out.writeInt(billingData.dataMonth());
+        out.writeInt(billingData.accountId());
+        out.writeUTF(billingData.phoneNumber());
+        out.writeFloat(billingData.dataUsage());
+        out.writeInt(billingData.callDuration());
+        out.writeInt(billingData.smsCount());
+        out.writeDouble(item.billingTotal());
+    }
+
+    /**
+     * Reads the next record, or returns {@code null} at the end of the stream. The stream must support
+     * {@link InputStream#mark}.
+     */
+    public static ReportingData read(DataInputStream in) throws IOException {
+        in.mark(1);
+        if (in.read() < 0) {
+            return null;
+        }
+        in.reset();
+        var billingData = new BillingData(in.readInt(), in.readInt(), in.readInt(), in.readUTF(), in.readFloat(),
+                in.readInt(), in.readInt());
+        return new ReportingData(billingData, in.readDouble());
+    }
+}
@@ -0,0 +1,32 @@
+package self.development.batch.billingjob.writer;
+
+import org.springframework.batch.item.file.transform.LineAggregator;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+
+/**
+ * Formats a report line by reading the record accessors directly instead of resolving {@code billingData.*}
+ * property paths through a {@code BeanWrapper} for every field. The output is the same as the delimited
+ * {@code BeanWrapperFieldExtractor} configuration it replaces, since both use {@code String.valueOf} per field.
+ */
+public class ReportingDataLineAggregator implements LineAggregator<ReportingData> {
+
+    private static final char DELIMITER = ',';
+
+    @Override
+    public String aggregate(ReportingData item) {
+        return append(new StringBuilder(64), item).toString();
+    }
+
+    public static StringBuilder append(StringBuilder line, ReportingData item) {
+        BillingData billingData = item.billingData();
+        return line.append(billingData.dataYear()).append(DELIMITER)
+                .append(billingData.dataMonth()).append(DELIMITER)
+                .append(billingData.accountId()).append(DELIMITER)
+                .append(billingData.phoneNumber()).append(DELIMITER)
+                .append(billingData.dataUsage()).append(DELIMITER)
+                .append(billingData.callDuration()).append(DELIMITER)
+                .append(billingData.smsCount()).append(DELIMITER)
+                .append(item.billingTotal());
+    }
+}
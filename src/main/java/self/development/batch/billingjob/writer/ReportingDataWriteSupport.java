@@ -0,0 +1,71 @@
+package self.development.batch.billingjob.writer;
+
+import java.util.Map;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+
+/**
+ * Writes {@link ReportingData} to Parquet field by field through the record accessors, without an intermediate
+ * object model.
+ */
+public class ReportingDataWriteSupport extends WriteSupport<ReportingData> {
+
+    public static final MessageType SCHEMA = Types.buildMessage()
+            .required(PrimitiveTypeName.INT32).named("data_year")
+            .required(PrimitiveTypeName.INT32).named("data_month")
+            .required(PrimitiveTypeName.INT32).named("account_id")
+            .required(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("phone_number")
+            .required(PrimitiveTypeName.FLOAT).named("data_usage")
+            .required(PrimitiveTypeName.INT32).named("call_duration")
+            .required(PrimitiveTypeName.INT32).named("sms_count")
+            .required(PrimitiveTypeName.DOUBLE).named("billing_total")
+            .named("billing_report");
+
+    private RecordConsumer recordConsumer;
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+        return new WriteContext(SCHEMA, Map.of());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+        this.recordConsumer = recordConsumer;
+    }
+
+    @Override
+    public void write(ReportingData record) {
+        BillingData billingData = record.billingData();
+        var consumer = this.recordConsumer;
+        consumer.startMessage();
+        integer(0, "data_year", billingData.dataYear());
+        integer(1, "data_month", billingData.dataMonth());
+        integer(2, "account_id", billingData.accountId());
+        consumer.startField("phone_number", 3);
+        consumer.addBinary(Binary.fromString(billingData.phoneNumber()));
+        consumer.endField("phone_number", 3);
+        consumer.startField("data_usage", 4);
+        consumer.addFloat(billingData.dataUsage());
+        consumer.endField("data_usage", 4);
+        integer(5, "call_duration", billingData.callDuration());
+        integer(6, "sms_count", billingData.smsCount());
+        consumer.startField("billing_total", 7);
+        consumer.addDouble(record.billingTotal());
+        consumer.endField("billing_total", 7);
+        consumer.endMessage();
+    }
+
+    private void integer(int index, String field, int value) {
+        this.recordConsumer.startField(field, index);
+        this.recordConsumer.addInteger(value);
+        this.recordConsumer.endField(field, index);
+    }
+}
@@ -0,0 +1,280 @@
+package self.development.batch.billingjob.writer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import self.development.batch.billingjob.model.ReportingData;
+
+/**
+ * Writer of a {@code report.sort} report. Instead of the report file it fills a spill directory next to it
+ * ({@code <file>.sort}) with sorted runs. Committed items are kept in memory and appended, unsorted, to the current
+ * tail file ({@code tail-N}). Once their estimated heap size reaches the memory limit they are sorted into
+ * {@code run-N} and tail {@code N + 1} is started. All files use {@link ReportSpillCodec} records.
+ * {@code ReportSortMergeTasklet} later sorts the last tail and merges all runs into the report.
+ * <p>
+ * As with {@link ChunkedReportFileWriter}, a chunk's items reach the files only when its transaction commits. The run
+ * count and the committed tail length are saved in the step execution context, and a tail replaced by a run is
+ * deleted after the commit. A restart deletes runs and tails written after the last commit, truncates the tail and
+ * reloads it into memory.
+ */
+public class SortingReportSpillWriter implements ItemStreamWriter<ReportingData> {
+
+    public static final String SPILL_SUFFIX = ".sort";
+    public static final String RUN_PREFIX = "run-";
+    public static final String TAIL_PREFIX = "tail-";
+
+    private static final String RUNS = "runs";
+    private static final String TAIL = "tail";
+    // Two records, a String and its array, plus the list slot; phone number characters are added per item
+    private static final long ITEM_OVERHEAD = 120;
+
+    private final String name;
+    private final Path directory;
+    private final ReportSortOrder order;
+    private final long memoryLimit;
+
+    private final List<ReportingData> buffer = new ArrayList<>();
+    private long bufferBytes;
+    private int runs;
+    private FileChannel tail;
+    private Path replacedTail;
+
+    private final List<ReportingData> pendingItems = new ArrayList<>();
+    private final ByteArrayOutputStream pendingBytes = new ByteArrayOutputStream(64 * 1024);
+    private long pendingEstimate;
+
+    public SortingReportSpillWriter(String name, Path file, ReportSortOrder order, long memoryLimit) {
+        if (order == ReportSortOrder.NONE) {
+            throw new IllegalArgumentException("A sorting report writer needs a sort order");
+        }
+        this.name = name;
+        this.directory = spillDirectory(file);
+        this.order = order;
+        this.memoryLimit = memoryLimit;
+    }
+
+    public static Path spillDirectory(Path file) {
+        return file.resolveSibling(file.getFileName() + SPILL_SUFFIX);
+    }
+
+    public static long estimatedSize(ReportingData item) {
+        String phoneNumber = item.billingData().phoneNumber();
+        return ITEM_OVERHEAD + (phoneNumber != null ? 2L * phoneNumber.length() : 0);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            Files.createDirectories(this.directory);
+            String runsKey = key(RUNS);
+            if (executionContext.containsKey(runsKey)) {
+                this.runs = executionContext.getInt(runsKey);
+                deleteFiles(file -> !file.equals(tailFile(this.runs)) && !isCommittedRun(file));
+                this.tail = FileChannel.open(tailFile(this.runs), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                this.tail.truncate(executionContext.getLong(key(TAIL)));
+                reloadTail();
+                this.tail.position(this.tail.size());
+            } else {
+                deleteFiles(file -> true);
+                this.runs = 0;
+                this.tail = openTail(this.runs);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not open sort spill directory " + this.directory, e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends ReportingData> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        var data = new DataOutputStream(this.pendingBytes);
+        for (ReportingData item : chunk) {
+            ReportSpillCodec.write(item, data);
+            this.pendingItems.add(item);
+            this.pendingEstimate += estimatedSize(item);
+        }
+        data.flush();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Without a commit to wait for, a replaced tail is left for open() or the merge to clean up
+            applyPending();
+            this.replacedTail = null;
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    applyPending();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not spill report to " + SortingReportSpillWriter.this.directory, e);
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                deleteReplacedTail();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                clearPending();
+            }
+        });
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.tail == null) {
+            return;
+        }
+        try {
+            boolean flush = flushDue();
+            executionContext.putInt(key(RUNS), flush ? this.runs + 1 : this.runs);
+            executionContext.putLong(key(TAIL), flush ? 0 : this.tail.position() + this.pendingBytes.size());
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not read the position of " + tailFile(this.runs), e);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (this.tail == null) {
+            return;
+        }
+        try {
+            this.tail.force(false);
+            this.tail.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not close " + tailFile(this.runs), e);
+        } finally {
+            this.tail = null;
+            this.buffer.clear();
+            this.bufferBytes = 0;
+            clearPending();
+        }
+    }
+
+    private boolean flushDue() {
+        return !this.pendingItems.isEmpty() && this.bufferBytes + this.pendingEstimate >= this.memoryLimit;
+    }
+
+    private void applyPending() throws IOException {
+        if (this.pendingItems.isEmpty()) {
+            return;
+        }
+        boolean flush = flushDue();
+        this.buffer.addAll(this.pendingItems);
+        this.bufferBytes += this.pendingEstimate;
+        if (flush) {
+            this.buffer.sort(this.order.comparator());
+            writeRun(this.directory, this.runs, this.buffer);
+            this.buffer.clear();
+            this.bufferBytes = 0;
+            this.tail.close();
+            this.replacedTail = tailFile(this.runs);
+            this.runs++;
+            this.tail = openTail(this.runs);
+        } else {
+            var bytes = ByteBuffer.wrap(this.pendingBytes.toByteArray());
+            while (bytes.hasRemaining()) {
+                this.tail.write(bytes);
+            }
+        }
+        clearPending();
+    }
+
+    /**
+     * Writes sorted items as {@code run-N} of the spill directory. The run appears atomically, so an existing run file
+     * is always complete.
+     */
+    public static void writeRun(Path directory, int run, List<ReportingData> items) throws IOException {
+        Path tmp = directory.resolve(RUN_PREFIX + run + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+            for (ReportingData item : items) {
+                ReportSpillCodec.write(item, out);
+            }
+        }
+        Files.move(tmp, directory.resolve(RUN_PREFIX + run), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void reloadTail() throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(tailFile(this.runs)), 64 * 1024))) {
+            ReportingData item;
+            while ((item = ReportSpillCodec.read(in)) != null) {
+                this.buffer.add(item);
+                this.bufferBytes += estimatedSize(item);
+            }
+        }
+    }
+
+    private void deleteReplacedTail() {
+        if (this.replacedTail == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(this.replacedTail);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete " + this.replacedTail, e);
+        }
+        this.replacedTail = null;
+    }
+
+    private void clearPending() {
+        this.pendingItems.clear();
+        this.pendingBytes.reset();
+        this.pendingEstimate = 0;
+    }
+
+    private boolean isCommittedRun(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!fileName.startsWith(RUN_PREFIX) || !fileName.substring(RUN_PREFIX.length()).matches("\\d+")) {
+            return false;
+        }
+        return Integer.parseInt(fileName.substring(RUN_PREFIX.length())) < this.runs;
+    }
+
+    private void deleteFiles(Predicate<Path> filter) throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : files.filter(filter).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private FileChannel openTail(int run) throws IOException {
+        return FileChannel.open(tailFile(run), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private Path tailFile(int run) {
+        return this.directory.resolve(TAIL_PREFIX + run);
+    }
+
+    private String key(String suffix) {
+        return this.name + "." + suffix;
+    }
+}
@@ -0,0 +1,64 @@
+package self.development.batch.billingjob.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.model.StreamingBillingItem;
+
+/**
+ * Writer of the streaming step. Each chunk's records go to the ingestion writer and its report lines to the report
+ * writer, both in the chunk's transaction, so {@code BILLING_DATA}, the per-account tables and the report commit and
+ * roll back together.
+ */
+public class StreamingBillingItemWriter implements ItemStreamWriter<StreamingBillingItem> {
+
+    private final ItemWriter<BillingData> dataWriter;
+    private final ItemStreamWriter<ReportingData> reportWriter;
+
+    /**
+     * @param dataWriter the ingestion writer, or {@code null} to write the report only
+     */
+    public StreamingBillingItemWriter(ItemWriter<BillingData> dataWriter, ItemStreamWriter<ReportingData> reportWriter) {
+        this.dataWriter = dataWriter;
+        this.reportWriter = reportWriter;
+    }
+
+    @Override
+    public void write(Chunk<? extends StreamingBillingItem> chunk) throws Exception {
+        List<BillingData> records = new ArrayList<>(chunk.size());
+        List<ReportingData> reports = new ArrayList<>(chunk.size());
+        for (StreamingBillingItem item : chunk) {
+            records.add(item.billingData());
+            if (item.report() != null) {
+                reports.add(item.report());
+            }
+        }
+        if (this.dataWriter != null) {
+            this.dataWriter.write(new Chunk<>(records));
+        }
+        if (!reports.isEmpty()) {
+            this.reportWriter.write(new Chunk<>(reports));
+        }
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        this.reportWriter.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        this.reportWriter.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        this.reportWriter.close();
+    }
+}
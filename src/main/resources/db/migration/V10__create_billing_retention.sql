@@ -0,0 +1,9 @@
+-- First month kept by billingDataRetentionJob. Partition preparation purges rows of earlier months instead of
+-- giving them a partition again; the cutoff only ever moves forward.
+CREATE TABLE IF NOT EXISTS BILLING_RETENTION (
+    TABLE_NAME VARCHAR(64) NOT NULL,
+    CUTOFF_YEAR INTEGER NOT NULL,
+    CUTOFF_MONTH INTEGER NOT NULL,
+    UPDATED_AT TIMESTAMP NOT NULL,
+    PRIMARY KEY (TABLE_NAME)
+);
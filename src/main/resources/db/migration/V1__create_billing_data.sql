@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS BILLING_DATA
+(
+    DATA_YEAR     INTEGER     NOT NULL,
+    DATA_MONTH    INTEGER     NOT NULL,
+    ACCOUNT_ID    INTEGER     NOT NULL,
+    PHONE_NUMBER  VARCHAR(20) NOT NULL,
+    DATA_USAGE    REAL,
+    CALL_DURATION INTEGER,
+    SMS_COUNT     INTEGER
+);
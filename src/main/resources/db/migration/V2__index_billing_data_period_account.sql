@@ -0,0 +1,3 @@
+-- Serves the keyset pages of billingDataTableReader and the accountId bounds of AccountRangePartitioner.
+CREATE INDEX IF NOT EXISTS BILLING_DATA_PERIOD_ACCOUNT_IDX
+    ON BILLING_DATA (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER);
@@ -0,0 +1,34 @@
+CREATE TABLE IF NOT EXISTS TARIFF_PLAN (
+    PLAN_ID INTEGER PRIMARY KEY,
+    PLAN_NAME VARCHAR(64) NOT NULL,
+    IS_DEFAULT BOOLEAN NOT NULL DEFAULT FALSE,
+    INCLUDED_MINUTES INTEGER NOT NULL DEFAULT 0,
+    CALL_PRICE REAL NOT NULL,
+    INCLUDED_SMS INTEGER NOT NULL DEFAULT 0,
+    SMS_PRICE REAL NOT NULL,
+    VALID_FROM DATE NOT NULL,
+    VALID_TO DATE
+);
+
+CREATE TABLE IF NOT EXISTS TARIFF_DATA_TIER (
+    PLAN_ID INTEGER NOT NULL REFERENCES TARIFF_PLAN (PLAN_ID),
+    USAGE_FROM REAL NOT NULL,
+    PRICE REAL NOT NULL,
+    PRIMARY KEY (PLAN_ID, USAGE_FROM)
+);
+
+CREATE TABLE IF NOT EXISTS ACCOUNT_TARIFF_PLAN (
+    ACCOUNT_ID INTEGER NOT NULL,
+    PLAN_ID INTEGER NOT NULL REFERENCES TARIFF_PLAN (PLAN_ID),
+    VALID_FROM DATE NOT NULL,
+    VALID_TO DATE,
+    PRIMARY KEY (ACCOUNT_ID, VALID_FROM)
+);
+
+INSERT INTO TARIFF_PLAN (PLAN_ID, PLAN_NAME, IS_DEFAULT, INCLUDED_MINUTES, CALL_PRICE, INCLUDED_SMS, SMS_PRICE, VALID_FROM)
+VALUES (1, 'flat', TRUE, 0, 0.5, 0, 0.1, DATE '1970-01-01')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO TARIFF_DATA_TIER (PLAN_ID, USAGE_FROM, PRICE)
+VALUES (1, 0, 0.01)
+ON CONFLICT DO NOTHING;
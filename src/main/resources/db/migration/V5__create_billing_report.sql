@@ -0,0 +1,29 @@
+CREATE TABLE IF NOT EXISTS BILLING_CHANGED_ACCOUNT (
+    DATA_YEAR INTEGER NOT NULL,
+    DATA_MONTH INTEGER NOT NULL,
+    ACCOUNT_ID INTEGER NOT NULL,
+    CLAIMED_BY BIGINT,
+    PRIMARY KEY (DATA_YEAR, DATA_MONTH, ACCOUNT_ID)
+);
+
+CREATE TABLE IF NOT EXISTS BILLING_REPORT (
+    DATA_YEAR INTEGER NOT NULL,
+    DATA_MONTH INTEGER NOT NULL,
+    ACCOUNT_ID INTEGER NOT NULL,
+    PHONE_NUMBER VARCHAR(20) NOT NULL,
+    DATA_USAGE REAL,
+    CALL_DURATION INTEGER,
+    SMS_COUNT INTEGER,
+    BILLING_TOTAL DOUBLE PRECISION NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS BILLING_REPORT_PERIOD_ACCOUNT_IDX
+    ON BILLING_REPORT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER);
+
+CREATE TABLE IF NOT EXISTS BILLING_REPORT_PERIOD (
+    DATA_YEAR INTEGER NOT NULL,
+    DATA_MONTH INTEGER NOT NULL,
+    JOB_INSTANCE_ID BIGINT NOT NULL,
+    UPDATED_AT TIMESTAMP NOT NULL,
+    PRIMARY KEY (DATA_YEAR, DATA_MONTH)
+);
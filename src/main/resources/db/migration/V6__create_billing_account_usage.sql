@@ -0,0 +1,18 @@
+-- Per-account monthly usage, maintained by ingestion with one upsert per account and chunk.
+CREATE TABLE IF NOT EXISTS BILLING_ACCOUNT_USAGE (
+    DATA_YEAR INTEGER NOT NULL,
+    DATA_MONTH INTEGER NOT NULL,
+    ACCOUNT_ID INTEGER NOT NULL,
+    DATA_USAGE DOUBLE PRECISION NOT NULL,
+    CALL_DURATION BIGINT NOT NULL,
+    SMS_COUNT BIGINT NOT NULL,
+    RECORD_COUNT INTEGER NOT NULL,
+    PRIMARY KEY (DATA_YEAR, DATA_MONTH, ACCOUNT_ID)
+);
+
+INSERT INTO BILLING_ACCOUNT_USAGE (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, DATA_USAGE, CALL_DURATION, SMS_COUNT, RECORD_COUNT)
+SELECT DATA_YEAR, DATA_MONTH, ACCOUNT_ID, COALESCE(SUM(DATA_USAGE::DOUBLE PRECISION), 0),
+       COALESCE(SUM(CALL_DURATION), 0), COALESCE(SUM(SMS_COUNT), 0), COUNT(*)
+FROM BILLING_DATA
+GROUP BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID
+ON CONFLICT DO NOTHING;
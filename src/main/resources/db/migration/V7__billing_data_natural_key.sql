@@ -0,0 +1,23 @@
+-- Makes (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER) the natural key of BILLING_DATA so ingestion can upsert.
+-- Rows loaded more than once keep the last physical copy, and the per-account totals are rebuilt from the result.
+DELETE FROM BILLING_DATA a
+    USING BILLING_DATA b
+WHERE a.DATA_YEAR = b.DATA_YEAR
+  AND a.DATA_MONTH = b.DATA_MONTH
+  AND a.ACCOUNT_ID = b.ACCOUNT_ID
+  AND a.PHONE_NUMBER = b.PHONE_NUMBER
+  AND a.ctid < b.ctid;
+
+-- Same columns as BILLING_DATA_PERIOD_ACCOUNT_IDX, so the keyset report pages keep their range scans.
+CREATE UNIQUE INDEX IF NOT EXISTS BILLING_DATA_NATURAL_KEY_IDX
+    ON BILLING_DATA (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER);
+
+DROP INDEX IF EXISTS BILLING_DATA_PERIOD_ACCOUNT_IDX;
+
+TRUNCATE BILLING_ACCOUNT_USAGE;
+
+INSERT INTO BILLING_ACCOUNT_USAGE (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, DATA_USAGE, CALL_DURATION, SMS_COUNT, RECORD_COUNT)
+SELECT DATA_YEAR, DATA_MONTH, ACCOUNT_ID, COALESCE(SUM(DATA_USAGE::DOUBLE PRECISION), 0),
+       COALESCE(SUM(CALL_DURATION), 0), COALESCE(SUM(SMS_COUNT), 0), COUNT(*)
+FROM BILLING_DATA
+GROUP BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID;
@@ -0,0 +1,42 @@
+-- Range-partitions BILLING_DATA by (DATA_YEAR, DATA_MONTH), one partition per month. Rows of a month without a
+-- partition land in BILLING_DATA_DEFAULT until BillingDataPartitionManager moves them into their own partition.
+ALTER TABLE BILLING_DATA RENAME TO BILLING_DATA_UNPARTITIONED;
+ALTER INDEX BILLING_DATA_NATURAL_KEY_IDX RENAME TO BILLING_DATA_UNPARTITIONED_KEY_IDX;
+
+CREATE TABLE BILLING_DATA
+(
+    DATA_YEAR     INTEGER     NOT NULL,
+    DATA_MONTH    INTEGER     NOT NULL,
+    ACCOUNT_ID    INTEGER     NOT NULL,
+    PHONE_NUMBER  VARCHAR(20) NOT NULL,
+    DATA_USAGE    REAL,
+    CALL_DURATION INTEGER,
+    SMS_COUNT     INTEGER
+) PARTITION BY RANGE (DATA_YEAR, DATA_MONTH);
+
+-- The natural key contains the partition key, so it stays unique across partitions and keeps serving ON CONFLICT.
+CREATE UNIQUE INDEX BILLING_DATA_NATURAL_KEY_IDX
+    ON BILLING_DATA (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER);
+
+CREATE TABLE BILLING_DATA_DEFAULT PARTITION OF BILLING_DATA DEFAULT;
+
+DO $$
+DECLARE
+    period RECORD;
+BEGIN
+    FOR period IN SELECT DISTINCT DATA_YEAR, DATA_MONTH FROM BILLING_DATA_UNPARTITIONED
+                  WHERE DATA_YEAR BETWEEN 1 AND 9999 AND DATA_MONTH BETWEEN 1 AND 12
+    LOOP
+        EXECUTE format('CREATE TABLE BILLING_DATA_%s_%s PARTITION OF BILLING_DATA FOR VALUES FROM (%s, %s) TO (%s, %s)',
+                       lpad(period.DATA_YEAR::TEXT, 4, '0'), lpad(period.DATA_MONTH::TEXT, 2, '0'),
+                       period.DATA_YEAR, period.DATA_MONTH,
+                       CASE WHEN period.DATA_MONTH = 12 THEN period.DATA_YEAR + 1 ELSE period.DATA_YEAR END,
+                       CASE WHEN period.DATA_MONTH = 12 THEN 1 ELSE period.DATA_MONTH + 1 END);
+    END LOOP;
+END $$;
+
+INSERT INTO BILLING_DATA
+SELECT DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER, DATA_USAGE, CALL_DURATION, SMS_COUNT
+FROM BILLING_DATA_UNPARTITIONED;
+
+DROP TABLE BILLING_DATA_UNPARTITIONED;
@@ -0,0 +1,14 @@
+-- Makes (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER) the natural key of BILLING_REPORT, as V7 did for
+-- BILLING_DATA, so the keyset export never skips or repeats rows with the same key at a page boundary.
+DELETE FROM BILLING_REPORT a
+    USING BILLING_REPORT b
+WHERE a.DATA_YEAR = b.DATA_YEAR
+  AND a.DATA_MONTH = b.DATA_MONTH
+  AND a.ACCOUNT_ID = b.ACCOUNT_ID
+  AND a.PHONE_NUMBER = b.PHONE_NUMBER
+  AND a.ctid < b.ctid;
+
+CREATE UNIQUE INDEX IF NOT EXISTS BILLING_REPORT_NATURAL_KEY_IDX
+    ON BILLING_REPORT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, PHONE_NUMBER);
+
+DROP INDEX IF EXISTS BILLING_REPORT_PERIOD_ACCOUNT_IDX;
@@ -4,6 +4,10 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,20 +19,36 @@ import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.JobParametersValidator;
+import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.job.DefaultJobParametersValidator;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
 import org.springframework.batch.test.JobLauncherTestUtils;
 import org.springframework.batch.test.JobRepositoryTestUtils;
+import org.springframework.batch.test.MetaDataInstanceFactory;
 import org.springframework.batch.test.context.SpringBatchTest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.DataClassRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.jdbc.JdbcTestUtils;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.partition.BillingDataPartitionManager;
+import self.development.batch.billingjob.reader.BillingDataKeysetQueryProvider;
+import self.development.batch.billingjob.task.DeltaCompletionTasklet;
+import self.development.batch.billingjob.writer.AccountUsageItemWriter;
+import self.development.batch.billingjob.writer.ChangedAccountItemWriter;
 
 @SpringBootTest
 @SpringBatchTest
@@ -50,12 +70,41 @@ class BillingJobApplicationTests {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    @Qualifier("billingDataRetentionJob")
+    private Job billingDataRetentionJob;
+
+    @Autowired
+    private JdbcBatchItemWriter<ReportingData> billingReportTableWriter;
+
+    @Autowired
+    private ChangedAccountItemWriter changedAccountItemWriter;
+
+    @Autowired
+    private AccountUsageItemWriter accountUsageItemWriter;
+
+    @Autowired
+    private JdbcBatchItemWriter<BillingData> billingDataJdbcBatchItemWriter;
+
+    @Autowired
+    private BillingDataPartitionManager billingDataPartitionManager;
+
 
     @BeforeEach
     public void setUp() {
         this.jobRepositoryTestUtils.removeJobExecutions();
         //jobLauncherTestUtils.setJob(job);
         JdbcTestUtils.deleteFromTables(jdbcTemplate,"BILLING_DATA");
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "BILLING_CHANGED_ACCOUNT", "BILLING_REPORT", "BILLING_REPORT_PERIOD",
+                "BILLING_ACCOUNT_USAGE", "BILLING_RETENTION");
+        // Partitions detached by earlier retention runs would otherwise mark their months as expired
+        for (String table : jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE n.nspname = current_schema() AND c.relkind = 'r' AND NOT c.relispartition
+                AND c.relname ~ '^billing_data_[0-9]{4}_[0-9]{2}$'
+                """, String.class)) {
+            jdbcTemplate.execute("DROP TABLE " + table);
+        }
     }
 
     @Test
@@ -213,4 +262,400 @@ class BillingJobApplicationTests {
         Assertions.assertEquals(result.getStatus(), BatchStatus.COMPLETED);
     }
 
+    @Test
+    void testRemotePartitionedReportMatchesSequentialReport() throws Exception {
+        // Given
+        var sequential = new JobParametersBuilder()
+                .addString("input.file", "src/main/resources/telecom_data_next.csv")
+                .addString("output.file", "staging/sequential-report.csv")
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+        var remote = new JobParametersBuilder(sequential)
+                .addString("output.file", "staging/remote-report.csv")
+                .addString("report.mode", "remote")
+                .toJobParameters();
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncherTestUtils.launchJob(sequential).getStatus());
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "BILLING_DATA");
+
+        // When
+        var result = jobLauncherTestUtils.launchJob(remote);
+
+        // Then
+        Assertions.assertEquals(BatchStatus.COMPLETED, result.getStatus());
+        var expected = Files.readAllLines(Paths.get("staging", "sequential-report.csv"));
+        var actual = Files.readAllLines(Paths.get("staging", "remote-report.csv"));
+        Assertions.assertFalse(actual.isEmpty());
+        Assertions.assertEquals(expected.stream().sorted().toList(), actual.stream().sorted().toList());
+    }
+
+    @Test
+    void testPartitionedReportMergesOnlyThisRunsParts() throws Exception {
+        // Given
+        var sequential = new JobParametersBuilder()
+                .addString("input.file", "src/main/resources/telecom_data_next.csv")
+                .addString("output.file", "staging/sequential-merge-report.csv")
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+        var partitioned = new JobParametersBuilder(sequential)
+                .addString("output.file", "staging/partitioned-merge-report.csv")
+                .addString("report.mode", "partitioned")
+                .toJobParameters();
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncherTestUtils.launchJob(sequential).getStatus());
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "BILLING_DATA");
+        // Left behind by an abandoned run with a larger grid
+        var stalePart = Paths.get("staging", "partitioned-merge-report.csv.part9");
+        Files.writeString(stalePart, "2025,3,999999,000-000-0000,1.0,1,1,1.0" + System.lineSeparator());
+
+        // When
+        var result = jobLauncherTestUtils.launchJob(partitioned);
+
+        // Then
+        Assertions.assertEquals(BatchStatus.COMPLETED, result.getStatus());
+        var expected = Files.readAllLines(Paths.get("staging", "sequential-merge-report.csv"));
+        var actual = Files.readAllLines(Paths.get("staging", "partitioned-merge-report.csv"));
+        Assertions.assertFalse(actual.isEmpty());
+        Assertions.assertEquals(expected.stream().sorted().toList(), actual.stream().sorted().toList());
+        Assertions.assertFalse(Files.exists(stalePart));
+    }
+
+    @Test
+    void testDeltaReportRepricesOnlyChangedAccounts() throws Exception {
+        // Given
+        var sequential = new JobParametersBuilder()
+                .addString("input.file", "src/main/resources/telecom_data_next.csv")
+                .addString("output.file", "staging/sequential-delta-base.csv")
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncherTestUtils.launchJob(sequential).getStatus());
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "BILLING_DATA", "BILLING_CHANGED_ACCOUNT");
+        var firstDelta = new JobParametersBuilder(sequential)
+                .addString("output.file", "staging/delta-report-1.csv")
+                .addString("report.mode", "delta")
+                .toJobParameters();
+        var lateDelta = new JobParametersBuilder(firstDelta)
+                .addString("input.file", "src/main/resources/telecom_data_retry.csv")
+                .addString("output.file", "staging/delta-report-2.csv")
+                .toJobParameters();
+
+        // When
+        var first = jobLauncherTestUtils.launchJob(firstDelta);
+        var late = jobLauncherTestUtils.launchJob(lateDelta);
+
+        // Then
+        Assertions.assertEquals(BatchStatus.COMPLETED, first.getStatus());
+        Assertions.assertEquals(BatchStatus.COMPLETED, late.getStatus());
+        var expected = Files.readAllLines(Paths.get("staging", "sequential-delta-base.csv"));
+        var firstReport = Files.readAllLines(Paths.get("staging", "delta-report-1.csv"));
+        Assertions.assertEquals(expected.stream().sorted().toList(), firstReport.stream().sorted().toList());
+        var lateReport = Files.readAllLines(Paths.get("staging", "delta-report-2.csv"));
+        Assertions.assertEquals(expected.stream().sorted().toList(), lateReport.stream().sorted().toList());
+        Assertions.assertEquals(0, JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BILLING_CHANGED_ACCOUNT",
+                "DATA_YEAR = 2025 AND DATA_MONTH = 3"));
+    }
+
+    @Test
+    void testAccountChangedDuringDeltaRunStaysMarked() throws Exception {
+        // Given
+        var parameters = new JobParametersBuilder()
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+        var stepExecution = MetaDataInstanceFactory.createJobExecution("billingJob", 42L, 1L, parameters)
+                .createStepExecution("deltaCompletion");
+        for (int account = 1001; account <= 1003; account++) {
+            jdbcTemplate.update("INSERT INTO BILLING_CHANGED_ACCOUNT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID, CLAIMED_BY) "
+                    + "VALUES (2025, 3, ?, 42)", account);
+        }
+
+        // When
+        changedAccountItemWriter.write(new Chunk<>(
+                new BillingData(2025, 3, 1002, "404-555-1002", 1.5f, 3, 4),
+                new BillingData(2025, 3, 1004, "404-555-1004", 1.5f, 3, 4)));
+        new DeltaCompletionTasklet(jdbcTemplate.getDataSource()).execute(new StepContribution(stepExecution), null);
+
+        // Then
+        Assertions.assertEquals(List.of(1002, 1004), jdbcTemplate.queryForList(
+                "SELECT ACCOUNT_ID FROM BILLING_CHANGED_ACCOUNT WHERE DATA_YEAR = 2025 AND DATA_MONTH = 3 "
+                        + "AND CLAIMED_BY IS NULL ORDER BY ACCOUNT_ID", Integer.class));
+        Assertions.assertEquals(2, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_CHANGED_ACCOUNT"));
+    }
+
+    @Test
+    void testAccountUsageMatchesBillingDataAndFeedsAccountReport() throws Exception {
+        // Given
+        var parameters = new JobParametersBuilder()
+                .addString("input.file", "src/main/resources/telecom_data_next.csv")
+                .addString("output.file", "staging/line-report.csv")
+                .addString("account.file", "staging/account-report.csv")
+                .addString("report.level", "account")
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+
+        // When
+        var result = jobLauncherTestUtils.launchJob(parameters);
+
+        // Then
+        Assertions.assertEquals(BatchStatus.COMPLETED, result.getStatus());
+        var accounts = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT (DATA_YEAR, DATA_MONTH, ACCOUNT_ID)) FROM BILLING_DATA", Integer.class);
+        var matching = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM BILLING_ACCOUNT_USAGE u JOIN (
+                    SELECT DATA_YEAR, DATA_MONTH, ACCOUNT_ID, SUM(DATA_USAGE::DOUBLE PRECISION) AS DATA_USAGE,
+                           SUM(CALL_DURATION) AS CALL_DURATION, SUM(SMS_COUNT) AS SMS_COUNT, COUNT(*) AS RECORD_COUNT
+                    FROM BILLING_DATA GROUP BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID) d
+                USING (DATA_YEAR, DATA_MONTH, ACCOUNT_ID)
+                WHERE u.CALL_DURATION = d.CALL_DURATION AND u.SMS_COUNT = d.SMS_COUNT
+                  AND u.RECORD_COUNT = d.RECORD_COUNT AND abs(u.DATA_USAGE - d.DATA_USAGE) < 0.01
+                """, Integer.class);
+        Assertions.assertEquals(accounts, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_ACCOUNT_USAGE"));
+        Assertions.assertEquals(accounts, matching);
+        var accountReport = Files.readAllLines(Paths.get("staging", "account-report.csv"));
+        Assertions.assertFalse(accountReport.isEmpty());
+        Assertions.assertEquals(accountReport.size(), accountReport.stream().map(line -> line.split(",")[2]).distinct().count());
+    }
+
+    @Test
+    void testAccountUsageAddsOnlyTheChangeOfReplacedRecords() throws Exception {
+        // Given
+        var first = new Chunk<>(
+                new BillingData(2025, 3, 1001, "404-555-1001", 1.5f, 10, 1),
+                new BillingData(2025, 3, 1001, "404-555-1002", 2.5f, 20, 2),
+                new BillingData(2025, 3, 1002, "404-555-2001", 4.0f, 40, 4),
+                // Repeated key within a chunk: the last record wins, as in the data writers
+                new BillingData(2025, 3, 1001, "404-555-1001", 0.5f, 5, 1));
+        var corrections = new Chunk<>(
+                new BillingData(2025, 3, 1001, "404-555-1002", 3.0f, 25, 0),
+                new BillingData(2025, 3, 1001, "404-555-1003", 1.0f, 1, 1),
+                new BillingData(2025, 3, 1002, "404-555-2001", 4.0f, 40, 4));
+
+        // When
+        for (var chunk : List.of(first, corrections)) {
+            accountUsageItemWriter.write(chunk);
+            billingDataJdbcBatchItemWriter.write(chunk);
+        }
+
+        // Then
+        Assertions.assertEquals(List.of("1001,4.5,31,2,3", "1002,4.0,40,4,1"), jdbcTemplate.query(
+                "SELECT * FROM BILLING_ACCOUNT_USAGE WHERE DATA_YEAR = 2025 AND DATA_MONTH = 3 ORDER BY ACCOUNT_ID",
+                (rs, rowNum) -> rs.getInt("ACCOUNT_ID") + "," + rs.getDouble("DATA_USAGE") + ","
+                        + rs.getLong("CALL_DURATION") + "," + rs.getLong("SMS_COUNT") + "," + rs.getInt("RECORD_COUNT")));
+        Assertions.assertEquals(4, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA"));
+    }
+
+    @Test
+    void testStreamingReportMatchesStagedReport() throws Exception {
+        // Given
+        var staged = new JobParametersBuilder()
+                .addString("input.file", "src/main/resources/telecom_data_next.csv")
+                .addString("output.file", "staging/staged-report.csv")
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+        var streaming = new JobParametersBuilder(staged)
+                .addString("output.file", "staging/streaming-report.csv")
+                .addString("billing.mode", "streaming")
+                .addString("streaming.persist", "true")
+                .toJobParameters();
+        // Sums of floats may differ in the last bits when chunks end elsewhere
+        var usageQuery = "SELECT DATA_YEAR, DATA_MONTH, ACCOUNT_ID, ROUND(DATA_USAGE::NUMERIC, 2) AS DATA_USAGE, "
+                + "CALL_DURATION, SMS_COUNT, RECORD_COUNT FROM BILLING_ACCOUNT_USAGE ORDER BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID";
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncherTestUtils.launchJob(staged).getStatus());
+        var usage = jdbcTemplate.queryForList(usageQuery);
+        var changed = jdbcTemplate.queryForList("SELECT * FROM BILLING_CHANGED_ACCOUNT ORDER BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID");
+        setUp();
+
+        // When
+        var result = jobLauncherTestUtils.launchJob(streaming);
+
+        // Then
+        Assertions.assertEquals(BatchStatus.COMPLETED, result.getStatus());
+        Assertions.assertEquals(Files.readAllLines(Paths.get("staging", "staged-report.csv")).stream().sorted().toList(),
+                Files.readAllLines(Paths.get("staging", "streaming-report.csv")).stream().sorted().toList());
+        Assertions.assertEquals(160, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA"));
+        Assertions.assertEquals(usage, jdbcTemplate.queryForList(usageQuery));
+        Assertions.assertEquals(changed, jdbcTemplate.queryForList("SELECT * FROM BILLING_CHANGED_ACCOUNT ORDER BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID"));
+    }
+
+    @Test
+    void testReingestionUpsertsOnNaturalKey() throws Exception {
+        // Given
+        var first = new JobParametersBuilder()
+                .addString("input.file", "src/main/resources/telecom_data_next.csv")
+                .addString("output.file", "staging/upsert-report-1.csv")
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+        var copyWithDedup = new JobParametersBuilder(first)
+                .addString("output.file", "staging/upsert-report-2.csv")
+                .addString("ingestion.writer", "copy")
+                .addString("ingestion.dedup", "true")
+                .toJobParameters();
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncherTestUtils.launchJob(first).getStatus());
+        var usage = jdbcTemplate.queryForList("SELECT * FROM BILLING_ACCOUNT_USAGE ORDER BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID");
+
+        // When
+        var result = jobLauncherTestUtils.launchJob(copyWithDedup);
+
+        // Then
+        Assertions.assertEquals(BatchStatus.COMPLETED, result.getStatus());
+        Assertions.assertEquals(160, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA"));
+        Assertions.assertEquals(usage, jdbcTemplate.queryForList("SELECT * FROM BILLING_ACCOUNT_USAGE ORDER BY DATA_YEAR, DATA_MONTH, ACCOUNT_ID"));
+        Assertions.assertEquals(Files.readAllLines(Paths.get("staging", "upsert-report-1.csv")),
+                Files.readAllLines(Paths.get("staging", "upsert-report-2.csv")));
+    }
+
+    @Test
+    void testMonthlyPartitionsArePreparedAndExpired() throws Exception {
+        // Given
+        var parameters = new JobParametersBuilder()
+                .addString("input.file", "src/main/resources/telecom_data_next.csv")
+                .addString("output.file", "staging/partitioned-report.csv")
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+        var retention = new JobParametersBuilder()
+                .addString("retention.before", "2025-03")
+                .toJobParameters();
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncherTestUtils.launchJob(parameters).getStatus());
+        Assertions.assertEquals(50, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_2025_03"));
+
+        // When
+        var result = jobLauncher.run(billingDataRetentionJob, retention);
+
+        // Then
+        Assertions.assertEquals(BatchStatus.COMPLETED, result.getStatus());
+        Assertions.assertEquals(0, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_DEFAULT"));
+        Assertions.assertEquals(60, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA"));
+        Assertions.assertEquals(10, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_2025_04"));
+        Assertions.assertEquals(50, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_2025_01"));
+        Assertions.assertEquals(List.of("billing_data_2025_03", "billing_data_2025_04"), attachedPartitions());
+        for (String table : List.of("BILLING_ACCOUNT_USAGE", "BILLING_CHANGED_ACCOUNT")) {
+            Assertions.assertEquals(0, JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, table,
+                    "(DATA_YEAR, DATA_MONTH) < (2025, 3)"), table);
+        }
+    }
+
+    @Test
+    void testExpiredMonthsAreNotReattached() throws Exception {
+        // Given
+        var parameters = new JobParametersBuilder()
+                .addString("input.file", "src/main/resources/telecom_data_next.csv")
+                .addString("output.file", "staging/expiry-report-1.csv")
+                .addJobParameter("data.year", 2025, Integer.class)
+                .addJobParameter("data.month", 3, Integer.class)
+                .toJobParameters();
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncherTestUtils.launchJob(parameters).getStatus());
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncher.run(billingDataRetentionJob, new JobParametersBuilder()
+                .addString("retention.before", "2025-03")
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters()).getStatus());
+        var archived = JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_2025_01");
+        // Stray rows of the expired months land in the default partition again
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobLauncherTestUtils.launchJob(new JobParametersBuilder(parameters)
+                .addString("output.file", "staging/expiry-report-2.csv")
+                .toJobParameters()).getStatus());
+        Assertions.assertEquals(100, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_DEFAULT"));
+
+        // When
+        var preparation = jobLauncher.run(billingDataRetentionJob, new JobParametersBuilder()
+                .addString("retention.before", "2025-02")
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+        var expiredRun = jobLauncherTestUtils.launchJob(new JobParametersBuilder(parameters)
+                .addString("output.file", "staging/expiry-report-3.csv")
+                .addJobParameter("data.month", 1, Integer.class)
+                .toJobParameters());
+
+        // Then
+        Assertions.assertEquals(BatchStatus.COMPLETED, preparation.getStatus());
+        Assertions.assertEquals(0, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_DEFAULT"));
+        Assertions.assertEquals(archived, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_2025_01"));
+        Assertions.assertEquals(List.of("billing_data_2025_03", "billing_data_2025_04"), attachedPartitions());
+        Assertions.assertEquals(0, JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BILLING_ACCOUNT_USAGE",
+                "(DATA_YEAR, DATA_MONTH) < (2025, 3)"));
+        Assertions.assertEquals(BatchStatus.FAILED, expiredRun.getStatus());
+    }
+
+    @Test
+    void testOutOfRangeMonthsMoveWithTheirPartitionBound() {
+        // Given
+        for (int[] period : new int[][] {{2024, 12}, {2024, 13}, {2025, 0}}) {
+            jdbcTemplate.update("INSERT INTO BILLING_DATA VALUES (?, ?, 1001, '404-555-1234', 1.5, 1, 1)",
+                    period[0], period[1]);
+        }
+
+        // When
+        billingDataPartitionManager.ensurePartition(YearMonth.of(2024, 12), false);
+
+        // Then
+        Assertions.assertEquals(0, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_DEFAULT"));
+        Assertions.assertEquals(3, JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_DATA_2024_12"));
+    }
+
+    private List<String> attachedPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'BILLING_DATA'::regclass AND c.relname LIKE 'billing_data_2025%'
+                ORDER BY c.relname
+                """, String.class);
+    }
+
+    @Test
+    void testKeysetPagesSplitAccountsWithoutLosingRows() throws Exception {
+        // Given
+        List<BillingData> rows = new ArrayList<>();
+        for (int account = 1001; account <= 1004; account++) {
+            for (int phone = 0; phone < 3 + account % 3; phone++) {
+                rows.add(new BillingData(2024, 6, account, "404-555-" + (1000 + phone), phone + 0.5f, phone, phone));
+            }
+        }
+        for (BillingData row : rows) {
+            jdbcTemplate.update("INSERT INTO BILLING_DATA VALUES (?, ?, ?, ?, ?, ?, ?)", row.dataYear(), row.dataMonth(),
+                    row.accountId(), row.phoneNumber(), row.dataUsage(), row.callDuration(), row.smsCount());
+        }
+        var reports = rows.stream().map(row -> new ReportingData(row, row.callDuration() * 0.5)).toList();
+        billingReportTableWriter.write(new Chunk<>(reports));
+        // Re-written rows replace their report rows instead of duplicating them
+        billingReportTableWriter.write(new Chunk<>(reports));
+        var reportProvider = new BillingDataKeysetQueryProvider();
+        reportProvider.setFromClause("BILLING_REPORT");
+
+        // When
+        var data = readAll(new BillingDataKeysetQueryProvider(), 4);
+        var report = readAll(reportProvider, 4);
+
+        // Then
+        Assertions.assertEquals(rows.size(), JdbcTestUtils.countRowsInTable(jdbcTemplate, "BILLING_REPORT"));
+        Assertions.assertEquals(rows, data);
+        Assertions.assertEquals(rows, report);
+    }
+
+    private List<BillingData> readAll(BillingDataKeysetQueryProvider queryProvider, int pageSize) throws Exception {
+        JdbcPagingItemReader<BillingData> reader = new JdbcPagingItemReaderBuilder<BillingData>()
+                .name("keysetTestReader")
+                .dataSource(jdbcTemplate.getDataSource())
+                .queryProvider(queryProvider)
+                .parameterValues(Map.of("dataYear", 2024, "dataMonth", 6,
+                        "minAccountId", Integer.MIN_VALUE, "maxAccountId", Integer.MAX_VALUE))
+                .pageSize(pageSize)
+                .rowMapper(new DataClassRowMapper<>(BillingData.class))
+                .build();
+        reader.afterPropertiesSet();
+        reader.open(new ExecutionContext());
+        List<BillingData> items = new ArrayList<>();
+        try {
+            BillingData item;
+            while ((item = reader.read()) != null) {
+                items.add(item);
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+
 }
@@ -0,0 +1,138 @@
+package self.development.batch.billingjob;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import self.development.batch.billingjob.partition.BillingDataPartitionManager;
+
+/**
+ * Runs {@code mainJob} end-to-end on generated input against the local Postgres and records the throughput of every
+ * step at 1M, 10M and 100M lines. The input has the configured account skew and one malformed line in 10,000. Run
+ * with {@code BILLING_LOAD_TEST=true ./gradlew test --tests '*BillingJobLoadTests'};
+ * {@code BILLING_LOAD_MAX_ROWS=10000000} leaves out the larger sizes. Results are logged and appended to
+ * {@code build/load/load-test.csv}.
+ */
+@SpringBootTest(properties = "spring.cellular.ingestion.skip-limit=2147483647")
+@EnabledIfEnvironmentVariable(named = "BILLING_LOAD_TEST", matches = "true")
+class BillingJobLoadTests {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingJobLoadTests.class);
+
+    private static final int LOAD_YEAR = 1998;
+    private static final int LOAD_MONTH = 1;
+    private static final double FAULT_RATIO = 0.0001;
+    private static final Path DIRECTORY = Paths.get("build", "load");
+    private static final String RESULTS_HEADER = "rows,job,step,status,read,written,skipped,millis,rowsPerSecond";
+
+    @Autowired
+    private Job job;
+
+    @Autowired
+    @Qualifier("dataGenerationJob")
+    private Job dataGenerationJob;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + BillingDataPartitionManager.partitionName(LOAD_YEAR, LOAD_MONTH));
+        JdbcTestUtils.deleteFromTableWhere(jdbcTemplate, "BILLING_DATA", "DATA_YEAR = ?", LOAD_YEAR);
+        JdbcTestUtils.deleteFromTableWhere(jdbcTemplate, "BILLING_ACCOUNT_USAGE", "DATA_YEAR = ?", LOAD_YEAR);
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "BILLING_RETENTION");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1_000_000, 10_000_000, 100_000_000})
+    void mainJobThroughput(long rows) throws Exception {
+        Assumptions.assumeTrue(rows <= maxRows(), () -> rows + " lines are above BILLING_LOAD_MAX_ROWS");
+
+        // Given
+        Files.createDirectories(DIRECTORY);
+        var input = DIRECTORY.resolve("telecom_data_" + rows + ".csv.zst");
+        var report = DIRECTORY.resolve("report_" + rows + ".csv");
+        var generation = jobLauncher.run(dataGenerationJob, new JobParametersBuilder()
+                .addString("output.file", input.toString())
+                .addLong("generator.rows", rows)
+                .addDouble("generator.fault-ratio", FAULT_RATIO)
+                .addJobParameter("data.year", LOAD_YEAR, Integer.class)
+                .addJobParameter("data.month", LOAD_MONTH, Integer.class)
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+        Assertions.assertEquals(BatchStatus.COMPLETED, generation.getStatus());
+
+        // When
+        var result = jobLauncher.run(job, new JobParametersBuilder()
+                .addString("input.file", input.toString())
+                .addString("output.file", report.toString())
+                .addJobParameter("data.year", LOAD_YEAR, Integer.class)
+                .addJobParameter("data.month", LOAD_MONTH, Integer.class)
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+
+        // Then
+        record(rows, generation);
+        record(rows, result);
+        Assertions.assertEquals(BatchStatus.COMPLETED, result.getStatus());
+        long skipped = result.getStepExecutions().stream().mapToLong(StepExecution::getReadSkipCount).sum();
+        Assertions.assertTrue(skipped > 0, "expected malformed lines on the skip path");
+        Assertions.assertEquals(rows, skipped + JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BILLING_DATA",
+                "DATA_YEAR = " + LOAD_YEAR + " AND DATA_MONTH = " + LOAD_MONTH));
+        Files.deleteIfExists(report);
+    }
+
+    private static void record(long rows, JobExecution execution) throws Exception {
+        var results = DIRECTORY.resolve("load-test.csv");
+        List<String> lines = new ArrayList<>();
+        if (!Files.exists(results)) {
+            lines.add(RESULTS_HEADER);
+        }
+        for (StepExecution step : execution.getStepExecutions()) {
+            long millis = Duration.between(step.getStartTime(), step.getEndTime()).toMillis();
+            long items = Math.max(step.getReadCount(), step.getWriteCount());
+            double rowsPerSecond = millis > 0 ? items * 1000.0 / millis : 0;
+            log.info("{} lines, {}/{}: {} read, {} written, {} skipped in {} ms ({} rows/s)", rows,
+                    execution.getJobInstance().getJobName(), step.getStepName(), step.getReadCount(),
+                    step.getWriteCount(), step.getReadSkipCount(), millis, Math.round(rowsPerSecond));
+            lines.add(String.format(Locale.ROOT, "%d,%s,%s,%s,%d,%d,%d,%d,%.0f", rows,
+                    execution.getJobInstance().getJobName(), step.getStepName(), step.getStatus(), step.getReadCount(),
+                    step.getWriteCount(), step.getReadSkipCount(), millis, rowsPerSecond));
+        }
+        Files.write(results, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static long maxRows() {
+        var maxRows = System.getenv("BILLING_LOAD_MAX_ROWS");
+        return maxRows != null ? Long.parseLong(maxRows) : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,69 @@
+package self.development.batch.billingjob.generator;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BillingDataGeneratorTests {
+
+    @Test
+    void sameSeedGivesSameFile() throws Exception {
+        // Given
+        var first = new BillingDataGenerator(7L, 1_000, 1.1, 0.01, 2025, 3);
+        var second = new BillingDataGenerator(7L, 1_000, 1.1, 0.01, 2025, 3);
+
+        // When / Then
+        Assertions.assertEquals(generate(first, 5_000), generate(second, 5_000));
+        Assertions.assertNotEquals(generate(new BillingDataGenerator(8L, 1_000, 1.1, 0.01, 2025, 3), 5_000),
+                generate(new BillingDataGenerator(7L, 1_000, 1.1, 0.01, 2025, 3), 5_000));
+    }
+
+    @Test
+    void skewedAccountsHoldMostLinesAndPhoneNumbersAreUnique() throws Exception {
+        // Given
+        var generator = new BillingDataGenerator(42L, 10_000, 1.1, 0, 2025, 3);
+
+        // When
+        List<String> lines = generate(generator, 100_000);
+
+        // Then
+        Map<String, Integer> linesPerAccount = new HashMap<>();
+        var phoneNumbers = new HashSet<String>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            Assertions.assertEquals(7, fields.length);
+            linesPerAccount.merge(fields[2], 1, Integer::sum);
+            phoneNumbers.add(fields[3]);
+        }
+        Assertions.assertEquals(100_000, phoneNumbers.size());
+        int topTen = linesPerAccount.values().stream().sorted((a, b) -> b - a).limit(10).mapToInt(Integer::intValue).sum();
+        Assertions.assertTrue(topTen > 25_000, "top 10 of 10,000 accounts hold only " + topTen + " lines");
+        Assertions.assertTrue(linesPerAccount.get(String.valueOf(BillingDataGenerator.FIRST_ACCOUNT_ID)) > 10_000);
+    }
+
+    @Test
+    void faultRatioProducesMalformedLines() throws Exception {
+        // Given
+        var generator = new BillingDataGenerator(42L, 1_000, 0, 0.05, 2025, 3);
+
+        // When
+        List<String> lines = generate(generator, 20_000);
+
+        // Then
+        long malformed = lines.subList(1, lines.size()).stream()
+                .filter(line -> line.split(",").length != 7 || line.contains("ACC") || line.contains("n/a"))
+                .count();
+        Assertions.assertEquals(generator.faults(), malformed);
+        Assertions.assertTrue(malformed > 800 && malformed < 1_200, "malformed lines: " + malformed);
+    }
+
+    private static List<String> generate(BillingDataGenerator generator, long rows) throws Exception {
+        var writer = new StringWriter();
+        generator.write(writer, rows);
+        return writer.toString().lines().toList();
+    }
+}
@@ -0,0 +1,103 @@
+package self.development.batch.billingjob.metrics;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import self.development.batch.billingjob.exception.PricingException;
+
+class BillingMetricsListenerTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void documentedMetersAreRegisteredAndWrittenToMetricsFile() throws Exception {
+        // Given
+        var registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        var listener = new BillingMetricsListener(registry);
+        var metricsFile = this.directory.resolve("metrics").resolve("run.prom");
+        var parameters = new JobParametersBuilder()
+                .addString(MetricsFileExporter.METRICS_FILE, metricsFile.toString())
+                .toJobParameters();
+        var jobExecution = MetaDataInstanceFactory.createJobExecution("billingJob", 1L, 1L, parameters);
+        var stepExecution = new StepExecution("reportGeneration:partition0", jobExecution, 2L);
+        stepExecution.setStartTime(LocalDateTime.now().minusSeconds(2));
+        stepExecution.setReadCount(100);
+        stepExecution.setWriteCount(90);
+        stepExecution.setFilterCount(8);
+        stepExecution.setProcessSkipCount(2);
+        stepExecution.incrementRollbackCount();
+        var chunkContext = new ChunkContext(new StepContext(stepExecution));
+
+        // When
+        listener.beforeChunk(chunkContext);
+        listener.afterChunk(chunkContext);
+        listener.beforeChunk(chunkContext);
+        listener.afterChunkError(chunkContext);
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            listener.onError(null, null, new PricingException("Error while retrieving data pricing"));
+        } finally {
+            StepSynchronizationManager.close();
+        }
+        listener.afterStep(stepExecution);
+        new MetricsFileExporter(registry).afterJob(jobExecution);
+
+        // Then
+        Assertions.assertEquals(1, registry.get("billing.chunk").tags("step", "reportGeneration", "outcome", "success").timer().count());
+        Assertions.assertEquals(1, registry.get("billing.chunk").tags("step", "reportGeneration", "outcome", "error").timer().count());
+        Assertions.assertEquals(1, registry.get("billing.step.retries").tags("step", "reportGeneration", "exception", "PricingException").counter().count());
+        Assertions.assertEquals(100, registry.get("billing.step.items").tags("step", "reportGeneration", "kind", "read").counter().count());
+        Assertions.assertEquals(90, registry.get("billing.step.items").tags("step", "reportGeneration", "kind", "write").counter().count());
+        Assertions.assertEquals(8, registry.get("billing.step.items").tags("step", "reportGeneration", "kind", "filter").counter().count());
+        Assertions.assertEquals(2, registry.get("billing.step.items").tags("step", "reportGeneration", "kind", "skip").counter().count());
+        Assertions.assertEquals(1, registry.get("billing.step.rollbacks").tag("step", "reportGeneration").counter().count());
+        Assertions.assertEquals(1, registry.get("billing.step.throughput").tag("step", "reportGeneration").summary().count());
+
+        var exposition = Files.readAllLines(metricsFile, StandardCharsets.UTF_8);
+        assertExposed(exposition, "billing_chunk_seconds_count", "step=\"reportGeneration\"", "outcome=\"success\"");
+        assertExposed(exposition, "billing_chunk_seconds_count", "step=\"reportGeneration\"", "outcome=\"error\"");
+        assertExposed(exposition, "billing_step_retries_total", "step=\"reportGeneration\"", "exception=\"PricingException\"");
+        for (String kind : List.of("read", "write", "filter", "skip")) {
+            assertExposed(exposition, "billing_step_items_total", "step=\"reportGeneration\"", "kind=\"" + kind + "\"");
+        }
+        assertExposed(exposition, "billing_step_rollbacks_total", "step=\"reportGeneration\"");
+        assertExposed(exposition, "billing_step_throughput", "step=\"reportGeneration\"");
+    }
+
+    @Test
+    void missingMetricsFileParameterWritesNothing() throws Exception {
+        // Given
+        var registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        var jobExecution = MetaDataInstanceFactory.createJobExecution();
+
+        // When
+        new MetricsFileExporter(registry).afterJob(jobExecution);
+
+        // Then
+        try (var files = Files.list(this.directory)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    private static void assertExposed(List<String> exposition, String name, String... labels) {
+        boolean exposed = exposition.stream()
+                .filter(line -> line.startsWith(name))
+                .anyMatch(line -> Arrays.stream(labels).allMatch(line::contains));
+        Assertions.assertTrue(exposed, name + " with " + Arrays.toString(labels) + " not found in the metrics file");
+    }
+}
@@ -0,0 +1,168 @@
+package self.development.batch.billingjob.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.reader.MappedBillingDataReader;
+
+class FileRangePartitionerTests {
+
+    private static final String HEADER = "dataYear,dataMonth,accountId,phoneNumber,dataUsage,callDuration,smsCount";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void crlfLinesSplitAfterLineFeed() throws Exception {
+        // Given
+        var file = write("crlf.csv", HEADER + "\r\n" + lines(0, 40, "\r\n"));
+
+        // When
+        var partitions = new FileRangePartitioner(file).partition(4);
+
+        // Then
+        Assertions.assertEquals(4, partitions.size());
+        assertRangesCoverFile(file, partitions);
+        Assertions.assertEquals(records(0, 40), readAll(file, partitions));
+    }
+
+    @Test
+    void headerSpanningSplitPointStaysInFirstPartition() throws Exception {
+        // Given
+        var header = HEADER + ",".repeat(400);
+        var file = write("long-header.csv", header + "\n" + lines(0, 4, "\n"));
+
+        // When
+        var partitions = new FileRangePartitioner(file).partition(4);
+
+        // Then
+        assertRangesCoverFile(file, partitions);
+        var first = partitions.get("partition0");
+        Assertions.assertEquals(header.length() + 1, first.getLong(FileRangePartitioner.END_OFFSET));
+        Assertions.assertEquals(records(0, 4), readAll(file, partitions));
+    }
+
+    @Test
+    void fileSmallerThanGridGetsFewerPartitions() throws Exception {
+        // Given
+        var file = write("small.csv", HEADER + "\n" + lines(0, 2, "\n"));
+
+        // When
+        var partitions = new FileRangePartitioner(file).partition(16);
+
+        // Then
+        Assertions.assertTrue(partitions.size() <= 3, "expected at most one partition per line, got " + partitions.size());
+        assertRangesCoverFile(file, partitions);
+        Assertions.assertEquals(records(0, 2), readAll(file, partitions));
+    }
+
+    @Test
+    void laterPartitionsReportGlobalLineNumbers() throws Exception {
+        // Given
+        var body = lines(0, 30, "\n") + "2025,1,1004S,404-555-0030,1.5,3,4\n" + lines(31, 40, "\n");
+        var file = write("faulty.csv", HEADER + "\n" + body);
+        var partitions = new FileRangePartitioner(file).partition(4);
+        List<FlatFileParseException> errors = new ArrayList<>();
+        List<Integer> errorStartLines = new ArrayList<>();
+
+        // When
+        for (ExecutionContext range : partitions.values()) {
+            var reader = reader(file, range);
+            reader.open(new ExecutionContext());
+            try {
+                while (true) {
+                    try {
+                        if (reader.read() == null) {
+                            break;
+                        }
+                    } catch (FlatFileParseException e) {
+                        errors.add(e);
+                        errorStartLines.add(range.getInt(FileRangePartitioner.START_LINE));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        // Then
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertEquals(32, errors.get(0).getLineNumber());
+        Assertions.assertTrue(errorStartLines.get(0) > 0, "the malformed line should be read by a later partition");
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(this.directory.resolve(name), content, StandardCharsets.US_ASCII);
+    }
+
+    private static String lines(int from, int to, String lineSeparator) {
+        var lines = new StringBuilder();
+        for (BillingData record : records(from, to)) {
+            lines.append(record.dataYear()).append(',').append(record.dataMonth()).append(',')
+                    .append(record.accountId()).append(',').append(record.phoneNumber()).append(',')
+                    .append(record.dataUsage()).append(',').append(record.callDuration()).append(',')
+                    .append(record.smsCount()).append(lineSeparator);
+        }
+        return lines.toString();
+    }
+
+    private static List<BillingData> records(int from, int to) {
+        List<BillingData> records = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            records.add(new BillingData(2025, 1, 1000 + i, String.format("404-555-%04d", i), i + 0.5f, i * 3, i % 10));
+        }
+        return records;
+    }
+
+    private static void assertRangesCoverFile(Path file, Map<String, ExecutionContext> partitions) throws Exception {
+        var bytes = Files.readAllBytes(file);
+        var ranges = partitions.values().stream()
+                .sorted(Comparator.comparingLong(context -> context.getLong(FileRangePartitioner.START_OFFSET)))
+                .toList();
+        long expectedStart = 0;
+        for (ExecutionContext range : ranges) {
+            long start = range.getLong(FileRangePartitioner.START_OFFSET);
+            long end = range.getLong(FileRangePartitioner.END_OFFSET);
+            Assertions.assertEquals(expectedStart, start);
+            Assertions.assertTrue(end > start, "empty range at " + start);
+            Assertions.assertTrue(start == 0 || bytes[(int) start - 1] == '\n', "range starts mid-line at " + start);
+            expectedStart = end;
+        }
+        Assertions.assertEquals(bytes.length, expectedStart);
+    }
+
+    private static List<BillingData> readAll(Path file, Map<String, ExecutionContext> partitions) throws Exception {
+        List<BillingData> items = new ArrayList<>();
+        var ranges = partitions.values().stream()
+                .sorted(Comparator.comparingLong(context -> context.getLong(FileRangePartitioner.START_OFFSET)))
+                .toList();
+        for (ExecutionContext range : ranges) {
+            var reader = reader(file, range);
+            reader.open(new ExecutionContext());
+            try {
+                BillingData item;
+                while ((item = reader.read()) != null) {
+                    items.add(item);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return items;
+    }
+
+    private static MappedBillingDataReader reader(Path file, ExecutionContext range) {
+        return new MappedBillingDataReader(file, 1, range.getLong(FileRangePartitioner.START_OFFSET),
+                range.getLong(FileRangePartitioner.END_OFFSET), range.getInt(FileRangePartitioner.START_LINE));
+    }
+}
@@ -0,0 +1,178 @@
+package self.development.batch.billingjob.policy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import self.development.batch.billingjob.exception.PricingException;
+
+class AdaptiveChunkCompletionPolicyTests {
+
+    private static final Duration TARGET = Duration.ofMillis(100);
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicBoolean heapPressure = new AtomicBoolean();
+
+    @Test
+    void chunkAtTargetLatencyKeepsSize() {
+        // Given
+        var policy = policy(100, 10, 1000);
+
+        // When
+        chunk(policy, 100);
+
+        // Then
+        Assertions.assertEquals(100, size(policy));
+    }
+
+    @Test
+    void chunkSizeMovesTowardsTargetLatency() {
+        // Given
+        var faster = policy(100, 10, 1000);
+        var slower = policy(100, 10, 1000);
+
+        // When
+        chunk(faster, 80);
+        chunk(slower, 125);
+
+        // Then
+        Assertions.assertEquals(125, size(faster));
+        Assertions.assertEquals(80, size(slower));
+    }
+
+    @Test
+    void chunkSizeChangesAtMostByHalfPerChunk() {
+        // Given
+        var fast = policy(100, 10, 1000);
+        var slow = policy(100, 10, 1000);
+
+        // When
+        chunk(fast, 1);
+        chunk(slow, 10_000);
+
+        // Then
+        Assertions.assertEquals(150, size(fast));
+        Assertions.assertEquals(50, size(slow));
+    }
+
+    @Test
+    void rolledBackChunkHalvesSize() {
+        // Given
+        var policy = policy(100, 10, 1000);
+
+        // When
+        policy.beforeChunk(null);
+        this.now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        policy.afterChunkError(null);
+
+        // Then
+        Assertions.assertEquals(50, size(policy));
+    }
+
+    @Test
+    void chunkWithRetriesHalvesSize() {
+        // Given
+        var policy = policy(100, 10, 1000);
+
+        // When
+        policy.beforeChunk(null);
+        policy.onError(null, null, new PricingException("Error while retrieving data pricing"));
+        this.now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        policy.afterChunk(null);
+        int afterRetry = size(policy);
+        chunk(policy, 100);
+
+        // Then
+        Assertions.assertEquals(50, afterRetry);
+        Assertions.assertEquals(50, size(policy), "retries are counted per chunk");
+    }
+
+    @Test
+    void heapPressureHalvesSize() {
+        // Given
+        var policy = policy(100, 10, 1000);
+        this.heapPressure.set(true);
+
+        // When
+        chunk(policy, 1);
+
+        // Then
+        Assertions.assertEquals(50, size(policy));
+    }
+
+    @Test
+    void sizeStaysWithinBounds() {
+        // Given
+        var policy = policy(100, 60, 120);
+
+        // When
+        chunk(policy, 10_000);
+        int shrunk = size(policy);
+        chunk(policy, 1);
+        chunk(policy, 1);
+        int grown = size(policy);
+
+        // Then
+        Assertions.assertEquals(60, shrunk);
+        Assertions.assertEquals(120, grown);
+    }
+
+    @Test
+    void fixedPolicyNeverResizes() {
+        // Given
+        var policy = AdaptiveChunkCompletionPolicy.fixed(100, new SimpleMeterRegistry());
+
+        // When
+        policy.beforeChunk(null);
+        policy.afterChunkError(null);
+
+        // Then
+        Assertions.assertEquals(100, size(policy));
+    }
+
+    @Test
+    void restartedStepResumesWithSavedSize() {
+        // Given
+        var policy = policy(100, 10, 1000);
+        var stepExecution = MetaDataInstanceFactory.createStepExecution();
+        policy.beforeStep(stepExecution);
+        chunk(policy, 1);
+        policy.afterStep(stepExecution);
+        var restarted = policy(100, 10, 1000);
+        var outOfBounds = policy(100, 10, 120);
+
+        // When
+        restarted.beforeStep(stepExecution);
+        outOfBounds.beforeStep(stepExecution);
+
+        // Then
+        Assertions.assertEquals(150, stepExecution.getExecutionContext().getInt(AdaptiveChunkCompletionPolicy.CHUNK_SIZE));
+        Assertions.assertEquals(150, size(restarted));
+        Assertions.assertEquals(120, size(outOfBounds));
+    }
+
+    private AdaptiveChunkCompletionPolicy policy(int initialSize, int minSize, int maxSize) {
+        return new AdaptiveChunkCompletionPolicy(initialSize, minSize, maxSize, TARGET, new SimpleMeterRegistry(),
+                this.now::get, this.heapPressure::get);
+    }
+
+    private void chunk(AdaptiveChunkCompletionPolicy policy, long latencyMillis) {
+        policy.beforeChunk(null);
+        this.now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        policy.afterChunk(null);
+    }
+
+    private static int size(AdaptiveChunkCompletionPolicy policy) {
+        var context = policy.start(null);
+        int size = 0;
+        while (!policy.isComplete(context)) {
+            policy.update(context);
+            size++;
+        }
+        return size;
+    }
+}
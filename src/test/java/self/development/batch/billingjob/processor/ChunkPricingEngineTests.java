@@ -0,0 +1,162 @@
+package self.development.batch.billingjob.processor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import self.development.batch.billingjob.model.AccountPlan;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.DataTier;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.model.TariffPlan;
+import self.development.batch.billingjob.service.CircuitBreaker;
+import self.development.batch.billingjob.service.PricingCache;
+import self.development.batch.billingjob.service.PricingService;
+import self.development.batch.billingjob.service.TariffPlanCache;
+import self.development.batch.billingjob.service.TariffPlanRepository;
+
+class ChunkPricingEngineTests {
+
+    private PricingCache pricingCache;
+
+    @BeforeEach
+    void setUp() {
+        this.pricingCache = new PricingCache(new StablePricingService(), new CircuitBreaker(3, Duration.ofSeconds(30)), 1,
+                Duration.ZERO, new SimpleMeterRegistry());
+        this.pricingCache.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.pricingCache.close();
+    }
+
+    @Test
+    void pricesChunksExactlyLikeBillingDataProcessor() {
+        // Given
+        var processor = new BillingDataProcessor(this.pricingCache, 0.5f, 0.1f, 150f);
+        var engine = new ChunkPricingEngine(this.pricingCache, 0.5f, 0.1f, 150f);
+        var random = new Random(42L);
+        List<BillingData> items = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            items.add(new BillingData(2023, 1, i, "555-" + i, random.nextFloat() * 20_000f,
+                    random.nextInt(400), random.nextInt(600)));
+        }
+        items.add(new BillingData(2023, 1, -1, "555-threshold", 0f, 300, 0));
+        items.add(new BillingData(2023, 1, -2, "555-below", 0f, 299, 9));
+
+        // When
+        List<ReportingData> expected = new ArrayList<>();
+        for (BillingData item : items) {
+            ReportingData report = processor.process(item);
+            if (report != null) {
+                expected.add(report);
+            }
+        }
+        List<ReportingData> actual = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += 100) {
+            actual.addAll(engine.price(items.subList(from, Math.min(from + 100, items.size()))));
+        }
+
+        // Then
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertSame(expected.get(i).billingData(), actual.get(i).billingData());
+            Assertions.assertEquals(Double.doubleToRawLongBits(expected.get(i).billingTotal()),
+                    Double.doubleToRawLongBits(actual.get(i).billingTotal()));
+        }
+    }
+
+    @Test
+    void pricesPlanChunksExactlyLikeBillingDataProcessor() {
+        // Given
+        var tariffPlans = new TariffPlanCache(new FixedTariffPlanRepository(), new SimpleMeterRegistry());
+        var processor = new BillingDataProcessor(tariffPlans, 150f);
+        var engine = new ChunkPricingEngine(tariffPlans, 150f);
+        var random = new Random(42L);
+        List<BillingData> items = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // Runs of a few records per month, so chunks span several rate tables
+            int month = 1 + (i / 7) % 3;
+            items.add(new BillingData(2023, month, random.nextInt(2_000), "555-" + i, random.nextFloat() * 20_000f,
+                    random.nextInt(400), random.nextInt(600)));
+        }
+
+        // When
+        List<ReportingData> expected = new ArrayList<>();
+        for (BillingData item : items) {
+            ReportingData report = processor.process(item);
+            if (report != null) {
+                expected.add(report);
+            }
+        }
+        List<ReportingData> actual = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += 100) {
+            actual.addAll(engine.price(items.subList(from, Math.min(from + 100, items.size()))));
+        }
+
+        // Then
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertSame(expected.get(i).billingData(), actual.get(i).billingData());
+            Assertions.assertEquals(Double.doubleToRawLongBits(expected.get(i).billingTotal()),
+                    Double.doubleToRawLongBits(actual.get(i).billingTotal()));
+        }
+    }
+
+    static class FixedTariffPlanRepository extends TariffPlanRepository {
+
+        private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+        FixedTariffPlanRepository() {
+            super(new SimpleDriverDataSource());
+        }
+
+        @Override
+        public List<TariffPlan> findPlans(LocalDate period) {
+            return List.of(
+                    new TariffPlan(1, "flat", true, List.of(new DataTier(0f, 0.01f)), 0, 0.5f, 0, 0.1f, EPOCH, null),
+                    new TariffPlan(2, "bundle", false,
+                            List.of(new DataTier(0f, 0f), new DataTier(1000f, 0.02f), new DataTier(5000f, 0.005f)),
+                            100, 0.4f, 50, 0.05f, EPOCH, null),
+                    new TariffPlan(3, "spring", false, List.of(new DataTier(0f, 0.015f)), 30, 0.45f, 0, 0.1f,
+                            LocalDate.of(2023, 2, 1), LocalDate.of(2023, 3, 1)));
+        }
+
+        @Override
+        public List<AccountPlan> findAssignments(LocalDate period) {
+            List<AccountPlan> assignments = new ArrayList<>();
+            for (int accountId = 0; accountId < 2_000; accountId += 3) {
+                assignments.add(new AccountPlan(accountId, 2 + accountId % 2, EPOCH, null));
+            }
+            return assignments;
+        }
+    }
+
+    static class StablePricingService extends PricingService {
+
+        @Override
+        public float getDataPricing() {
+            return 0.01f;
+        }
+
+        @Override
+        public float getCallPricing() {
+            return 0.5f;
+        }
+
+        @Override
+        public float getSmsPricing() {
+            return 0.1f;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package self.development.batch.billingjob.processor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import self.development.batch.billingjob.exception.PricingException;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.service.SimulatedLatencyPricingService;
+
+class RemotePricingProcessorTests {
+
+    private static final int MAX_CONCURRENT_CALLS = 4;
+
+    @Test
+    void bulkheadCapsConcurrentLookupsOnVirtualThreads() throws Exception {
+        // Given
+        var pricingService = new ConcurrencyTrackingPricingService();
+        var processor = new RemotePricingProcessor(pricingService, MAX_CONCURRENT_CALLS, Duration.ofSeconds(30), 1,
+                Duration.ZERO, 0.5f, 0.1f, 0f, new SimpleMeterRegistry());
+        var asyncProcessor = new AsyncItemProcessor<BillingData, ReportingData>();
+        asyncProcessor.setDelegate(processor);
+        asyncProcessor.setTaskExecutor(new VirtualThreadTaskExecutor("pricing-"));
+
+        // When
+        List<Future<ReportingData>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(asyncProcessor.process(new BillingData(2025, 3, i, "555-" + i, i * 10.5f, i, i)));
+        }
+
+        // Then
+        for (Future<ReportingData> future : futures) {
+            var report = future.get();
+            Assertions.assertEquals(billingTotal(report.billingData()), report.billingTotal());
+        }
+        Assertions.assertTrue(pricingService.maxInFlight.get() <= MAX_CONCURRENT_CALLS);
+        Assertions.assertTrue(pricingService.maxInFlight.get() > 1);
+    }
+
+    @Test
+    void failedLookupIsRetriedAfterBackoff() {
+        // Given
+        var pricingService = new FailingOncePricingService();
+        var backoff = Duration.ofMillis(50);
+        var processor = new RemotePricingProcessor(pricingService, MAX_CONCURRENT_CALLS, Duration.ofSeconds(30), 2,
+                backoff, 0.5f, 0.1f, 0f, new SimpleMeterRegistry());
+        var item = new BillingData(2025, 3, 1, "555-1", 100f, 10, 10);
+
+        // When
+        long start = System.nanoTime();
+        var report = processor.process(item);
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Then
+        Assertions.assertEquals(billingTotal(item), report.billingTotal());
+        Assertions.assertEquals(2, pricingService.calls.get());
+        Assertions.assertTrue(elapsed.compareTo(backoff) >= 0, "retried after " + elapsed);
+    }
+
+    private static double billingTotal(BillingData item) {
+        return item.dataUsage() * 0.01f + item.callDuration() * 0.5f + item.smsCount() * 0.1f;
+    }
+
+    private static class FailingOncePricingService extends SimulatedLatencyPricingService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        FailingOncePricingService() {
+            super(Duration.ZERO);
+        }
+
+        @Override
+        public float getDataPricing() {
+            if (this.calls.incrementAndGet() == 1) {
+                throw new PricingException("Error while retrieving data pricing");
+            }
+            return super.getDataPricing();
+        }
+    }
+
+    private static class ConcurrencyTrackingPricingService extends SimulatedLatencyPricingService {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        ConcurrencyTrackingPricingService() {
+            super(Duration.ofMillis(20));
+        }
+
+        @Override
+        public float getDataPricing() {
+            this.maxInFlight.accumulateAndGet(this.inFlight.incrementAndGet(), Math::max);
+            try {
+                return super.getDataPricing();
+            } finally {
+                this.inFlight.decrementAndGet();
+            }
+        }
+    }
+}
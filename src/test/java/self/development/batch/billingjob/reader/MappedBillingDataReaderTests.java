@@ -0,0 +1,135 @@
+package self.development.batch.billingjob.reader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+import self.development.batch.billingjob.model.BillingData;
+
+class MappedBillingDataReaderTests {
+
+    private static final Path TELECOM_DATA = Paths.get("src/main/resources/telecom_data.csv");
+    private static final Path TELECOM_DATA_FAULTY = Paths.get("src/main/resources/telecom_data_next_faulty.csv");
+
+    @Test
+    void readsSameRecordsAsFlatFileItemReader() throws Exception {
+        // Given
+        var expected = readAll(flatFileReader(TELECOM_DATA));
+
+        // When
+        var actual = readAll(new MappedBillingDataReader(TELECOM_DATA, 1));
+
+        // Then
+        Assertions.assertEquals(260, actual.size());
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    void ignoresWhitespaceAroundNumbersLikeFlatFileItemReader(@TempDir Path directory) throws Exception {
+        // Given
+        var file = directory.resolve("telecom_data_padded.csv");
+        Files.writeString(file, "dataYear,dataMonth,accountId,phoneNumber,dataUsage,callDuration,smsCount\n"
+                + " 2025 , 1,1001 ,404-555-1234, 4567.89 ,\t634, 87\r\n"
+                + "2025,1, -1002,404-555-2345,  12.5,0 ,7\t\n", StandardCharsets.UTF_8);
+        var expected = readAll(flatFileReader(file));
+
+        // When
+        var actual = readAll(new MappedBillingDataReader(file, 1));
+
+        // Then
+        Assertions.assertEquals(List.of(
+                new BillingData(2025, 1, 1001, "404-555-1234", 4567.89f, 634, 87),
+                new BillingData(2025, 1, -1002, "404-555-2345", 12.5f, 0, 7)), actual);
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    void reportsMalformedLinesLikeFlatFileItemReader() throws Exception {
+        // Given
+        var reader = new MappedBillingDataReader(TELECOM_DATA_FAULTY, 1);
+        reader.open(new ExecutionContext());
+        List<FlatFileParseException> errors = new ArrayList<>();
+        int records = 0;
+
+        // When
+        while (true) {
+            try {
+                if (reader.read() == null) {
+                    break;
+                }
+                records++;
+            } catch (FlatFileParseException e) {
+                errors.add(e);
+            }
+        }
+        reader.close();
+
+        // Then
+        Assertions.assertEquals(158, records);
+        Assertions.assertEquals(2, errors.size());
+        Assertions.assertEquals(5, errors.get(0).getLineNumber());
+        Assertions.assertEquals("2025,1,1004S,404-555-2345,4567.89,634,87", errors.get(0).getInput());
+        Assertions.assertEquals(38, errors.get(1).getLineNumber());
+    }
+
+    @Test
+    void restartsFromSavedOffset() throws Exception {
+        // Given
+        var expected = readAll(new MappedBillingDataReader(TELECOM_DATA, 1));
+        var executionContext = new ExecutionContext();
+        var reader = new MappedBillingDataReader(TELECOM_DATA, 1);
+        reader.open(executionContext);
+        for (int i = 0; i < 100; i++) {
+            reader.read();
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        // When
+        var restarted = new MappedBillingDataReader(TELECOM_DATA, 1);
+        var remaining = readAll(restarted, executionContext);
+
+        // Then
+        Assertions.assertEquals(expected.subList(100, expected.size()), remaining);
+    }
+
+    private static FlatFileItemReader<BillingData> flatFileReader(Path file) {
+        return new FlatFileItemReaderBuilder<BillingData>()
+                .name("billingDataFlatFileItemReader")
+                .resource(new FileSystemResource(file))
+                .delimited()
+                .names("dataYear", "dataMonth", "accountId", "phoneNumber", "dataUsage", "callDuration", "smsCount")
+                .linesToSkip(1)
+                .targetType(BillingData.class)
+                .build();
+    }
+
+    private static List<BillingData> readAll(ItemStreamReader<BillingData> reader) throws Exception {
+        return readAll(reader, new ExecutionContext());
+    }
+
+    private static List<BillingData> readAll(ItemStreamReader<BillingData> reader, ExecutionContext executionContext) throws Exception {
+        List<BillingData> items = new ArrayList<>();
+        reader.open(executionContext);
+        try {
+            BillingData item;
+            while ((item = reader.read()) != null) {
+                items.add(item);
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+}
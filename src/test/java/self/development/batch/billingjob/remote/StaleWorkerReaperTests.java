@@ -0,0 +1,70 @@
+package self.development.batch.billingjob.remote;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class StaleWorkerReaperTests {
+
+    private static final Duration STALE_AFTER = Duration.ofMinutes(10);
+
+    private final JobExplorer jobExplorer = Mockito.mock(JobExplorer.class);
+    private final JobRepository jobRepository = Mockito.mock(JobRepository.class);
+
+    @Test
+    void staleStartedWorkerIsMarkedFailed() {
+        // Given
+        var jobExecution = MetaDataInstanceFactory.createJobExecution();
+        var stale = worker(jobExecution.createStepExecution("reportGeneration:partition0"), BatchStatus.STARTED, 20);
+        var fresh = worker(jobExecution.createStepExecution("reportGeneration:partition1"), BatchStatus.STARTED, 1);
+        var finished = worker(jobExecution.createStepExecution("reportGeneration:partition2"), BatchStatus.COMPLETED, 20);
+        var manager = worker(jobExecution.createStepExecution("remoteReportGeneration"), BatchStatus.STARTED, 20);
+        Mockito.when(this.jobExplorer.getJobExecution(jobExecution.getId())).thenReturn(jobExecution);
+
+        // When
+        try (var reaper = new StaleWorkerReaper(this.jobExplorer, this.jobRepository, "reportGeneration", STALE_AFTER)) {
+            reaper.reap(jobExecution.getId());
+        }
+
+        // Then
+        Mockito.verify(this.jobRepository).update(stale);
+        Mockito.verify(this.jobRepository, Mockito.times(1)).update(ArgumentMatchers.any(StepExecution.class));
+        Assertions.assertEquals(BatchStatus.FAILED, stale.getStatus());
+        Assertions.assertEquals(ExitStatus.FAILED.getExitCode(), stale.getExitStatus().getExitCode());
+        Assertions.assertNotNull(stale.getEndTime());
+        Assertions.assertEquals(BatchStatus.STARTED, fresh.getStatus());
+        Assertions.assertEquals(BatchStatus.COMPLETED, finished.getStatus());
+        Assertions.assertEquals(BatchStatus.STARTED, manager.getStatus());
+    }
+
+    @Test
+    void repositoryFailureDoesNotStopTheReaper() {
+        // Given
+        var jobExecution = MetaDataInstanceFactory.createJobExecution();
+        worker(jobExecution.createStepExecution("reportGeneration:partition0"), BatchStatus.STARTED, 20);
+        Mockito.when(this.jobExplorer.getJobExecution(jobExecution.getId())).thenReturn(jobExecution);
+        Mockito.doThrow(new IllegalStateException("Connection refused"))
+                .when(this.jobRepository).update(ArgumentMatchers.any(StepExecution.class));
+
+        // When / Then
+        try (var reaper = new StaleWorkerReaper(this.jobExplorer, this.jobRepository, "reportGeneration", STALE_AFTER)) {
+            Assertions.assertDoesNotThrow(() -> reaper.reap(jobExecution.getId()));
+            Assertions.assertDoesNotThrow(() -> reaper.reap(-1L));
+        }
+    }
+
+    private static StepExecution worker(StepExecution stepExecution, BatchStatus status, int minutesSinceUpdate) {
+        stepExecution.setStatus(status);
+        stepExecution.setLastUpdated(LocalDateTime.now().minusMinutes(minutesSinceUpdate));
+        return stepExecution;
+    }
+}
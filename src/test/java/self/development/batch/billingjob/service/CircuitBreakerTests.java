@@ -0,0 +1,86 @@
+package self.development.batch.billingjob.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import self.development.batch.billingjob.exception.PricingException;
+
+class CircuitBreakerTests {
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsCalls() {
+        // Given
+        var breaker = new CircuitBreaker(3, Duration.ofHours(1));
+        var calls = new AtomicInteger();
+
+        // When
+        fail(breaker, calls);
+        fail(breaker, calls);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(breaker, calls);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        var rejected = Assertions.assertThrows(PricingException.class, () -> breaker.call(calls::incrementAndGet));
+        Assertions.assertEquals("Pricing circuit is open", rejected.getMessage());
+        Assertions.assertEquals(3, calls.get());
+    }
+
+    @Test
+    void successResetsConsecutiveFailures() {
+        // Given
+        var breaker = new CircuitBreaker(2, Duration.ofHours(1));
+        var calls = new AtomicInteger();
+
+        // When
+        fail(breaker, calls);
+        breaker.call(calls::incrementAndGet);
+        fail(breaker, calls);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertEquals(3, calls.get());
+    }
+
+    @Test
+    void halfOpenTrialSuccessClosesCircuit() {
+        // Given
+        var breaker = new CircuitBreaker(1, Duration.ZERO);
+        fail(breaker, new AtomicInteger());
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // When
+        var stateDuringTrial = breaker.call(breaker::getState);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, stateDuringTrial);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenTrialFailureReopensCircuit() {
+        // Given
+        var breaker = new CircuitBreaker(3, Duration.ZERO);
+        var calls = new AtomicInteger();
+        fail(breaker, calls);
+        fail(breaker, calls);
+        fail(breaker, calls);
+
+        // When
+        Assertions.assertThrows(PricingException.class, () -> breaker.call(() -> {
+            Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+            throw new PricingException("Error while retrieving data pricing");
+        }));
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static void fail(CircuitBreaker breaker, AtomicInteger calls) {
+        Assertions.assertThrows(PricingException.class, () -> breaker.call(() -> {
+            calls.incrementAndGet();
+            throw new PricingException("Error while retrieving data pricing");
+        }));
+    }
+}
@@ -0,0 +1,114 @@
+package self.development.batch.billingjob.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import self.development.batch.billingjob.exception.PricingException;
+import self.development.batch.billingjob.model.Tariff;
+
+class PricingCacheTests {
+
+    @Test
+    void coldCacheLoadsOnceAndCountsHitsAndMisses() {
+        // Given
+        var pricingService = new ScriptedPricingService();
+        var meterRegistry = new SimpleMeterRegistry();
+
+        try (var cache = new PricingCache(pricingService, new CircuitBreaker(3, Duration.ofHours(1)), 1,
+                Duration.ZERO, meterRegistry)) {
+            // When
+            var first = cache.getTariff();
+            cache.getTariff();
+            var dataPricing = cache.getDataPricing();
+
+            // Then
+            Assertions.assertEquals(new Tariff(0.01f, 0.5f, 0.1f), first);
+            Assertions.assertEquals(0.01f, dataPricing);
+            Assertions.assertEquals(1, pricingService.fetches.get());
+            Assertions.assertEquals(1, count(meterRegistry, "billing.pricing.cache", "result", "miss"));
+            Assertions.assertEquals(2, count(meterRegistry, "billing.pricing.cache", "result", "hit"));
+        }
+    }
+
+    @Test
+    void failedRefreshKeepsLastKnownGoodTariff() {
+        // Given
+        var pricingService = new ScriptedPricingService();
+        var meterRegistry = new SimpleMeterRegistry();
+
+        try (var cache = new PricingCache(pricingService, new CircuitBreaker(3, Duration.ofHours(1)), 2,
+                Duration.ZERO, meterRegistry)) {
+            cache.beforeJob(null);
+
+            // When
+            pricingService.failing = true;
+            cache.refresh();
+            var afterFailure = cache.getTariff();
+            pricingService.failing = false;
+            pricingService.dataPricing = 0.02f;
+            cache.refresh();
+            var afterRecovery = cache.getTariff();
+
+            // Then
+            Assertions.assertEquals(new Tariff(0.01f, 0.5f, 0.1f), afterFailure);
+            Assertions.assertEquals(new Tariff(0.02f, 0.5f, 0.1f), afterRecovery);
+            Assertions.assertEquals(2, count(meterRegistry, "billing.pricing.refresh", "outcome", "success"));
+            Assertions.assertEquals(1, count(meterRegistry, "billing.pricing.refresh", "outcome", "failure"));
+            Assertions.assertEquals(0, count(meterRegistry, "billing.pricing.cache", "result", "miss"));
+        }
+    }
+
+    @Test
+    void coldCacheWithOpenCircuitFailsWithoutCallingBackend() {
+        // Given
+        var pricingService = new ScriptedPricingService();
+        pricingService.failing = true;
+
+        try (var cache = new PricingCache(pricingService, new CircuitBreaker(1, Duration.ofHours(1)), 1,
+                Duration.ZERO, new SimpleMeterRegistry())) {
+            // When
+            Assertions.assertThrows(PricingException.class, cache::getTariff);
+            int attempts = pricingService.attempts.get();
+            var rejected = Assertions.assertThrows(PricingException.class, cache::getTariff);
+
+            // Then
+            Assertions.assertEquals("Pricing circuit is open", rejected.getMessage());
+            Assertions.assertEquals(attempts, pricingService.attempts.get());
+        }
+    }
+
+    private static double count(MeterRegistry meterRegistry, String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    private static class ScriptedPricingService extends PricingService {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger fetches = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile float dataPricing = 0.01f;
+
+        @Override
+        public float getDataPricing() {
+            this.attempts.incrementAndGet();
+            if (this.failing) {
+                throw new PricingException("Error while retrieving data pricing");
+            }
+            this.fetches.incrementAndGet();
+            return this.dataPricing;
+        }
+
+        @Override
+        public float getCallPricing() {
+            return 0.5f;
+        }
+
+        @Override
+        public float getSmsPricing() {
+            return 0.1f;
+        }
+    }
+}
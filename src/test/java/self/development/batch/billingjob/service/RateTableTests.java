@@ -0,0 +1,95 @@
+package self.development.batch.billingjob.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import self.development.batch.billingjob.model.AccountPlan;
+import self.development.batch.billingjob.model.DataTier;
+import self.development.batch.billingjob.model.TariffPlan;
+
+class RateTableTests {
+
+    private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+    private static final TariffPlan FLAT = new TariffPlan(1, "flat", true, List.of(new DataTier(0f, 0.01f)),
+            0, 0.5f, 0, 0.1f, EPOCH, null);
+
+    private static final TariffPlan BUNDLE = new TariffPlan(2, "bundle", false,
+            List.of(new DataTier(0f, 0f), new DataTier(1000f, 0.02f), new DataTier(5000f, 0.005f)),
+            100, 0.4f, 50, 0.05f, EPOCH, null);
+
+    @Test
+    void defaultFlatPlanMatchesFlatPricing() {
+        // Given
+        var rateTable = RateTable.compile(2023, 1, List.of(FLAT), List.of());
+        var random = new Random(42L);
+
+        for (int i = 0; i < 100_000; i++) {
+            float dataUsage = random.nextFloat() * 20_000f;
+            int callDuration = random.nextInt(400);
+            int smsCount = random.nextInt(600);
+
+            // When
+            float total = rateTable.price(i, dataUsage, callDuration, smsCount);
+
+            // Then
+            float expected = dataUsage * 0.01f + callDuration * 0.5f + smsCount * 0.1f;
+            Assertions.assertEquals(Float.floatToRawIntBits(expected), Float.floatToRawIntBits(total));
+        }
+    }
+
+    @Test
+    void pricesTiersAndIncludedUsageOfAssignedPlan() {
+        // Given
+        var rateTable = RateTable.compile(2023, 1, List.of(FLAT, BUNDLE),
+                List.of(new AccountPlan(7, 2, LocalDate.of(2022, 6, 1), null)));
+
+        // When
+        float withinBundle = rateTable.price(7, 800f, 90, 40);
+        float acrossTiers = rateTable.price(7, 6000f, 150, 60);
+        float unassigned = rateTable.price(8, 6000f, 150, 60);
+
+        // Then
+        Assertions.assertEquals(0f, withinBundle);
+        Assertions.assertEquals(4000f * 0.02f + 1000f * 0.005f + 50 * 0.4f + 10 * 0.05f, acrossTiers);
+        Assertions.assertEquals(6000f * 0.01f + 150 * 0.5f + 60 * 0.1f, unassigned);
+    }
+
+    @Test
+    void appliesAssignmentsAndPlansValidInTheMonth() {
+        // Given
+        var expiring = new TariffPlan(3, "expiring", false, List.of(new DataTier(0f, 1f)), 0, 1f, 0, 1f,
+                EPOCH, LocalDate.of(2023, 2, 1));
+        var assignments = List.of(
+                new AccountPlan(1, 2, LocalDate.of(2023, 2, 1), null),
+                new AccountPlan(2_000_000_000, 3, EPOCH, null));
+
+        // When
+        var january = RateTable.compile(2023, 1, List.of(FLAT, BUNDLE, expiring), assignments);
+        var february = RateTable.compile(2023, 2, List.of(FLAT, BUNDLE, expiring), assignments);
+
+        // Then
+        Assertions.assertEquals(1f * 0.01f + 1 * 0.5f + 1 * 0.1f, january.price(1, 1f, 1, 1));
+        Assertions.assertEquals(0f, february.price(1, 1f, 1, 1));
+        Assertions.assertEquals(3f, january.price(2_000_000_000, 1f, 1, 1));
+        Assertions.assertEquals(1f * 0.01f + 1 * 0.5f + 1 * 0.1f, february.price(2_000_000_000, 1f, 1, 1));
+    }
+
+    @Test
+    void rejectsPlanWithUsageBelowItsFirstTier() {
+        // Given
+        var gapped = new TariffPlan(3, "gapped", false, List.of(new DataTier(5000f, 0.005f), new DataTier(100f, 0.02f)),
+                0, 0.5f, 0, 0.1f, EPOCH, null);
+
+        // When / Then
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> RateTable.compile(2023, 1, List.of(FLAT, gapped), List.of()));
+    }
+
+    @Test
+    void rejectsMonthWithoutDefaultPlan() {
+        Assertions.assertThrows(IllegalStateException.class, () -> RateTable.compile(2023, 1, List.of(BUNDLE), List.of()));
+    }
+}
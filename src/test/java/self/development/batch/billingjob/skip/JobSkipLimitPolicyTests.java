@@ -0,0 +1,74 @@
+package self.development.batch.billingjob.skip;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+class JobSkipLimitPolicyTests {
+
+    private static final int PARTITIONS = 4;
+
+    @Test
+    void skipLimitIsSharedAcrossPartitions() throws Exception {
+        // Given
+        var policy = new JobSkipLimitPolicy(10);
+        var start = new CountDownLatch(1);
+        var skipped = new AtomicInteger();
+        var exceeded = new AtomicInteger();
+        List<Callable<Void>> partitions = new ArrayList<>();
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            partitions.add(() -> {
+                start.await();
+                // Each partition counts its own skips from zero, as its StepExecution does
+                for (int skipCount = 0; skipCount < 5; skipCount++) {
+                    try {
+                        if (policy.shouldSkip(parseError(skipCount), skipCount)) {
+                            skipped.incrementAndGet();
+                        }
+                    } catch (SkipLimitExceededException e) {
+                        exceeded.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        // When
+        try (var executor = Executors.newFixedThreadPool(PARTITIONS)) {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> partition : partitions) {
+                futures.add(executor.submit(partition));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        }
+
+        // Then
+        Assertions.assertEquals(10, skipped.get());
+        Assertions.assertEquals(PARTITIONS * 5 - 10, exceeded.get());
+    }
+
+    @Test
+    void onlyParseErrorsAreSkipped() {
+        // Given
+        var policy = new JobSkipLimitPolicy(10);
+
+        // When / Then
+        Assertions.assertFalse(policy.shouldSkip(new IllegalStateException("Unable to write"), 0));
+        Assertions.assertTrue(policy.shouldSkip(parseError(1), 0));
+    }
+
+    private static FlatFileParseException parseError(int line) {
+        return new FlatFileParseException("Parsing error at line: " + line, "2025,1,1004S", line);
+    }
+}
@@ -0,0 +1,75 @@
+package self.development.batch.billingjob.skip;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SkipRecordWriterTests {
+
+    private static final Duration NO_HANG = Duration.ofSeconds(10);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void flushWritesQueuedRecords() throws Exception {
+        // Given
+        var file = this.directory.resolve("skipped.txt");
+        var writer = new SkipRecordWriter(file, 2);
+
+        // When
+        for (int line = 1; line <= 5; line++) {
+            writer.write(line + "|2025,1,1004S\n");
+        }
+        writer.flush();
+
+        // Then
+        Assertions.assertEquals(5, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        writer.write("6|2025,1,1004S\n");
+        writer.close();
+        Assertions.assertEquals("6|2025,1,1004S", Files.readAllLines(file, StandardCharsets.UTF_8).get(5));
+    }
+
+    @Test
+    void failedWriterThreadFailsWritesAndFlushesInsteadOfBlocking() {
+        // Given
+        var file = this.directory.resolve("missing").resolve("skipped.txt");
+        var writer = new SkipRecordWriter(file, 1);
+
+        // When / Then
+        Assertions.assertTimeoutPreemptively(NO_HANG, () -> {
+            Assertions.assertThrows(UncheckedIOException.class, writer::flush);
+            Assertions.assertThrows(UncheckedIOException.class, () -> {
+                for (int line = 1; line <= 10; line++) {
+                    writer.write(line + "|2025,1,1004S\n");
+                }
+            });
+            Assertions.assertThrows(UncheckedIOException.class, writer::close);
+        });
+    }
+
+    @Test
+    void closedWriterRejectsRecords() throws Exception {
+        // Given
+        var file = this.directory.resolve("skipped.txt");
+        var writer = new SkipRecordWriter(file, 4);
+        writer.write("1|2025,1,1004S\n");
+
+        // When
+        writer.close();
+
+        // Then
+        Assertions.assertEquals(List.of("1|2025,1,1004S"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        Assertions.assertTimeoutPreemptively(NO_HANG, () -> {
+            Assertions.assertThrows(IllegalStateException.class, () -> writer.write("2|2025,1,1004S\n"));
+            Assertions.assertThrows(IllegalStateException.class, writer::flush);
+            writer.close();
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package self.development.batch.billingjob.task;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class FilePreparationTaskletTests {
+
+    private static final byte[] CONTENT = ("dataYear,dataMonth,accountId,phoneNumber,dataUsage,callDuration,smsCount\n"
+            + "2025,1,1001,404-555-1234,4567.89,634,87\n").getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void plainInputIsHardLinked() throws Exception {
+        // Given
+        var input = write("telecom_data.csv", CONTENT);
+
+        // When
+        var context = stage(input, true);
+
+        // Then
+        var staged = Paths.get(context.getString(FilePreparationTasklet.STAGED_FILE));
+        Assertions.assertEquals(staging().resolve("telecom_data.csv"), staged);
+        Assertions.assertTrue(Files.isSameFile(input, staged));
+        Assertions.assertEquals(crc32c(CONTENT), context.getString(FilePreparationTasklet.STAGED_CHECKSUM));
+    }
+
+    @Test
+    void plainInputIsCopiedWithoutLinking() throws Exception {
+        // Given
+        var input = write("telecom_data.csv", CONTENT);
+
+        // When
+        var context = stage(input, false);
+
+        // Then
+        var staged = Paths.get(context.getString(FilePreparationTasklet.STAGED_FILE));
+        Assertions.assertFalse(Files.isSameFile(input, staged));
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(staged));
+        Assertions.assertEquals(crc32c(CONTENT), context.getString(FilePreparationTasklet.STAGED_CHECKSUM));
+    }
+
+    @Test
+    void compressedInputsAreDecompressed() throws Exception {
+        // Given
+        var gzip = this.directory.resolve("gzip.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(CONTENT);
+        }
+        var zstd = this.directory.resolve("zstd.csv.zst");
+        try (OutputStream out = new ZstdOutputStream(Files.newOutputStream(zstd), 3)) {
+            out.write(CONTENT);
+        }
+
+        // When
+        var gzipContext = stage(gzip, true);
+        var zstdContext = stage(zstd, true);
+
+        // Then
+        Assertions.assertEquals(staging().resolve("gzip.csv").toString(), gzipContext.getString(FilePreparationTasklet.STAGED_FILE));
+        Assertions.assertEquals(staging().resolve("zstd.csv").toString(), zstdContext.getString(FilePreparationTasklet.STAGED_FILE));
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(staging().resolve("gzip.csv")));
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(staging().resolve("zstd.csv")));
+        Assertions.assertEquals(crc32c(CONTENT), gzipContext.getString(FilePreparationTasklet.STAGED_CHECKSUM));
+        Assertions.assertEquals(crc32c(CONTENT), zstdContext.getString(FilePreparationTasklet.STAGED_CHECKSUM));
+    }
+
+    @Test
+    void unchangedInputSkipsStaging() throws Exception {
+        // Given
+        var input = write("telecom_data.csv", CONTENT);
+        stage(input, false);
+        var staged = staging().resolve("telecom_data.csv");
+        var fileKey = fileKey(staged);
+
+        // When
+        var context = stage(input, false);
+
+        // Then
+        Assertions.assertEquals(fileKey, fileKey(staged));
+        Assertions.assertEquals(crc32c(CONTENT), context.getString(FilePreparationTasklet.STAGED_CHECKSUM));
+    }
+
+    @Test
+    void stagedFileRewrittenInPlaceIsStagedAgain() throws Exception {
+        // Given
+        var input = write("telecom_data.csv", CONTENT);
+        stage(input, false);
+        var staged = staging().resolve("telecom_data.csv");
+        var modified = Files.getLastModifiedTime(staged);
+        var corrupted = CONTENT.clone();
+        corrupted[corrupted.length - 2] = '9';
+        Files.write(staged, corrupted);
+        Files.setLastModifiedTime(staged, modified);
+
+        // When
+        var context = stage(input, false);
+
+        // Then
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(staged));
+        Assertions.assertEquals(crc32c(CONTENT), context.getString(FilePreparationTasklet.STAGED_CHECKSUM));
+    }
+
+    private ExecutionContext stage(Path input, boolean link) throws Exception {
+        var parameters = new JobParametersBuilder()
+                .addString("input.file", input.toString())
+                .toJobParameters();
+        var stepExecution = MetaDataInstanceFactory.createStepExecution(parameters);
+        new FilePreparationTasklet(staging(), link).execute(new StepContribution(stepExecution), null);
+        return stepExecution.getJobExecution().getExecutionContext();
+    }
+
+    private Path staging() {
+        return this.directory.resolve("staging");
+    }
+
+    private Path write(String name, byte[] content) throws Exception {
+        return Files.write(this.directory.resolve(name), content);
+    }
+
+    private static Object fileKey(Path file) throws Exception {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    private static String crc32c(byte[] content) {
+        var crc = new CRC32C();
+        crc.update(content);
+        return HexFormat.of().toHexDigits((int) crc.getValue());
+    }
+}
@@ -0,0 +1,98 @@
+package self.development.batch.billingjob.task;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import self.development.batch.billingjob.partition.AccountRangePartitioner;
+
+class ReportMergeTaskletTests {
+
+    private static final String PART0 = "2025,3,1001,404-555-1234,4567.89,634,87,407.48" + System.lineSeparator();
+    private static final String PART1 = "2025,3,1002,404-555-5678,1234.56,321,45,177.35" + System.lineSeparator();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void partsAreDeletedOnlyAfterTheMergeIsRecorded() throws Exception {
+        // Given
+        var contribution = merge(2);
+        write(0, PART0);
+        write(1, PART1);
+
+        // When
+        var merged = new ReportMergeTasklet(null).execute(contribution, null);
+
+        // Then
+        Assertions.assertEquals(RepeatStatus.CONTINUABLE, merged);
+        Assertions.assertEquals(PART0 + PART1, Files.readString(output(), StandardCharsets.UTF_8));
+        Assertions.assertTrue(Files.exists(part(0)) && Files.exists(part(1)));
+        Assertions.assertEquals(Files.size(output()),
+                contribution.getStepExecution().getExecutionContext().getLong(ReportMergeTasklet.MERGED_SIZE));
+        Assertions.assertEquals(RepeatStatus.FINISHED, new ReportMergeTasklet(null).execute(contribution, null));
+        Assertions.assertFalse(Files.exists(part(0)) || Files.exists(part(1)));
+    }
+
+    @Test
+    void missingPartFailsTheMerge() throws Exception {
+        // Given
+        var contribution = merge(2);
+        write(0, PART0);
+
+        // When / Then
+        Assertions.assertThrows(IllegalStateException.class, () -> new ReportMergeTasklet(null).execute(contribution, null));
+        Assertions.assertFalse(Files.exists(output()));
+        Assertions.assertTrue(Files.exists(part(0)));
+    }
+
+    @Test
+    void restartAfterRecordedMergeDeletesRemainingParts() throws Exception {
+        // Given
+        var contribution = merge(2);
+        write(0, PART0);
+        write(1, PART1);
+        new ReportMergeTasklet(null).execute(contribution, null);
+        // Only part0 was deleted before the failure
+        Files.delete(part(0));
+
+        // When
+        var restarted = new ReportMergeTasklet(null).execute(contribution, null);
+
+        // Then
+        Assertions.assertEquals(RepeatStatus.FINISHED, restarted);
+        Assertions.assertEquals(PART0 + PART1, Files.readString(output(), StandardCharsets.UTF_8));
+        Assertions.assertFalse(Files.exists(part(1)));
+    }
+
+    private StepContribution merge(int partitions) {
+        var parameters = new JobParametersBuilder()
+                .addString("output.file", output().toString())
+                .toJobParameters();
+        var jobExecution = MetaDataInstanceFactory.createJobExecution("billingJob", 1L, 1L, parameters);
+        for (int partition = 0; partition < partitions; partition++) {
+            StepExecution worker = jobExecution.createStepExecution("reportGeneration:partition" + partition);
+            worker.getExecutionContext().putString(AccountRangePartitioner.OUTPUT_FILE, part(partition).toString());
+        }
+        return new StepContribution(jobExecution.createStepExecution("reportMerge"));
+    }
+
+    private Path output() {
+        return this.directory.resolve("report.csv");
+    }
+
+    private Path part(int partition) {
+        return this.directory.resolve("report.csv" + AccountRangePartitioner.PART_SUFFIX + partition);
+    }
+
+    private void write(int partition, String content) throws Exception {
+        Files.writeString(part(partition), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package self.development.batch.billingjob.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import self.development.batch.billingjob.model.BillingData;
+
+/**
+ * Compares the batch INSERT and COPY ingestion writers against the local Postgres. Run with
+ * {@code BILLING_BENCHMARK=true ./gradlew test --tests '*BillingDataWriterBenchmarkTests'}.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "BILLING_BENCHMARK", matches = "true")
+class BillingDataWriterBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingDataWriterBenchmarkTests.class);
+
+    private static final int BENCHMARK_YEAR = 1999;
+    private static final int ROWS = 200_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Autowired
+    private JdbcBatchItemWriter<BillingData> billingDataJdbcBatchItemWriter;
+
+    @Autowired
+    private BillingDataCopyItemWriter billingDataCopyItemWriter;
+
+    @Autowired
+    private JdbcTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanUp() {
+        JdbcTestUtils.deleteFromTableWhere(jdbcTemplate, "BILLING_DATA", "DATA_YEAR = ?", BENCHMARK_YEAR);
+    }
+
+    @Test
+    void compareJdbcBatchAndCopyWriters() {
+        // Given
+        var chunks = chunks();
+        write(billingDataJdbcBatchItemWriter, chunks);
+        cleanUp();
+
+        // When
+        long jdbcNanos = write(billingDataJdbcBatchItemWriter, chunks);
+        int jdbcRows = JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BILLING_DATA", "DATA_YEAR = " + BENCHMARK_YEAR);
+        cleanUp();
+        long copyNanos = write(billingDataCopyItemWriter, chunks);
+        int copyRows = JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "BILLING_DATA", "DATA_YEAR = " + BENCHMARK_YEAR);
+
+        // Then
+        log.info("JdbcBatchItemWriter: {} rows in {} ms ({} rows/s)", ROWS, jdbcNanos / 1_000_000, rowsPerSecond(jdbcNanos));
+        log.info("BillingDataCopyItemWriter: {} rows in {} ms ({} rows/s)", ROWS, copyNanos / 1_000_000, rowsPerSecond(copyNanos));
+        Assertions.assertEquals(ROWS, jdbcRows);
+        Assertions.assertEquals(ROWS, copyRows);
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return Math.round(ROWS * 1e9 / nanos);
+    }
+
+    private long write(ItemWriter<BillingData> writer, List<Chunk<BillingData>> chunks) {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        for (Chunk<BillingData> chunk : chunks) {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    writer.write(chunk);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<Chunk<BillingData>> chunks() {
+        List<Chunk<BillingData>> chunks = new ArrayList<>();
+        var chunk = new Chunk<BillingData>();
+        for (int i = 0; i < ROWS; i++) {
+            chunk.add(new BillingData(BENCHMARK_YEAR, 1 + i % 12, 1000 + i, "404-555-" + (1000 + i % 9000),
+                    i % 5000 + 0.25f, i % 600, i % 90));
+            if (chunk.size() == CHUNK_SIZE) {
+                chunks.add(chunk);
+                chunk = new Chunk<>();
+            }
+        }
+        return chunks;
+    }
+}
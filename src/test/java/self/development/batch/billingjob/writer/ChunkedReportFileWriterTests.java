@@ -0,0 +1,125 @@
+package self.development.batch.billingjob.writer;
+
+import com.github.luben.zstd.ZstdInputStream;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+
+class ChunkedReportFileWriterTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void lineAggregatorMatchesBeanWrapperFieldExtractor() {
+        // Given
+        var fieldExtractor = new BeanWrapperFieldExtractor<ReportingData>();
+        fieldExtractor.setNames(new String[]{"billingData.dataYear", "billingData.dataMonth", "billingData.accountId",
+                "billingData.phoneNumber", "billingData.dataUsage", "billingData.callDuration", "billingData.smsCount",
+                "billingTotal"});
+        var expected = new DelimitedLineAggregator<ReportingData>();
+        expected.setFieldExtractor(fieldExtractor);
+        var aggregator = new ReportingDataLineAggregator();
+
+        // When / Then
+        for (ReportingData report : reports(0, 50)) {
+            Assertions.assertEquals(expected.aggregate(report), aggregator.aggregate(report));
+        }
+    }
+
+    @Test
+    void gzipReportIsOneStreamOfChunkMembers() throws Exception {
+        // Given
+        var file = this.directory.resolve("report.csv.gz");
+        var writer = ChunkedReportFileWriter.gzip("billingDataFileWriter", file);
+
+        // When
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(reports(0, 10)));
+        writer.write(new Chunk<>(reports(10, 20)));
+        writer.close();
+
+        // Then
+        Assertions.assertEquals(lines(reports(0, 20)), readLines(new GZIPInputStream(Files.newInputStream(file))));
+    }
+
+    @Test
+    void restartDropsBlockOfUncommittedChunk() throws Exception {
+        // Given
+        var file = this.directory.resolve("report.csv.zst");
+        var executionContext = new ExecutionContext();
+        var writer = ChunkedReportFileWriter.zstd("billingDataFileWriter", file, 3);
+        writer.open(executionContext);
+        writer.write(new Chunk<>(reports(0, 10)));
+        writer.update(executionContext);
+        writer.write(new Chunk<>(reports(10, 20)));
+        writer.close();
+
+        // When
+        var restarted = ChunkedReportFileWriter.zstd("billingDataFileWriter", file, 3);
+        restarted.open(executionContext);
+        restarted.write(new Chunk<>(reports(10, 20)));
+        restarted.close();
+
+        // Then
+        Assertions.assertEquals(lines(reports(0, 20)), readLines(new ZstdInputStream(Files.newInputStream(file))));
+    }
+
+    @Test
+    void spillFileReadsBackSameRecords() throws Exception {
+        // Given
+        var file = this.directory.resolve("report.spill");
+        var writer = ChunkedReportFileWriter.spill("billingDataFileWriter", file);
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(reports(0, 25)));
+        writer.close();
+
+        // When
+        List<ReportingData> actual = new ArrayList<>();
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            ReportingData item;
+            while ((item = ReportSpillCodec.read(in)) != null) {
+                actual.add(item);
+            }
+        }
+
+        // Then
+        Assertions.assertEquals(reports(0, 25), actual);
+    }
+
+    private static List<ReportingData> reports(int from, int to) {
+        List<ReportingData> reports = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            var billingData = new BillingData(2025, 3, 1000 + i, "555-01" + String.format("%02d", i), i * 1.37f,
+                    i * 7, i * 3);
+            reports.add(new ReportingData(billingData, i * 1.37f * 0.01f + i * 7 * 0.5f + i * 3 * 0.1f));
+        }
+        return reports;
+    }
+
+    private static List<String> lines(List<ReportingData> reports) {
+        var aggregator = new ReportingDataLineAggregator();
+        return reports.stream().map(aggregator::aggregate).toList();
+    }
+
+    private static List<String> readLines(InputStream in) throws Exception {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
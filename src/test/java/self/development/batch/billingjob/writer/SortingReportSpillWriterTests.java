@@ -0,0 +1,151 @@
+package self.development.batch.billingjob.writer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import self.development.batch.billingjob.model.BillingData;
+import self.development.batch.billingjob.model.ReportingData;
+import self.development.batch.billingjob.task.ReportSortMergeTasklet;
+
+class SortingReportSpillWriterTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void runsSpilledUnderMemoryLimitMergeIntoSortedReport() throws Exception {
+        // Given
+        var file = this.directory.resolve("report.csv");
+        var reports = shuffled(reports(0, 100));
+        var writer = new SortingReportSpillWriter("billingDataFileWriter", file, ReportSortOrder.TOTAL, 2000);
+
+        // When
+        writer.open(new ExecutionContext());
+        for (int i = 0; i < reports.size(); i += 10) {
+            writer.write(new Chunk<>(reports.subList(i, i + 10)));
+        }
+        writer.close();
+        long runs;
+        try (var files = Files.list(SortingReportSpillWriter.spillDirectory(file))) {
+            runs = files.filter(spill -> spill.getFileName().toString().startsWith(SortingReportSpillWriter.RUN_PREFIX)).count();
+        }
+        long written = merge(file, "total", 64);
+
+        // Then
+        Assertions.assertTrue(runs > 1, "expected several runs, got " + runs);
+        Assertions.assertEquals(100, written);
+        var expected = new ArrayList<>(reports);
+        expected.sort(ReportSortOrder.TOTAL.comparator());
+        Assertions.assertEquals(lines(expected), Files.readAllLines(file, StandardCharsets.UTF_8));
+        Assertions.assertFalse(Files.exists(SortingReportSpillWriter.spillDirectory(file)));
+    }
+
+    @Test
+    void restartRewritesChunkWhoseRunWasNotCommitted() throws Exception {
+        // Given
+        var file = this.directory.resolve("report.csv");
+        var executionContext = new ExecutionContext();
+        var committed = shuffled(reports(0, 10));
+        var uncommitted = shuffled(reports(10, 20));
+        var writer = new SortingReportSpillWriter("billingDataFileWriter", file, ReportSortOrder.ACCOUNT, 2000);
+        writer.open(executionContext);
+        writer.write(new Chunk<>(committed));
+        writer.update(executionContext);
+        // Pushes the buffer over the limit, so run-0 is written before the failure
+        writer.write(new Chunk<>(uncommitted));
+        writer.close();
+
+        // When
+        var restarted = new SortingReportSpillWriter("billingDataFileWriter", file, ReportSortOrder.ACCOUNT, 2000);
+        restarted.open(executionContext);
+        restarted.write(new Chunk<>(uncommitted));
+        restarted.close();
+        merge(file, "account", 64);
+
+        // Then
+        Assertions.assertEquals(lines(reports(0, 20)), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void runsAboveFanInMergeInSeveralPasses() throws Exception {
+        // Given
+        var file = this.directory.resolve("report.csv");
+        var reports = shuffled(reports(0, 200));
+        var writer = new SortingReportSpillWriter("billingDataFileWriter", file, ReportSortOrder.TOTAL, 2000);
+        writer.open(new ExecutionContext());
+        for (int i = 0; i < reports.size(); i += 10) {
+            writer.write(new Chunk<>(reports.subList(i, i + 10)));
+        }
+        writer.close();
+        var stray = SortingReportSpillWriter.spillDirectory(this.directory.resolve("report.csv.part7"));
+        Files.createDirectories(stray);
+        SortingReportSpillWriter.writeRun(stray, 0, reports(500, 501));
+
+        // When
+        long written = merge(file, "total", 2);
+
+        // Then
+        Assertions.assertEquals(200, written);
+        var expected = new ArrayList<>(reports);
+        expected.sort(ReportSortOrder.TOTAL.comparator());
+        Assertions.assertEquals(lines(expected), Files.readAllLines(file, StandardCharsets.UTF_8));
+        Assertions.assertFalse(Files.exists(stray));
+        Assertions.assertFalse(Files.exists(this.directory.resolve("report.csv.merge")));
+    }
+
+    @Test
+    void missingSpillDirectoryFailsTheMerge() throws Exception {
+        // Given
+        var file = this.directory.resolve("report.csv");
+
+        // When / Then
+        Assertions.assertThrows(IllegalStateException.class, () -> merge(file, "account", 64));
+    }
+
+    private static long merge(Path file, String sort, int fanIn) throws Exception {
+        var parameters = new JobParametersBuilder()
+                .addString("output.file", file.toString())
+                .addString("report.sort", sort)
+                .toJobParameters();
+        var contribution = new StepContribution(MetaDataInstanceFactory.createStepExecution(parameters));
+        var tasklet = new ReportSortMergeTasklet(null, 3, fanIn);
+        while (tasklet.execute(contribution, null).isContinuable()) {
+            Assertions.assertTrue(contribution.getStepExecution().getExecutionContext()
+                    .containsKey(ReportSortMergeTasklet.MERGED_SIZE));
+        }
+        return contribution.getWriteCount();
+    }
+
+    private static List<ReportingData> reports(int from, int to) {
+        List<ReportingData> reports = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            var billingData = new BillingData(2025, 3, 1000 + i, "555-01" + String.format("%02d", i), i * 1.37f,
+                    (i * 37) % 101, i % 7);
+            reports.add(new ReportingData(billingData, billingData.callDuration() * 0.5 + billingData.smsCount() * 0.1));
+        }
+        return reports;
+    }
+
+    private static List<ReportingData> shuffled(List<ReportingData> reports) {
+        List<ReportingData> shuffled = new ArrayList<>(reports);
+        Collections.shuffle(shuffled, new Random(42));
+        return shuffled;
+    }
+
+    private static List<String> lines(List<ReportingData> reports) {
+        var aggregator = new ReportingDataLineAggregator();
+        return reports.stream().map(aggregator::aggregate).toList();
+    }
+}